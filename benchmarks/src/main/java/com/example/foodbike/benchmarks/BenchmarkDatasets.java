@@ -0,0 +1,74 @@
+package com.example.foodbike.benchmarks;
+
+import com.example.foodbike.DatasetGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.Stream;
+
+/**
+ * Builds seeded datasets with {@link DatasetGenerator} under {@code target/bench-data} and reuses
+ * them across forks and runs.
+ */
+public final class BenchmarkDatasets {
+    private static final File ROOT = new File("target/bench-data");
+    private static final String COMPLETE_MARKER = ".complete";
+    private static final long SEED = 42L;
+
+    private BenchmarkDatasets() {
+    }
+
+    public static synchronized File prepare(int orderCount) {
+        File directory = new File(ROOT, "orders-" + orderCount);
+        if (new File(directory, COMPLETE_MARKER).exists()) {
+            return directory;
+        }
+        try {
+            deleteRecursively(directory.toPath());
+            generate(directory, orderCount);
+            Files.createFile(new File(directory, COMPLETE_MARKER).toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return directory;
+    }
+
+    /** Copies a prepared dataset into a fresh directory that a benchmark may modify. */
+    public static File copyToScratch(File dataset) {
+        try {
+            Path scratch = Files.createTempDirectory("foodbike-bench-");
+            try (Stream<Path> files = Files.list(dataset.toPath())) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.copy(file, scratch.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            return scratch.toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path p : (Iterable<Path>) walk.sorted((a, b) -> b.getNameCount() - a.getNameCount())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    private static void generate(File directory, int orderCount) throws IOException {
+        DatasetGenerator generator = new DatasetGenerator(SEED);
+        generator.setOrderCount(orderCount);
+        // Nothing in progress, so opening a dataset never triggers auto-cancel writes mid-benchmark
+        generator.setActiveOrderFraction(0);
+        generator.generate();
+        generator.writeTo(directory);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.foodbike.benchmarks;
+
+import com.example.foodbike.DatabaseService;
+import com.example.foodbike.MenuItem;
+import com.example.foodbike.Order;
+import com.example.foodbike.Restaurant;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write paths of {@link DatabaseService}: creating an order (which saves every data file), an
+ * explicit save, and opening a dataset from its files. Each trial works on a scratch copy of the
+ * dataset so the cached one stays untouched, and loads from a second copy so it never opens a
+ * directory the trial's open instance still holds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class DatabasePersistenceBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int orderCount;
+
+    private File scratch;
+    private File loadScratch;
+    private DatabaseService databaseService;
+    private List<Restaurant> restaurants;
+    private long created;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        File dataset = BenchmarkDatasets.prepare(orderCount);
+        scratch = BenchmarkDatasets.copyToScratch(dataset);
+        loadScratch = BenchmarkDatasets.copyToScratch(dataset);
+        databaseService = DatabaseService.open(scratch);
+        restaurants = databaseService.getAllRestaurants();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        databaseService.close();
+        BenchmarkDatasets.deleteRecursively(scratch.toPath());
+        BenchmarkDatasets.deleteRecursively(loadScratch.toPath());
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        Restaurant restaurant = restaurants.get((int) (created % restaurants.size()));
+        Order order = new Order(String.format("ORD_BENCH_%012d", created++), "user1", restaurant.getId());
+        order.setDistrict(restaurant.getDistrict());
+        for (MenuItem item : restaurant.getMenu()) {
+            order.addItem(item);
+        }
+        order.setPaymentMethod("Bkash");
+        databaseService.createOrder(order);
+        return order;
+    }
+
+    @Benchmark
+    public void saveDataToFiles() {
+        databaseService.saveDataToFiles();
+    }
+
+    @Benchmark
+    public int loadFromFiles() {
+        DatabaseService loaded = DatabaseService.open(loadScratch);
+        int size = loaded.getAllOrders().size();
+        loaded.close();
+        return size;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.foodbike.benchmarks;
+
+import com.example.foodbike.AdminAction;
+import com.example.foodbike.DatabaseService;
+import com.example.foodbike.Order;
+import com.example.foodbike.Restaurant;
+import com.example.foodbike.Review;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of {@link DatabaseService} at growing dataset sizes. Each invocation cycles to the
+ * next user, restaurant or district so results are not skewed by one lucky key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class DatabaseQueryBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int orderCount;
+
+    private DatabaseService databaseService;
+    private String[] userIds;
+    private String[] restaurantIds;
+    private String[] districts;
+    private final String[] searchTerms = {"Kitchen", "dhaka", "Road", "Sylhet", "Biryani", "zzz"};
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        databaseService = DatabaseService.open(BenchmarkDatasets.prepare(orderCount));
+
+        List<String> users = new ArrayList<>();
+        for (Order order : databaseService.getAllOrders()) {
+            users.add(order.getUserId());
+            if (users.size() == 1024) {
+                break;
+            }
+        }
+        userIds = users.toArray(new String[0]);
+        restaurantIds = databaseService.getAllRestaurants().stream().map(Restaurant::getId).toArray(String[]::new);
+        districts = databaseService.getAllDistricts().toArray(new String[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseService.close();
+    }
+
+    private int nextIndex(int length) {
+        next = (next + 1) & Integer.MAX_VALUE;
+        return next % length;
+    }
+
+    @Benchmark
+    public List<Restaurant> searchRestaurants() {
+        return databaseService.searchRestaurants(searchTerms[nextIndex(searchTerms.length)]);
+    }
+
+    @Benchmark
+    public List<Restaurant> getRestaurantsByDistrict() {
+        return databaseService.getRestaurantsByDistrict(districts[nextIndex(districts.length)]);
+    }
+
+    @Benchmark
+    public List<Order> getUserOrders() {
+        return databaseService.getUserOrders(userIds[nextIndex(userIds.length)]);
+    }
+
+    @Benchmark
+    public List<Order> getRestaurantOrders() {
+        return databaseService.getRestaurantOrders(restaurantIds[nextIndex(restaurantIds.length)]);
+    }
+
+    @Benchmark
+    public List<Review> getRestaurantReviews() {
+        return databaseService.getRestaurantReviews(restaurantIds[nextIndex(restaurantIds.length)]);
+    }
+
+    @Benchmark
+    public List<AdminAction> getAllAdminActions() {
+        return databaseService.getAllAdminActions();
+    }
+}
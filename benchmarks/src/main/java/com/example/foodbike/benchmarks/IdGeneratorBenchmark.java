@@ -0,0 +1,68 @@
+package com.example.foodbike.benchmarks;
+
+import com.example.foodbike.IdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link IdGenerator} with one thread and with several threads hammering the same
+ * generator, next to the old {@code "ORD_" + System.currentTimeMillis()} scheme for reference. The
+ * {@code shared} benchmarks go through {@link IdGenerator#getInstance()}, as the application does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+    private IdGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new IdGenerator(1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long nextIdUncontended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long nextIdFourThreads() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long nextIdAllCores() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String prefixedIdAllCores() {
+        return generator.nextId("ORD");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String sharedPrefixedIdUncontended() {
+        return IdGenerator.getInstance().nextId("ORD");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String sharedPrefixedIdAllCores() {
+        return IdGenerator.getInstance().nextId("ORD");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String legacyMillisIdAllCores() {
+        return "ORD_" + System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.foodbike.benchmarks;
+
+import com.example.foodbike.DatabaseService;
+import com.example.foodbike.FoodBikeClient;
+import com.example.foodbike.FoodBikeServer;
+import com.example.foodbike.Json;
+import com.example.foodbike.MenuItem;
+import com.example.foodbike.Order;
+import com.example.foodbike.OrderJson;
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives a {@link FoodBikeServer} with many concurrent clients, each placing orders and walking
+ * them through CONFIRMED, READY, biker assignment and DELIVERED, then reports request throughput
+ * and latency percentiles.
+ *
+ * <pre>
+ * java [-Dfoodbike.token=TOKEN] -cp target/benchmarks.jar com.example.foodbike.benchmarks.ServerLoadTest
+ *     [url|embedded] [clients] [ordersPerClient]
+ * </pre>
+ *
+ * "embedded" (the default) starts a server in this JVM on a free loopback port with a random
+ * token, backed by a fresh data directory under the system temp directory so the run never
+ * touches the app's own data files. For a server given by URL, pass its token as
+ * {@code -Dfoodbike.token}.
+ * Orders use the first available item of each restaurant's menu, since the server prices orders
+ * from the menu.
+ */
+public class ServerLoadTest {
+    private static final Order.OrderStatus[] LIFECYCLE = {
+            Order.OrderStatus.CONFIRMED, Order.OrderStatus.READY, Order.OrderStatus.DELIVERED
+    };
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "embedded";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int ordersPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        FoodBikeServer embedded = null;
+        DatabaseService embeddedData = null;
+        String baseUrl = target;
+        String token = System.getProperty(FoodBikeServer.TOKEN_PROPERTY);
+        if (target.equals("embedded")) {
+            File dataDirectory = Files.createTempDirectory("foodbike-loadtest").toFile();
+            embeddedData = DatabaseService.open(dataDirectory);
+            System.out.println("Embedded server data: " + dataDirectory.getAbsolutePath());
+            token = UUID.randomUUID().toString();
+            embedded = new FoodBikeServer(embeddedData, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), token);
+            embedded.start();
+            baseUrl = "http://localhost:" + embedded.getPort();
+        }
+        try {
+            run(baseUrl, token, clients, ordersPerClient);
+        } finally {
+            if (embedded != null) {
+                embedded.stop();
+                embeddedData.close();
+            }
+        }
+    }
+
+    private static void run(String baseUrl, String token, int clients, int ordersPerClient) throws Exception {
+        List<Target> targets = fetchTargets(baseUrl, token);
+        FoodBikeClient client = new FoodBikeClient(baseUrl, token);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<long[]>> results = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int clientIndex = c;
+                results.add(executor.submit(() -> runClient(client, clientIndex, ordersPerClient, targets, failures)));
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        long[] latencies = results.stream().flatMapToLong(f -> {
+            try {
+                return Arrays.stream(f.get());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).filter(l -> l > 0).sorted().toArray();
+
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("clients=%d orders=%d requests=%d failures=%d time=%.2fs%n",
+                clients, clients * ordersPerClient, latencies.length, failures.get(), seconds);
+        System.out.printf("throughput: %.0f requests/s, %.0f orders/s%n",
+                latencies.length / seconds, clients * ordersPerClient / seconds);
+        System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private static long[] runClient(FoodBikeClient client, int clientIndex, int ordersPerClient,
+                                    List<Target> targets, AtomicInteger failures) {
+        long[] latencies = new long[ordersPerClient * (LIFECYCLE.length + 2)];
+        int n = 0;
+        for (int i = 0; i < ordersPerClient; i++) {
+            try {
+                Target target = targets.get((clientIndex * ordersPerClient + i) % targets.size());
+                Order order = new Order(null, "loadtest_user_" + clientIndex, target.restaurantId);
+                order.addItem(target.item);
+                order.setPaymentMethod("Cash on Delivery");
+
+                long t = System.nanoTime();
+                String orderId = client.createOrder(order).getOrderId();
+                latencies[n++] = System.nanoTime() - t;
+
+                for (Order.OrderStatus status : LIFECYCLE) {
+                    if (status == Order.OrderStatus.DELIVERED) {
+                        t = System.nanoTime();
+                        if (client.assignBiker(orderId, "loadtest_biker_" + clientIndex) == null) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[n++] = System.nanoTime() - t;
+                    }
+                    t = System.nanoTime();
+                    if (client.updateOrderStatus(orderId, status) == null) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[n++] = System.nanoTime() - t;
+                }
+            } catch (Exception e) {
+                failures.incrementAndGet();
+            }
+        }
+        return latencies;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Target> fetchTargets(String baseUrl, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/restaurants")).GET();
+        if (token != null) {
+            request.header(FoodBikeServer.TOKEN_HEADER, token);
+        }
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Server returned " + response.statusCode() + " for /api/restaurants: " + response.body());
+        }
+        List<Target> targets = new ArrayList<>();
+        for (Object restaurant : (List<Object>) Json.parseObject(response.body()).get("restaurants")) {
+            Map<String, Object> json = (Map<String, Object>) restaurant;
+            for (Object item : (List<Object>) json.getOrDefault("menu", List.of())) {
+                MenuItem menuItem = OrderJson.menuItemFromJson((Map<String, Object>) item);
+                if (menuItem.isAvailable()) {
+                    targets.add(new Target(Json.getString(json, "id"), menuItem));
+                    break;
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            throw new IllegalStateException("Server has no available menu items to order");
+        }
+        return targets;
+    }
+
+    /** A restaurant and the menu item the load test orders from it. */
+    private static final class Target {
+        private final String restaurantId;
+        private final MenuItem item;
+
+        Target(String restaurantId, MenuItem item) {
+            this.restaurantId = restaurantId;
+            this.item = item;
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1e6;
+    }
+}
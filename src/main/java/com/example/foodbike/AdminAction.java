@@ -1,11 +1,19 @@
 package com.example.foodbike;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
 
 public class AdminAction implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+
+    /** Newest action first, ties broken by action ID; the timestamp must not change once stored. */
+    public static final Comparator<AdminAction> NEWEST_FIRST =
+            Comparator.comparingLong(AdminAction::getTimestampMillis).thenComparing(AdminAction::getActionId).reversed();
     
     public enum ActionType {
         APPROVED_APPLICATION,
@@ -22,15 +30,15 @@ public class AdminAction implements Serializable {
     private ActionType actionType;
     private String targetName;
     private String details;
-    private LocalDateTime timestamp;
+    private long timestampMillis;
     
     public AdminAction(String adminUsername, ActionType actionType, String targetName, String details) {
-        this.actionId = "ACT_" + System.currentTimeMillis();
+        this.actionId = IdGenerator.getInstance().nextId("ACT");
         this.adminUsername = adminUsername;
         this.actionType = actionType;
         this.targetName = targetName;
         this.details = details;
-        this.timestamp = LocalDateTime.now();
+        this.timestampMillis = System.currentTimeMillis();
     }
     
     public String getActionId() {
@@ -73,17 +81,37 @@ public class AdminAction implements Serializable {
         this.details = details;
     }
     
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+    
+    public void setTimestampMillis(long timestampMillis) {
+        this.timestampMillis = timestampMillis;
+    }
+    
     public LocalDateTime getTimestamp() {
-        return timestamp;
+        return Timestamps.toDateTime(timestampMillis);
     }
     
     public void setTimestamp(LocalDateTime timestamp) {
-        this.timestamp = timestamp;
+        this.timestampMillis = Timestamps.toMillis(timestamp);
     }
     
     public String getFormattedTimestamp() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
-        return timestamp.format(formatter);
+        return timestampMillis != 0 ? getTimestamp().format(TIMESTAMP_FORMAT) : "";
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        actionId = (String) fields.get("actionId", null);
+        adminUsername = (String) fields.get("adminUsername", null);
+        actionType = (ActionType) fields.get("actionType", null);
+        targetName = (String) fields.get("targetName", null);
+        details = (String) fields.get("details", null);
+        // Actions saved before epoch millis have a LocalDateTime "timestamp" instead
+        timestampMillis = fields.defaulted("timestampMillis")
+                ? Timestamps.toMillis((LocalDateTime) fields.get("timestamp", null))
+                : fields.get("timestampMillis", 0L);
     }
     
     public String getActionDescription() {
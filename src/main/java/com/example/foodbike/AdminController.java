@@ -1,5 +1,6 @@
 package com.example.foodbike;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -11,9 +12,11 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-
+import java.io.File;
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -32,19 +35,11 @@ public class AdminController {
 
     private DatabaseService databaseService;
     private List<Restaurant> allRestaurants;
+    private final ObservableList<Restaurant> restaurantItems = FXCollections.observableArrayList();
+    private DebouncedSearch<List<Restaurant>> search;
     private User currentUser;
-
-    private static final Map<String, String> DIVISION_PREFIXES = new HashMap<>();
-    static {
-        DIVISION_PREFIXES.put("Dhaka", "DH");
-        DIVISION_PREFIXES.put("Chittagong", "CH");
-        DIVISION_PREFIXES.put("Sylhet", "SY");
-        DIVISION_PREFIXES.put("Rajshahi", "RJ");
-        DIVISION_PREFIXES.put("Khulna", "KH");
-        DIVISION_PREFIXES.put("Barisal", "BA");
-        DIVISION_PREFIXES.put("Rangpur", "RP");
-        DIVISION_PREFIXES.put("Mymensingh", "MY");
-    }
+    private final Map<String, VBox> applicationCards = new HashMap<>();
+    private final DataChangeListener changeListener = event -> Platform.runLater(() -> applyChange(event));
 
     @FXML
     public void initialize() {
@@ -52,57 +47,90 @@ public class AdminController {
         setupDivisionCombo();
         setupDistrictCombo();
         setupTableColumns();
+        restaurantsTable.setItems(restaurantItems);
+        addActionColumns();
+        setupSearch();
         loadRestaurants();
         loadPendingApplications();
+        databaseService.subscribe(changeListener);
     }
     
-    public void setCurrentUser(User user) {
+    void setCurrentUser(User user, Stage stage) {
         this.currentUser = user;
+        // Closing the window skips handleLogout, so stop listening here as well
+        stage.setOnHidden(e -> databaseService.unsubscribe(changeListener));
     }
 
     private void loadPendingApplications() {
         applicationsBox.getChildren().clear();
+        applicationCards.clear();
         List<RestaurantApplication> pendingApps = databaseService.getPendingApplications();
         
-        pendingCountLabel.setText(pendingApps.size() + " Pending Application" + (pendingApps.size() != 1 ? "s" : ""));
-        
         for (RestaurantApplication app : pendingApps) {
-            VBox appCard = new VBox(10);
-            appCard.setStyle("-fx-border-color: #3498db; -fx-border-width: 2; -fx-border-radius: 6; -fx-padding: 12; -fx-background-color: #ecf0f1;");
-            
-            Label nameLabel = new Label("Restaurant: " + app.getRestaurantName());
-            nameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13;");
-            
-            Label locationLabel = new Label("Location: " + app.getDistrict() + ", " + app.getDivision() + " - " + app.getAddress());
-            locationLabel.setStyle("-fx-font-size: 11;");
-            
-            Label ratingLabel = new Label("Rating: " + app.getRating() + " ★");
-            ratingLabel.setStyle("-fx-font-size: 11;");
-            
-            Label menuLabel = new Label("Menu Items: " + app.getMenuItems().size());
-            menuLabel.setStyle("-fx-font-size: 11;");
-            
-            Label entrepreneurLabel = new Label("By: " + app.getEntrepreneurUsername());
-            entrepreneurLabel.setStyle("-fx-font-size: 10; -fx-text-fill: #7f8c8d;");
-            
-            HBox buttonBox = new HBox(10);
-            Button viewBtn = new Button("View Details");
-            viewBtn.setStyle("-fx-padding: 6 12; -fx-font-size: 11; -fx-background-color: #3498db; -fx-text-fill: white; -fx-border-radius: 4;");
-            viewBtn.setOnAction(e -> showApplicationDetails(app));
-            
-            Button approveBtn = new Button("Approve");
-            approveBtn.setStyle("-fx-padding: 6 12; -fx-font-size: 11; -fx-background-color: #27ae60; -fx-text-fill: white; -fx-border-radius: 4;");
-            approveBtn.setOnAction(e -> approveApplication(app));
-            
-            Button rejectBtn = new Button("Reject");
-            rejectBtn.setStyle("-fx-padding: 6 12; -fx-font-size: 11; -fx-background-color: #e74c3c; -fx-text-fill: white; -fx-border-radius: 4;");
-            rejectBtn.setOnAction(e -> rejectApplication(app));
-            
-            buttonBox.getChildren().addAll(viewBtn, approveBtn, rejectBtn);
-            
-            appCard.getChildren().addAll(nameLabel, locationLabel, ratingLabel, menuLabel, entrepreneurLabel, buttonBox);
+            VBox appCard = createApplicationCard(app);
+            applicationCards.put(app.getApplicationId(), appCard);
             applicationsBox.getChildren().add(appCard);
         }
+        updatePendingCount();
+    }
+
+    private void updatePendingCount() {
+        int pendingCount = applicationCards.size();
+        pendingCountLabel.setText(pendingCount + " Pending Application" + (pendingCount != 1 ? "s" : ""));
+    }
+
+    private void applyChange(DataChangeEvent event) {
+        RestaurantApplication app = event.getApplication();
+        if (event.getType() == DataChangeEvent.Type.APPLICATION_SUBMITTED && !applicationCards.containsKey(app.getApplicationId())) {
+            VBox appCard = createApplicationCard(app);
+            applicationCards.put(app.getApplicationId(), appCard);
+            applicationsBox.getChildren().add(appCard);
+            updatePendingCount();
+        } else if (event.getType() == DataChangeEvent.Type.APPLICATION_DECIDED) {
+            VBox appCard = applicationCards.remove(app.getApplicationId());
+            if (appCard != null) {
+                applicationsBox.getChildren().remove(appCard);
+                updatePendingCount();
+            }
+        }
+    }
+
+    private VBox createApplicationCard(RestaurantApplication app) {
+        VBox appCard = new VBox(10);
+        appCard.setStyle("-fx-border-color: #3498db; -fx-border-width: 2; -fx-border-radius: 6; -fx-padding: 12; -fx-background-color: #ecf0f1;");
+        
+        Label nameLabel = new Label("Restaurant: " + app.getRestaurantName());
+        nameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13;");
+        
+        Label locationLabel = new Label("Location: " + app.getDistrict() + ", " + app.getDivision() + " - " + app.getAddress());
+        locationLabel.setStyle("-fx-font-size: 11;");
+        
+        Label ratingLabel = new Label("Rating: " + app.getRating() + " ★");
+        ratingLabel.setStyle("-fx-font-size: 11;");
+        
+        Label menuLabel = new Label("Menu Items: " + app.getMenuItems().size());
+        menuLabel.setStyle("-fx-font-size: 11;");
+        
+        Label entrepreneurLabel = new Label("By: " + app.getEntrepreneurUsername());
+        entrepreneurLabel.setStyle("-fx-font-size: 10; -fx-text-fill: #7f8c8d;");
+        
+        HBox buttonBox = new HBox(10);
+        Button viewBtn = new Button("View Details");
+        viewBtn.setStyle("-fx-padding: 6 12; -fx-font-size: 11; -fx-background-color: #3498db; -fx-text-fill: white; -fx-border-radius: 4;");
+        viewBtn.setOnAction(e -> showApplicationDetails(app));
+        
+        Button approveBtn = new Button("Approve");
+        approveBtn.setStyle("-fx-padding: 6 12; -fx-font-size: 11; -fx-background-color: #27ae60; -fx-text-fill: white; -fx-border-radius: 4;");
+        approveBtn.setOnAction(e -> approveApplication(app));
+        
+        Button rejectBtn = new Button("Reject");
+        rejectBtn.setStyle("-fx-padding: 6 12; -fx-font-size: 11; -fx-background-color: #e74c3c; -fx-text-fill: white; -fx-border-radius: 4;");
+        rejectBtn.setOnAction(e -> rejectApplication(app));
+        
+        buttonBox.getChildren().addAll(viewBtn, approveBtn, rejectBtn);
+        
+        appCard.getChildren().addAll(nameLabel, locationLabel, ratingLabel, menuLabel, entrepreneurLabel, buttonBox);
+        return appCard;
     }
 
     private void showApplicationDetails(RestaurantApplication app) {
@@ -127,7 +155,7 @@ public class AdminController {
         
         VBox menuBox = new VBox(5);
         for (MenuItem item : app.getMenuItems()) {
-            Label itemLabel = new Label("• " + item.getName() + " - " + item.getDescription() + " (৳" + String.format("%.2f", item.getPrice()) + ")");
+            Label itemLabel = new Label("• " + item.getName() + " - " + item.getDescription() + " (" + Money.format(item.getPriceMinor()) + ")");
             itemLabel.setStyle("-fx-font-size: 11;");
             menuBox.getChildren().add(itemLabel);
         }
@@ -145,6 +173,9 @@ public class AdminController {
     }
 
     private void approveApplication(RestaurantApplication app) {
+        if (refuseWhenRemote()) {
+            return;
+        }
         TextInputDialog dialog = new TextInputDialog("Your restaurant application has been approved!");
         dialog.setTitle("Approve Application");
         dialog.setHeaderText("Approve: " + app.getRestaurantName());
@@ -152,21 +183,12 @@ public class AdminController {
         
         Optional<String> result = dialog.showAndWait();
         result.ifPresent(message -> {
-            int count = 0;
-            for (Restaurant r : allRestaurants) {
-                if (r.getDivision().equals(app.getDivision())) {
-                    count++;
-                }
-            }
-            String prefix = DIVISION_PREFIXES.get(app.getDivision());
-            String restaurantId = String.format("%s%03d", prefix, count + 1);
+            String restaurantId = databaseService.nextRestaurantId(app.getDivision());
             
             Restaurant newRestaurant = new Restaurant(restaurantId, app.getRestaurantName(), app.getDivision(), app.getDistrict(), app.getAddress());
             newRestaurant.setRating(app.getRating());
             
-            for (MenuItem item : app.getMenuItems()) {
-                newRestaurant.addMenuItem(item);
-            }
+            newRestaurant.addMenuItems(app.getMenuItems());
             
             databaseService.addRestaurant(newRestaurant);
             databaseService.updateApplicationStatus(app.getApplicationId(), RestaurantApplication.ApplicationStatus.APPROVED, message);
@@ -182,12 +204,14 @@ public class AdminController {
             }
             
             loadRestaurants();
-            loadPendingApplications();
             showAlert("Success", "Application Approved", "Restaurant has been added successfully!");
         });
     }
 
     private void rejectApplication(RestaurantApplication app) {
+        if (refuseWhenRemote()) {
+            return;
+        }
         TextInputDialog dialog = new TextInputDialog("Sorry, your application does not meet our requirements.");
         dialog.setTitle("Reject Application");
         dialog.setHeaderText("Reject: " + app.getRestaurantName());
@@ -207,7 +231,6 @@ public class AdminController {
                 databaseService.logAdminAction(action);
             }
             
-            loadPendingApplications();
             showAlert("Success", "Application Rejected", "Application has been rejected.");
         });
     }
@@ -264,9 +287,31 @@ public class AdminController {
 
     private void loadRestaurants() {
         allRestaurants = databaseService.getAllRestaurants();
-        ObservableList<Restaurant> observableRestaurants = FXCollections.observableArrayList(allRestaurants);
-        restaurantsTable.setItems(observableRestaurants);
-        addActionColumns();
+        ListDiff.apply(restaurantItems, allRestaurants);
+    }
+
+    /** Filters the table by name or address as the admin types, off the FX thread. */
+    private void setupSearch() {
+        search = new DebouncedSearch<>(DebouncedSearch.DEFAULT_DELAY_MILLIS,
+                query -> databaseService.getRestaurantSearchIndex().searchNameOrAddress(query),
+                this::showSearchResults);
+        searchField.textProperty().addListener((obs, oldText, newText) -> search.submit(newText));
+        searchField.setOnAction(e -> handleSearch());
+    }
+
+    private void showSearchResults(List<Restaurant> results) {
+        ListDiff.apply(restaurantItems, results);
+        if (!searchField.getText().trim().isEmpty()) {
+            // Clear filters when search is performed
+            divisionCombo.setValue("All");
+            districtCombo.setValue("All");
+        }
+    }
+
+    // Clearing the field would otherwise schedule a search for "" that overwrites the new results
+    private void clearSearch() {
+        searchField.clear();
+        search.cancel();
     }
 
     private void addActionColumns() {
@@ -317,6 +362,9 @@ public class AdminController {
             {
                 deleteBtn.setStyle("-fx-padding: 5 10; -fx-font-size: 11; -fx-background-color: #e74c3c; -fx-text-fill: white; -fx-border-radius: 4;");
                 deleteBtn.setOnAction(e -> {
+                    if (refuseWhenRemote()) {
+                        return;
+                    }
                     Restaurant restaurant = getTableView().getItems().get(getIndex());
                     Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
                     confirmAlert.setTitle("Confirm Delete");
@@ -356,25 +404,7 @@ public class AdminController {
 
     @FXML
     public void handleSearch() {
-        String searchText = searchField.getText().toLowerCase().trim();
-        
-        if (searchText.isEmpty()) {
-            loadRestaurants();
-            return;
-        }
-        
-        List<Restaurant> filteredList = allRestaurants.stream()
-            .filter(r -> r.getName().toLowerCase().contains(searchText) || 
-                        r.getAddress().toLowerCase().contains(searchText))
-            .collect(Collectors.toList());
-        
-        ObservableList<Restaurant> observableList = FXCollections.observableArrayList(filteredList);
-        restaurantsTable.setItems(observableList);
-        addActionColumns();
-        
-        // Clear filters when search is performed
-        divisionCombo.setValue("All");
-        districtCombo.setValue("All");
+        search.submitNow(searchField.getText());
     }
 
     @FXML
@@ -388,25 +418,20 @@ public class AdminController {
             return;
         }
         
+        long districtMask = Geography.filterMask(selectedDivision, selectedDistrict);
         List<Restaurant> filteredList = allRestaurants.stream()
-            .filter(r -> {
-                boolean matchesDivision = selectedDivision == null || selectedDivision.equals("All") || r.getDivision().equals(selectedDivision);
-                boolean matchesDistrict = selectedDistrict == null || selectedDistrict.equals("All") || r.getDistrict().equals(selectedDistrict);
-                return matchesDivision && matchesDistrict;
-            })
+            .filter(r -> Geography.matches(districtMask, r.getDistrictCode()))
             .collect(Collectors.toList());
         
-        ObservableList<Restaurant> observableList = FXCollections.observableArrayList(filteredList);
-        restaurantsTable.setItems(observableList);
-        addActionColumns();
+        ListDiff.apply(restaurantItems, filteredList);
         
         // Clear search field when filter is applied
-        searchField.clear();
+        clearSearch();
     }
 
     @FXML
     public void handleClear() {
-        searchField.clear();
+        clearSearch();
         divisionCombo.setValue("All");
         districtCombo.setValue("All");
         loadRestaurants();
@@ -414,6 +439,9 @@ public class AdminController {
 
     @FXML
     public void handleAddRestaurant() {
+        if (refuseWhenRemote()) {
+            return;
+        }
         Dialog<Restaurant> dialog = new Dialog<>();
         dialog.setTitle("Add New Restaurant");
         dialog.setHeaderText("Enter Restaurant Details");
@@ -499,14 +527,7 @@ public class AdminController {
                     return null;
                 }
 
-                int count = 0;
-                for (Restaurant r : allRestaurants) {
-                    if (r.getDivision().equals(division)) {
-                        count++;
-                    }
-                }
-                String prefix = DIVISION_PREFIXES.get(division);
-                String restaurantId = String.format("%s%03d", prefix, count + 1);
+                String restaurantId = databaseService.nextRestaurantId(division);
                 Restaurant newRestaurant = new Restaurant(
                     restaurantId,
                     name,
@@ -542,6 +563,9 @@ public class AdminController {
     }
 
     private void showMenuDialog(Restaurant restaurant) {
+        if (refuseWhenRemote()) {
+            return;
+        }
         Dialog<Void> menuDialog = new Dialog<>();
         menuDialog.setTitle("Add Menu Items");
         menuDialog.setHeaderText("Add menu items for " + restaurant.getName());
@@ -590,19 +614,13 @@ public class AdminController {
         
         menuDialog.setOnCloseRequest(e -> {
             if (menuDialog.getResult() == null) {
-                for (MenuItem item : menuItems) {
-                    restaurant.addMenuItem(item);
-                }
-                databaseService.saveDataToFiles();
+                databaseService.addMenuItems(restaurant, menuItems);
             }
         });
         
         Optional<Void> menuResult = menuDialog.showAndWait();
         if (menuResult.isPresent() || menuResult.isEmpty()) {
-            for (MenuItem item : menuItems) {
-                restaurant.addMenuItem(item);
-            }
-            databaseService.saveDataToFiles();
+            databaseService.addMenuItems(restaurant, menuItems);
         }
     }
 
@@ -658,11 +676,11 @@ public class AdminController {
                 return;
             }
             
-            String itemId = "item_" + System.currentTimeMillis();
-            MenuItem menuItem = new MenuItem(itemId, itemName, itemDesc, price);
+            String itemId = IdGenerator.getInstance().nextId("item");
+            MenuItem menuItem = new MenuItem(itemId, itemName, itemDesc, Money.ofMajor(price));
             menuItems.add(menuItem);
             
-            Label itemLabel = new Label(itemName + " - ৳" + String.format("%.2f", price));
+            Label itemLabel = new Label(itemName + " - " + Money.format(menuItem.getPriceMinor()));
             itemLabel.setStyle("-fx-font-size: 11; -fx-padding: 3; -fx-text-fill: #2c3e50;");
             addedItemsList.getChildren().add(itemLabel);
             
@@ -707,7 +725,12 @@ public class AdminController {
                 Button editBtn = new Button("Edit Item");
                 editBtn.setStyle("-fx-padding: 5 12; -fx-font-size: 10; -fx-background-color: #3498db; -fx-text-fill: white; -fx-border-radius: 3;");
                 editBtn.setOnAction(e -> {
-                    showEditItemDialog(item, nameLabel, itemCard, restaurant);
+                    if (refuseWhenRemote()) {
+                        return;
+                    }
+                    // Look the item up again: an earlier edit from this card published a newer copy
+                    MenuItem current = databaseService.findMenuItem(item.getId());
+                    showEditItemDialog(current != null ? current : item, nameLabel, itemCard);
                 });
                 
                 nameBox.getChildren().addAll(nameLabel, editBtn);
@@ -716,7 +739,7 @@ public class AdminController {
                 descLabel.setStyle("-fx-font-size: 11; -fx-text-fill: #7f8c8d;");
                 descLabel.setWrapText(true);
                 
-                Label priceLabel = new Label("৳" + String.format("%.2f", item.getPrice()));
+                Label priceLabel = new Label(Money.format(item.getPriceMinor()));
                 priceLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 12; -fx-text-fill: #27ae60;");
                 
                 itemCard.getChildren().addAll(nameBox, descLabel, priceLabel);
@@ -735,7 +758,7 @@ public class AdminController {
         dialog.showAndWait();
     }
 
-    private void showEditItemDialog(MenuItem item, Label nameLabel, VBox itemCard, Restaurant restaurant) {
+    private void showEditItemDialog(MenuItem item, Label nameLabel, VBox itemCard) {
         Dialog<Void> editDialog = new Dialog<>();
         editDialog.setTitle("Edit Menu Item");
         editDialog.setHeaderText("Edit item details");
@@ -753,7 +776,7 @@ public class AdminController {
         descField.setPromptText("Description");
         descField.setPrefWidth(250);
         
-        Spinner<Double> priceSpinner = new Spinner<>(0.0, 10000.0, item.getPrice(), 10.0);
+        Spinner<Double> priceSpinner = new Spinner<>(0.0, 10000.0, Money.toMajor(item.getPriceMinor()), 10.0);
         priceSpinner.setEditable(true);
         priceSpinner.setPrefWidth(250);
         
@@ -786,17 +809,14 @@ public class AdminController {
                     return null;
                 }
                 
-                item.setName(newName);
-                item.setDescription(newDesc);
-                item.setPrice(newPrice);
-                
+                MenuItem updated = item.withDetails(newName, newDesc, Money.ofMajor(newPrice));
+                databaseService.updateMenuItem(updated);
                 nameLabel.setText(newName);
                 Label descLabel = (Label) itemCard.getChildren().get(1);
                 descLabel.setText(newDesc);
                 Label priceLabel = (Label) itemCard.getChildren().get(2);
-                priceLabel.setText("৳" + String.format("%.2f", newPrice));
+                priceLabel.setText(Money.format(updated.getPriceMinor()));
                 
-                databaseService.saveDataToFiles();
                 showAlert("Success", "Item Updated", "Menu item has been updated successfully.");
             }
             return null;
@@ -809,6 +829,64 @@ public class AdminController {
     public void handleViewRestaurants() {
         loadRestaurants();
     }
+
+    @FXML
+    public void handleImportRestaurants() {
+        if (refuseWhenRemote()) {
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Restaurants");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV or JSON Lines", "*.csv", "*.jsonl", "*.ndjson"));
+        File file = chooser.showOpenDialog(restaurantsTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        // Large files take a while to read and validate, so keep the UI thread free; the restaurants
+        // are added on the UI thread, which the screens read them from
+        RestaurantImporter importer = new RestaurantImporter(databaseService);
+        Thread.ofVirtual().name("restaurant-import").start(() -> {
+            RestaurantImporter.Result result;
+            try {
+                result = importer.prepare(file);
+            } catch (IOException e) {
+                Platform.runLater(() -> showAlert("Import Failed", "Could not read " + file.getName(), e.getMessage()));
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("Error importing " + file + ": " + e);
+                Platform.runLater(() -> showAlert("Import Failed", "Could not import " + file.getName(), String.valueOf(e.getMessage())));
+                return;
+            }
+            Platform.runLater(() -> {
+                importer.commit(result);
+                showImportResult(file, result);
+            });
+        });
+    }
+
+    private void showImportResult(File file, RestaurantImporter.Result result) {
+        if (!result.isSuccess()) {
+            String errors = String.join("\n", result.getErrors());
+            if (result.getErrorCount() > result.getErrors().size()) {
+                errors += "\n... and " + (result.getErrorCount() - result.getErrors().size()) + " more";
+            }
+            showAlert("Import Failed", result.getErrorCount() + " error(s) in " + file.getName() + "; nothing was imported", errors);
+            return;
+        }
+        if (currentUser != null && result.getRestaurantCount() > 0) {
+            AdminAction action = new AdminAction(
+                currentUser.getUsername(),
+                AdminAction.ActionType.ADDED_RESTAURANT,
+                file.getName(),
+                "Imported " + result.getRestaurantCount() + " restaurants with " + result.getItemCount() + " menu items from " + file.getName()
+            );
+            databaseService.logAdminAction(action);
+        }
+        loadRestaurants();
+        showAlert("Import Complete", "Restaurants Imported",
+                "Imported " + result.getRestaurantCount() + " restaurants with " + result.getItemCount() + " menu items.");
+    }
     
     @FXML
     public void handleViewHistory() {
@@ -816,12 +894,12 @@ public class AdminController {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("admin-history-view.fxml"));
             Scene scene = new Scene(fxmlLoader.load(), 900, 700);
             
-            AdminHistoryController controller = fxmlLoader.getController();
-            controller.setCurrentUser(currentUser);
-            
             Stage stage = new Stage();
             stage.setTitle("Admin Action History");
             stage.setScene(scene);
+
+            AdminHistoryController controller = fxmlLoader.getController();
+            controller.setCurrentUser(currentUser, stage);
             stage.show();
         } catch (IOException e) {
             e.printStackTrace();
@@ -829,11 +907,112 @@ public class AdminController {
         }
     }
 
+    @FXML
+    public void handleSales() {
+        SalesRollups rollups = databaseService.getSalesRollups();
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Sales");
+        dialog.setHeaderText("📈 Sales by Division, District and Restaurant");
+
+        VBox content = new VBox(15);
+        content.setPadding(new Insets(20));
+
+        ComboBox<String> scopeCombo = new ComboBox<>();
+        scopeCombo.getItems().addAll("Division", "District", "Restaurant");
+        scopeCombo.setValue("Division");
+
+        ComboBox<String> periodCombo = new ComboBox<>();
+        periodCombo.getItems().addAll("Today", "Last 7 Days", "Last 30 Days", "Last 365 Days");
+        periodCombo.setValue("Last 7 Days");
+
+        HBox filterBox = new HBox(10, new Label("Group by:"), scopeCombo, new Label("Period:"), periodCombo);
+        filterBox.setStyle("-fx-alignment: center-left;");
+
+        TableView<SalesRollups.Sales> salesTable = new TableView<>();
+        salesTable.setPrefHeight(400);
+        salesTable.setPrefWidth(760);
+        salesTable.setPlaceholder(new Label("No orders in this period"));
+
+        TableColumn<SalesRollups.Sales, String> nameCol = new TableColumn<>("Name");
+        nameCol.setCellValueFactory(data -> {
+            String key = data.getValue().getKey();
+            Restaurant restaurant = "Restaurant".equals(scopeCombo.getValue()) ? databaseService.getRestaurant(key) : null;
+            return new javafx.beans.property.SimpleStringProperty(restaurant != null ? restaurant.getName() + " (" + key + ")" : key);
+        });
+        nameCol.setPrefWidth(220);
+
+        TableColumn<SalesRollups.Sales, Number> ordersCol = new TableColumn<>("Orders");
+        ordersCol.setCellValueFactory(data -> new javafx.beans.property.SimpleIntegerProperty(data.getValue().getOrderCount()));
+        ordersCol.setPrefWidth(80);
+
+        TableColumn<SalesRollups.Sales, Number> cancelledCol = new TableColumn<>("Cancelled");
+        cancelledCol.setCellValueFactory(data -> new javafx.beans.property.SimpleIntegerProperty(data.getValue().getCancelledCount()));
+        cancelledCol.setPrefWidth(90);
+
+        TableColumn<SalesRollups.Sales, Number> deliveredCol = new TableColumn<>("Delivered");
+        deliveredCol.setCellValueFactory(data -> new javafx.beans.property.SimpleIntegerProperty(data.getValue().getDeliveredCount()));
+        deliveredCol.setPrefWidth(90);
+
+        TableColumn<SalesRollups.Sales, String> revenueCol = new TableColumn<>("Revenue");
+        revenueCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(Money.format(data.getValue().getRevenueMinor())));
+        revenueCol.setPrefWidth(130);
+
+        TableColumn<SalesRollups.Sales, String> basketCol = new TableColumn<>("Avg. Basket");
+        basketCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(Money.format(data.getValue().getAverageBasketMinor())));
+        basketCol.setPrefWidth(130);
+
+        salesTable.getColumns().addAll(List.of(nameCol, ordersCol, cancelledCol, deliveredCol, revenueCol, basketCol));
+
+        Label totalLabel = new Label();
+        totalLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+
+        Runnable refresh = () -> {
+            SalesRollups.Scope scope = switch (scopeCombo.getValue()) {
+                case "District" -> SalesRollups.Scope.DISTRICT;
+                case "Restaurant" -> SalesRollups.Scope.RESTAURANT;
+                default -> SalesRollups.Scope.DIVISION;
+            };
+            int days = switch (periodCombo.getValue()) {
+                case "Today" -> 1;
+                case "Last 30 Days" -> 30;
+                case "Last 365 Days" -> 365;
+                default -> 7;
+            };
+            LocalDate today = LocalDate.now();
+            List<SalesRollups.Sales> totals = rollups.getTotals(scope, today.minusDays(days - 1), today);
+            totals.sort(Comparator.comparingLong(SalesRollups.Sales::getRevenueMinor).reversed());
+            salesTable.getItems().setAll(totals);
+
+            int orderCount = 0;
+            int cancelledCount = 0;
+            long revenueMinor = 0;
+            for (SalesRollups.Sales sales : totals) {
+                orderCount += sales.getOrderCount();
+                cancelledCount += sales.getCancelledCount();
+                revenueMinor += sales.getRevenueMinor();
+            }
+            int kept = orderCount - cancelledCount;
+            totalLabel.setText("Total: " + orderCount + " orders, " + cancelledCount + " cancelled, " + Money.format(revenueMinor)
+                    + " revenue, avg. basket " + Money.format(kept > 0 ? revenueMinor / kept : 0));
+        };
+        scopeCombo.setOnAction(e -> refresh.run());
+        periodCombo.setOnAction(e -> refresh.run());
+        refresh.run();
+
+        content.getChildren().addAll(filterBox, salesTable, totalLabel);
+
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().add(new ButtonType("Close", ButtonBar.ButtonData.CANCEL_CLOSE));
+        dialog.showAndWait();
+    }
+
     @FXML
     public void handleBalance() {
-        List<AdminAction> allActions = databaseService.getAllAdminActions();
-        int totalActions = allActions.size();
-        int totalIncome = totalActions * 10;
+        Ledger ledger = databaseService.getLedger();
+        int totalActions = ledger.getCreditCount(Ledger.ADMIN_ACCOUNT);
+        long balanceMinor = ledger.getBalance(Ledger.ADMIN_ACCOUNT);
+        long withdrawnMinor = ledger.getTotalDebited(Ledger.ADMIN_ACCOUNT);
         
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Admin Balance");
@@ -843,9 +1022,10 @@ public class AdminController {
         content.setPadding(new Insets(20));
         
         Label summaryLabel = new Label("Total Actions: " + totalActions + "\n" +
-                           "Income per Action: ৳10\n" +
+                           "Income per Action: " + Money.format(DatabaseService.ADMIN_ACTION_FEE_MINOR) + "\n" +
+                           "Withdrawn: " + Money.format(withdrawnMinor) + "\n" +
                            "─────────────────\n" +
-                           "Total Balance: ৳" + totalIncome);
+                           "Total Balance: " + Money.format(balanceMinor));
         summaryLabel.setStyle("-fx-font-size: 14;");
         
         content.getChildren().add(summaryLabel);
@@ -856,18 +1036,24 @@ public class AdminController {
         ButtonType closeBtn = new ButtonType("Close", ButtonBar.ButtonData.CANCEL_CLOSE);
         dialog.getDialogPane().getButtonTypes().addAll(withdrawBtn, closeBtn);
         
-        final int finalTotalIncome = totalIncome;
         dialog.showAndWait().ifPresent(response -> {
             if (response == withdrawBtn) {
-                showWithdrawDialog(finalTotalIncome);
+                if (balanceMinor <= 0) {
+                    showAlert("Withdraw Balance", null, "There is no balance to withdraw.");
+                    return;
+                }
+                if (refuseWhenRemote()) {
+                    return;
+                }
+                showWithdrawDialog(Ledger.ADMIN_ACCOUNT, balanceMinor);
             }
         });
     }
     
-    private void showWithdrawDialog(int balance) {
+    private void showWithdrawDialog(String ledgerAccount, long balanceMinor) {
         Dialog<ButtonType> withdrawDialog = new Dialog<>();
         withdrawDialog.setTitle("Withdraw Balance");
-        withdrawDialog.setHeaderText("💳 Withdraw ৳" + balance);
+        withdrawDialog.setHeaderText("💳 Withdraw " + Money.format(balanceMinor));
         
         VBox content = new VBox(15);
         content.setPadding(new Insets(20));
@@ -907,17 +1093,17 @@ public class AdminController {
                 }
                 
                 String generatedOtp = String.valueOf((int)(Math.random() * 900000) + 100000);
-                showOtpVerificationDialog(balance, method, account, generatedOtp);
+                showOtpVerificationDialog(ledgerAccount, balanceMinor, method, account, generatedOtp);
             }
         });
     }
     
-    private void showOtpVerificationDialog(int balance, String method, String account, String generatedOtp) {
+    private void showOtpVerificationDialog(String ledgerAccount, long balanceMinor, String method, String account, String generatedOtp) {
         showAlert("OTP Sent", "📩 OTP Sent to " + account, "Your OTP is: " + generatedOtp + "\n\nPlease use this OTP to complete the withdrawal.");
         
         Dialog<ButtonType> otpDialog = new Dialog<>();
         otpDialog.setTitle("Verify OTP");
-        otpDialog.setHeaderText("🔐 Enter OTP to Withdraw ৳" + balance);
+        otpDialog.setHeaderText("🔐 Enter OTP to Withdraw " + Money.format(balanceMinor));
         
         VBox content = new VBox(15);
         content.setPadding(new Insets(20));
@@ -955,8 +1141,13 @@ public class AdminController {
                     return;
                 }
                 
+                if (!databaseService.withdraw(ledgerAccount, balanceMinor)) {
+                    showAlert("Error", "Withdrawal Failed", "Your balance changed while you were withdrawing. Please open the balance again and retry.");
+                    return;
+                }
+                
                 showAlert("Withdrawal Successful", "✅ Withdrawal Complete", 
-                        "Successfully withdrawn ৳" + balance + "\n\n" +
+                        "Successfully withdrawn " + Money.format(balanceMinor) + "\n\n" +
                         "Method: " + method + "\n" +
                         "Account: " + account + "\n\n" +
                         "The amount will be transferred within 24 hours.");
@@ -966,10 +1157,12 @@ public class AdminController {
 
     @FXML
     public void handleLogout() {
+        databaseService.unsubscribe(changeListener);
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("signin-view.fxml"));
             Scene scene = new Scene(fxmlLoader.load(), 600, 700);
             Stage stage = (Stage) restaurantsTable.getScene().getWindow();
+            stage.setOnHidden(null);
             stage.setTitle("FoodBike - Sign In");
             stage.setScene(scene);
         } catch (IOException e) {
@@ -977,6 +1170,15 @@ public class AdminController {
         }
     }
 
+    /** Tells the admin why the change is unavailable and returns true when connected to a server. */
+    private boolean refuseWhenRemote() {
+        if (!databaseService.isRemote()) {
+            return false;
+        }
+        showAlert("Not Available", "Connected to a Server", DatabaseService.REMOTE_READ_ONLY_MESSAGE);
+        return true;
+    }
+
     private void showAlert(String title, String header, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -1,6 +1,9 @@
 package com.example.foodbike;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
@@ -9,26 +12,39 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 public class AdminHistoryController {
-    @FXML private VBox historyBox;
+    @FXML private ListView<AdminAction> historyList;
     @FXML private ComboBox<String> filterCombo;
     @FXML private Label totalCountLabel;
     
     private DatabaseService databaseService;
     private User currentUser;
-    private List<AdminAction> allActions;
+    // Newest first; the list view shows a filtered view of it, so filtering never rebuilds any rows
+    private final ObservableList<AdminAction> allActions = FXCollections.observableArrayList();
+    private final FilteredList<AdminAction> filteredActions = new FilteredList<>(allActions);
+    private final DataChangeListener changeListener = event -> {
+        if (event.getType() == DataChangeEvent.Type.ADMIN_ACTION_LOGGED) {
+            Platform.runLater(() -> appendAction(event.getAdminAction()));
+        }
+    };
     
     @FXML
     public void initialize() {
         databaseService = DatabaseService.getInstance();
         setupFilterCombo();
+        historyList.setItems(filteredActions);
+        historyList.setSelectionModel(null);
+        historyList.setFocusTraversable(false);
+        historyList.setCellFactory(list -> new ActionCell());
         loadHistory();
+        databaseService.subscribe(changeListener);
     }
     
-    public void setCurrentUser(User user) {
+    void setCurrentUser(User user, Stage stage) {
         this.currentUser = user;
+        stage.setOnHidden(e -> databaseService.unsubscribe(changeListener));
     }
     
     private void setupFilterCombo() {
@@ -44,53 +60,76 @@ public class AdminHistoryController {
     }
     
     private void loadHistory() {
-        historyBox.getChildren().clear();
-        allActions = databaseService.getAllAdminActions();
-        
-        totalCountLabel.setText("Total Actions: " + allActions.size());
-        
-        if (allActions.isEmpty()) {
-            Label emptyLabel = new Label("No admin actions recorded yet.");
-            emptyLabel.setStyle("-fx-font-size: 14; -fx-text-fill: #7f8c8d; -fx-padding: 20;");
-            historyBox.getChildren().add(emptyLabel);
-            return;
-        }
-        
-        for (AdminAction action : allActions) {
-            VBox actionCard = createActionCard(action);
-            historyBox.getChildren().add(actionCard);
+        allActions.setAll(databaseService.getAllAdminActions());
+        filteredActions.setPredicate(null);
+        updateCountLabel();
+    }
+    
+    private void appendAction(AdminAction action) {
+        allActions.add(0, action);
+        updateCountLabel();
+    }
+    
+    private void updateCountLabel() {
+        if (filteredActions.getPredicate() == null) {
+            totalCountLabel.setText("Total Actions: " + allActions.size());
+            historyList.setPlaceholder(createEmptyLabel("No admin actions recorded yet."));
+        } else {
+            totalCountLabel.setText("Showing: " + filteredActions.size() + " actions");
+            historyList.setPlaceholder(createEmptyLabel("No actions found for this filter."));
         }
     }
     
-    private VBox createActionCard(AdminAction action) {
-        VBox card = new VBox(8);
-        card.setStyle("-fx-border-color: #ddd; -fx-border-radius: 6; -fx-padding: 15; -fx-background-color: white; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 5, 0, 0, 2);");
-        
-        HBox headerBox = new HBox(10);
-        headerBox.setStyle("-fx-alignment: center-left;");
-        
-        Label typeLabel = new Label(getActionIcon(action.getActionType()) + " " + getActionTypeText(action.getActionType()));
-        typeLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13; -fx-text-fill: " + getActionColor(action.getActionType()) + ";");
-        
-        Label timestampLabel = new Label(action.getFormattedTimestamp());
-        timestampLabel.setStyle("-fx-font-size: 10; -fx-text-fill: #7f8c8d;");
-        
-        headerBox.getChildren().addAll(typeLabel, new Label("•"), timestampLabel);
-        
-        Label descriptionLabel = new Label(action.getActionDescription());
-        descriptionLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #2c3e50;");
-        descriptionLabel.setWrapText(true);
-        
-        Label detailsLabel = new Label(action.getDetails());
-        detailsLabel.setStyle("-fx-font-size: 11; -fx-text-fill: #555; -fx-padding: 5 0 0 0;");
-        detailsLabel.setWrapText(true);
-        
-        Label adminLabel = new Label("By: " + action.getAdminUsername());
-        adminLabel.setStyle("-fx-font-size: 10; -fx-text-fill: #95a5a6; -fx-font-style: italic;");
+    private Label createEmptyLabel(String text) {
+        Label emptyLabel = new Label(text);
+        emptyLabel.setStyle("-fx-font-size: 14; -fx-text-fill: #7f8c8d; -fx-padding: 20;");
+        return emptyLabel;
+    }
+    
+    /** A recycled action card; its labels are created once and refilled for each action shown. */
+    private class ActionCell extends ListCell<AdminAction> {
+        private final VBox card = new VBox(8);
+        private final Label typeLabel = new Label();
+        private final Label timestampLabel = new Label();
+        private final Label descriptionLabel = new Label();
+        private final Label detailsLabel = new Label();
+        private final Label adminLabel = new Label();
         
-        card.getChildren().addAll(headerBox, descriptionLabel, detailsLabel, adminLabel);
+        ActionCell() {
+            card.setStyle("-fx-border-color: #ddd; -fx-border-radius: 6; -fx-padding: 15; -fx-background-color: white; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 5, 0, 0, 2);");
+            
+            HBox headerBox = new HBox(10);
+            headerBox.setStyle("-fx-alignment: center-left;");
+            timestampLabel.setStyle("-fx-font-size: 10; -fx-text-fill: #7f8c8d;");
+            headerBox.getChildren().addAll(typeLabel, new Label("•"), timestampLabel);
+            
+            descriptionLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #2c3e50;");
+            descriptionLabel.setWrapText(true);
+            detailsLabel.setStyle("-fx-font-size: 11; -fx-text-fill: #555; -fx-padding: 5 0 0 0;");
+            detailsLabel.setWrapText(true);
+            adminLabel.setStyle("-fx-font-size: 10; -fx-text-fill: #95a5a6; -fx-font-style: italic;");
+            
+            card.getChildren().addAll(headerBox, descriptionLabel, detailsLabel, adminLabel);
+            setStyle("-fx-background-color: transparent; -fx-padding: 0 10 10 10;");
+            // Wrap long details to the list's width instead of widening the list
+            setPrefWidth(0);
+        }
         
-        return card;
+        @Override
+        protected void updateItem(AdminAction action, boolean empty) {
+            super.updateItem(action, empty);
+            if (empty || action == null) {
+                setGraphic(null);
+                return;
+            }
+            typeLabel.setText(getActionIcon(action.getActionType()) + " " + getActionTypeText(action.getActionType()));
+            typeLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13; -fx-text-fill: " + getActionColor(action.getActionType()) + ";");
+            timestampLabel.setText(action.getFormattedTimestamp());
+            descriptionLabel.setText(action.getActionDescription());
+            detailsLabel.setText(action.getDetails());
+            adminLabel.setText("By: " + action.getAdminUsername());
+            setGraphic(card);
+        }
     }
     
     private String getActionIcon(AdminAction.ActionType type) {
@@ -152,56 +191,26 @@ public class AdminHistoryController {
     
     @FXML
     public void handleFilter() {
-        String selectedFilter = filterCombo.getValue();
-        historyBox.getChildren().clear();
-        
-        List<AdminAction> filteredActions = allActions;
-        
+        filteredActions.setPredicate(filterFor(filterCombo.getValue()));
+        updateCountLabel();
+    }
+    
+    private Predicate<AdminAction> filterFor(String selectedFilter) {
         switch (selectedFilter) {
             case "Approved Applications":
-                filteredActions = allActions.stream()
-                    .filter(a -> a.getActionType() == AdminAction.ActionType.APPROVED_APPLICATION)
-                    .collect(Collectors.toList());
-                break;
+                return a -> a.getActionType() == AdminAction.ActionType.APPROVED_APPLICATION;
             case "Rejected Applications":
-                filteredActions = allActions.stream()
-                    .filter(a -> a.getActionType() == AdminAction.ActionType.REJECTED_APPLICATION)
-                    .collect(Collectors.toList());
-                break;
+                return a -> a.getActionType() == AdminAction.ActionType.REJECTED_APPLICATION;
             case "Added Restaurants":
-                filteredActions = allActions.stream()
-                    .filter(a -> a.getActionType() == AdminAction.ActionType.ADDED_RESTAURANT)
-                    .collect(Collectors.toList());
-                break;
+                return a -> a.getActionType() == AdminAction.ActionType.ADDED_RESTAURANT;
             case "Deleted Restaurants":
-                filteredActions = allActions.stream()
-                    .filter(a -> a.getActionType() == AdminAction.ActionType.DELETED_RESTAURANT)
-                    .collect(Collectors.toList());
-                break;
+                return a -> a.getActionType() == AdminAction.ActionType.DELETED_RESTAURANT;
             case "Menu Edits":
-                filteredActions = allActions.stream()
-                    .filter(a -> a.getActionType() == AdminAction.ActionType.EDITED_MENU ||
-                               a.getActionType() == AdminAction.ActionType.ADDED_MENU_ITEM ||
-                               a.getActionType() == AdminAction.ActionType.EDITED_MENU_ITEM)
-                    .collect(Collectors.toList());
-                break;
+                return a -> a.getActionType() == AdminAction.ActionType.EDITED_MENU ||
+                           a.getActionType() == AdminAction.ActionType.ADDED_MENU_ITEM ||
+                           a.getActionType() == AdminAction.ActionType.EDITED_MENU_ITEM;
             default:
-                filteredActions = allActions;
-                break;
-        }
-        
-        totalCountLabel.setText("Showing: " + filteredActions.size() + " actions");
-        
-        if (filteredActions.isEmpty()) {
-            Label emptyLabel = new Label("No actions found for this filter.");
-            emptyLabel.setStyle("-fx-font-size: 14; -fx-text-fill: #7f8c8d; -fx-padding: 20;");
-            historyBox.getChildren().add(emptyLabel);
-            return;
-        }
-        
-        for (AdminAction action : filteredActions) {
-            VBox actionCard = createActionCard(action);
-            historyBox.getChildren().add(actionCard);
+                return null;
         }
     }
     
@@ -272,7 +281,7 @@ public class AdminHistoryController {
     
     @FXML
     public void handleClose() {
-        Stage stage = (Stage) historyBox.getScene().getWindow();
+        Stage stage = (Stage) historyList.getScene().getWindow();
         stage.close();
     }
 }
@@ -0,0 +1,128 @@
+package com.example.foodbike;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Fires at each PENDING order's auto-cancel deadline instead of waiting for a screen to scan
+ * for stale orders. Deadlines live in a priority queue watched by a single daemon thread; every
+ * order that is due when the thread wakes is cancelled in one batch with a single save.
+ */
+public class AutoCancelScheduler implements DataChangeListener {
+    private final DatabaseService databaseService;
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>();
+    private final Thread worker;
+
+    private static class Deadline implements Comparable<Deadline> {
+        private final long dueAtMillis;
+        private final Order order;
+
+        Deadline(long dueAtMillis, Order order) {
+            this.dueAtMillis = dueAtMillis;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Deadline other) {
+            return Long.compare(dueAtMillis, other.dueAtMillis);
+        }
+    }
+
+    public AutoCancelScheduler(DatabaseService databaseService) {
+        this.databaseService = databaseService;
+        this.worker = new Thread(this::runLoop, "auto-cancel-scheduler");
+        this.worker.setDaemon(true);
+    }
+
+    public void start(Collection<Order> existingOrders) {
+        for (Order order : existingOrders) {
+            schedule(order);
+        }
+        databaseService.subscribe(this);
+        worker.start();
+    }
+
+    /** Stops the worker and waits for a save it has started to finish, so closing never leaves a half-written file. */
+    public void stop() {
+        databaseService.unsubscribe(this);
+        worker.interrupt();
+        if (Thread.currentThread() != worker) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void schedule(Order order) {
+        if (order.getStatus() != Order.OrderStatus.PENDING || order.getCreatedAtMillis() == 0) {
+            return;
+        }
+        long dueAtMillis = order.getAutoCancelDeadlineMillis();
+        synchronized (deadlines) {
+            deadlines.add(new Deadline(dueAtMillis, order));
+            if (deadlines.peek().order == order) {
+                deadlines.notifyAll();
+            }
+        }
+    }
+
+    public int getScheduledCount() {
+        synchronized (deadlines) {
+            return deadlines.size();
+        }
+    }
+
+    @Override
+    public void onDataChanged(DataChangeEvent event) {
+        if (event.getType() == DataChangeEvent.Type.ORDER_CREATED) {
+            schedule(event.getOrder());
+        }
+    }
+
+    private void runLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Order> due;
+            try {
+                due = awaitDueOrders();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                databaseService.autoCancelExpiredOrders(due);
+            } catch (RuntimeException e) {
+                System.out.println("Error auto-cancelling orders: " + e.getMessage());
+            }
+        }
+    }
+
+    private List<Order> awaitDueOrders() throws InterruptedException {
+        synchronized (deadlines) {
+            while (true) {
+                Deadline next = deadlines.peek();
+                long now = System.currentTimeMillis();
+                if (next == null) {
+                    deadlines.wait();
+                } else if (next.dueAtMillis > now) {
+                    deadlines.wait(next.dueAtMillis - now);
+                } else {
+                    List<Order> due = new ArrayList<>();
+                    while (!deadlines.isEmpty() && deadlines.peek().dueAtMillis <= now) {
+                        Order order = deadlines.poll().order;
+                        // Orders confirmed or cancelled before their deadline are simply dropped here
+                        if (order.getStatus() == Order.OrderStatus.PENDING) {
+                            due.add(order);
+                        }
+                    }
+                    if (!due.isEmpty()) {
+                        return due;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.foodbike;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
@@ -14,19 +15,22 @@ import java.util.List;
 import java.util.Map;
 
 public class BikerController {
-    @FXML private TableView<Order> readyOrdersTable;
-    @FXML private TableView<Order> deliveredOrdersTable;
+    @FXML private TableView<OrderRow> readyOrdersTable;
+    @FXML private TableView<OrderRow> deliveredOrdersTable;
     @FXML private Label userLabel;
     @FXML private ComboBox<String> divisionFilter;
     @FXML private ComboBox<String> districtFilter;
 
     private User currentUser;
     private DatabaseService databaseService;
-    private List<Order> allReadyOrders = new ArrayList<>();
+    private OrderRowCache orderRows;
+    private List<OrderRow> allReadyOrders = new ArrayList<>();
+    private final DataChangeListener changeListener = event -> Platform.runLater(() -> applyChange(event));
 
     @FXML
     public void initialize() {
         databaseService = DatabaseService.getInstance();
+        orderRows = databaseService.getOrderRowCache();
         setupReadyOrdersTable();
         setupDeliveredOrdersTable();
         setupDivisionFilter();
@@ -35,7 +39,7 @@ public class BikerController {
 
     private void setupDivisionFilter() {
         divisionFilter.getItems().add("All Locations");
-        divisionFilter.getItems().addAll("Dhaka", "Chittagong", "Sylhet", "Rajshahi", "Khulna", "Barisal", "Rangpur", "Mymensingh");
+        divisionFilter.getItems().addAll(Geography.divisionNames());
         divisionFilter.setValue("All Locations");
         divisionFilter.setOnAction(e -> updateDistrictFilter());
     }
@@ -77,20 +81,24 @@ public class BikerController {
         if (selectedDivision.equals("All Locations") && selectedDistrict.equals("All Districts")) {
             readyOrdersTable.getItems().setAll(allReadyOrders);
         } else {
-            List<Order> filtered = new ArrayList<>();
-            for (Order order : allReadyOrders) {
-                Restaurant restaurant = databaseService.getRestaurant(order.getRestaurantId());
-                if (restaurant != null) {
-                    boolean matchesDivision = selectedDivision.equals("All Locations") || restaurant.getDivision().equals(selectedDivision);
-                    boolean matchesDistrict = selectedDistrict.equals("All Districts") || (restaurant.getDistrict() != null && restaurant.getDistrict().equals(selectedDistrict));
-                    if (matchesDivision && matchesDistrict) {
-                        filtered.add(order);
-                    }
+            long districtMask = locationFilterMask();
+            List<OrderRow> filtered = new ArrayList<>();
+            for (OrderRow row : allReadyOrders) {
+                if (Geography.matches(districtMask, row.getDistrictCode())) {
+                    filtered.add(row);
                 }
             }
             readyOrdersTable.getItems().setAll(filtered);
         }
-        readyOrdersTable.refresh();
+    }
+
+    /** Districts allowed by the current filter choices; "All ..." entries are not place names, so they filter nothing. */
+    private long locationFilterMask() {
+        return Geography.filterMask(divisionFilter.getValue(), districtFilter != null ? districtFilter.getValue() : null);
+    }
+
+    private boolean matchesFilter(OrderRow row) {
+        return Geography.matches(locationFilterMask(), row.getDistrictCode());
     }
     
     @FXML
@@ -98,66 +106,55 @@ public class BikerController {
         divisionFilter.setValue("All Locations");
         districtFilter.setValue("All Districts");
         readyOrdersTable.getItems().setAll(allReadyOrders);
-        readyOrdersTable.refresh();
     }
 
-    public void setCurrentUser(User user) {
+    void setCurrentUser(User user, Stage stage) {
         this.currentUser = user;
         userLabel.setText("Welcome, " + user.getUsername());
         loadOrders();
+        databaseService.subscribe(changeListener);
+        // Closing the window skips handleLogout, so stop listening here as well
+        stage.setOnHidden(e -> databaseService.unsubscribe(changeListener));
     }
 
     private void setupReadyOrdersTable() {
-        TableColumn<Order, String> orderIdCol = new TableColumn<>("Order ID");
+        TableColumn<OrderRow, String> orderIdCol = new TableColumn<>("Order ID");
         orderIdCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getOrderId()));
         orderIdCol.setPrefWidth(150);
 
-        TableColumn<Order, String> restaurantCol = new TableColumn<>("Restaurant");
-        restaurantCol.setCellValueFactory(data -> {
-            Restaurant restaurant = databaseService.getRestaurant(data.getValue().getRestaurantId());
-            return new javafx.beans.property.SimpleStringProperty(restaurant != null ? restaurant.getName() : "Unknown");
-        });
+        TableColumn<OrderRow, String> restaurantCol = new TableColumn<>("Restaurant");
+        restaurantCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getRestaurantName()));
         restaurantCol.setPrefWidth(150);
 
-        TableColumn<Order, String> locationCol = new TableColumn<>("Location");
-        locationCol.setCellValueFactory(data -> {
-            Restaurant restaurant = databaseService.getRestaurant(data.getValue().getRestaurantId());
-            String location = restaurant != null ? (restaurant.getDistrict() + ", " + restaurant.getDivision()) : "Unknown";
-            return new javafx.beans.property.SimpleStringProperty(location);
-        });
+        TableColumn<OrderRow, String> locationCol = new TableColumn<>("Location");
+        locationCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getLocation()));
         locationCol.setPrefWidth(150);
 
-        TableColumn<Order, String> customerCol = new TableColumn<>("Customer");
-        customerCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getUserId()));
+        TableColumn<OrderRow, String> customerCol = new TableColumn<>("Customer");
+        customerCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getCustomer()));
         customerCol.setPrefWidth(120);
 
-        TableColumn<Order, String> itemsCol = new TableColumn<>("Items");
-        itemsCol.setCellValueFactory(data -> {
-            int itemCount = data.getValue().getItems().size();
-            return new javafx.beans.property.SimpleStringProperty(itemCount + " item(s)");
-        });
+        TableColumn<OrderRow, String> itemsCol = new TableColumn<>("Items");
+        itemsCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getItemSummary()));
         itemsCol.setPrefWidth(100);
 
-        TableColumn<Order, String> totalCol = new TableColumn<>("Total");
-        totalCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty("৳" + String.format("%.2f", data.getValue().getTotalPrice())));
+        TableColumn<OrderRow, String> totalCol = new TableColumn<>("Total");
+        totalCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getFormattedTotal()));
         totalCol.setPrefWidth(100);
 
-        TableColumn<Order, String> paymentCol = new TableColumn<>("Payment");
-        paymentCol.setCellValueFactory(data -> {
-            String payment = data.getValue().getPaymentMethod();
-            return new javafx.beans.property.SimpleStringProperty(payment != null ? payment : "N/A");
-        });
+        TableColumn<OrderRow, String> paymentCol = new TableColumn<>("Payment");
+        paymentCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getPaymentMethod()));
         paymentCol.setPrefWidth(120);
 
-        TableColumn<Order, Void> actionCol = new TableColumn<>("Action");
+        TableColumn<OrderRow, Void> actionCol = new TableColumn<>("Action");
         actionCol.setPrefWidth(180);
-        actionCol.setCellFactory(col -> new TableCell<Order, Void>() {
+        actionCol.setCellFactory(col -> new TableCell<OrderRow, Void>() {
             private final Button statusBtn = new Button("Order Status");
 
             {
                 statusBtn.setStyle("-fx-padding: 5 10; -fx-font-size: 11; -fx-background-color: #3498db; -fx-text-fill: white; -fx-border-radius: 4;");
                 statusBtn.setOnAction(e -> {
-                    Order order = getTableView().getItems().get(getIndex());
+                    Order order = getTableView().getItems().get(getIndex()).getOrder();
                     handleOrderStatus(order);
                 });
             }
@@ -177,43 +174,34 @@ public class BikerController {
     }
 
     private void setupDeliveredOrdersTable() {
-        TableColumn<Order, String> orderIdCol = new TableColumn<>("Order ID");
+        TableColumn<OrderRow, String> orderIdCol = new TableColumn<>("Order ID");
         orderIdCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getOrderId()));
         orderIdCol.setPrefWidth(150);
 
-        TableColumn<Order, String> restaurantCol = new TableColumn<>("Restaurant");
-        restaurantCol.setCellValueFactory(data -> {
-            Restaurant restaurant = databaseService.getRestaurant(data.getValue().getRestaurantId());
-            return new javafx.beans.property.SimpleStringProperty(restaurant != null ? restaurant.getName() : "Unknown");
-        });
+        TableColumn<OrderRow, String> restaurantCol = new TableColumn<>("Restaurant");
+        restaurantCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getRestaurantName()));
         restaurantCol.setPrefWidth(150);
 
-        TableColumn<Order, String> customerCol = new TableColumn<>("Customer");
-        customerCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getUserId()));
+        TableColumn<OrderRow, String> customerCol = new TableColumn<>("Customer");
+        customerCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getCustomer()));
         customerCol.setPrefWidth(120);
 
-        TableColumn<Order, String> itemsCol = new TableColumn<>("Items");
-        itemsCol.setCellValueFactory(data -> {
-            int itemCount = data.getValue().getItems().size();
-            return new javafx.beans.property.SimpleStringProperty(itemCount + " item(s)");
-        });
+        TableColumn<OrderRow, String> itemsCol = new TableColumn<>("Items");
+        itemsCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getItemSummary()));
         itemsCol.setPrefWidth(100);
 
-        TableColumn<Order, String> totalCol = new TableColumn<>("Total");
-        totalCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty("৳" + String.format("%.2f", data.getValue().getTotalPrice())));
+        TableColumn<OrderRow, String> totalCol = new TableColumn<>("Total");
+        totalCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getFormattedTotal()));
         totalCol.setPrefWidth(100);
 
-        TableColumn<Order, String> paymentCol = new TableColumn<>("Payment");
-        paymentCol.setCellValueFactory(data -> {
-            String payment = data.getValue().getPaymentMethod();
-            return new javafx.beans.property.SimpleStringProperty(payment != null ? payment : "N/A");
-        });
+        TableColumn<OrderRow, String> paymentCol = new TableColumn<>("Payment");
+        paymentCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getPaymentMethod()));
         paymentCol.setPrefWidth(120);
 
-        TableColumn<Order, String> statusCol = new TableColumn<>("Status");
+        TableColumn<OrderRow, String> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getStatus().toString()));
         statusCol.setPrefWidth(150);
-        statusCol.setCellFactory(col -> new TableCell<Order, String>() {
+        statusCol.setCellFactory(col -> new TableCell<OrderRow, String>() {
             @Override
             protected void updateItem(String status, boolean empty) {
                 super.updateItem(status, empty);
@@ -221,7 +209,7 @@ public class BikerController {
                     setText(null);
                     setStyle("");
                 } else {
-                    Order order = getTableView().getItems().get(getIndex());
+                    OrderRow order = getTableView().getItems().get(getIndex());
                     if (order.getStatus() == Order.OrderStatus.DELIVERED) {
                         setText("✓✓ " + status);
                         setStyle("-fx-text-fill: #27ae60; -fx-font-weight: bold;");
@@ -252,15 +240,42 @@ public class BikerController {
             }
         }
 
-        readyOrders.sort((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()));
-        deliveredOrders.sort((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()));
-
-        allReadyOrders = readyOrders;
+        allReadyOrders = orderRows.getAll(readyOrders);
         handleFilter();
-        deliveredOrdersTable.getItems().setAll(deliveredOrders);
+        deliveredOrdersTable.getItems().setAll(orderRows.getAll(deliveredOrders));
+    }
+
+    private void applyChange(DataChangeEvent event) {
+        if (currentUser == null || !event.isOrderEvent()) {
+            return;
+        }
+        Order order = event.getOrder();
+        removeRow(allReadyOrders, order);
+        removeRow(readyOrdersTable.getItems(), order);
+        removeRow(deliveredOrdersTable.getItems(), order);
+
+        if (order.getStatus() == Order.OrderStatus.READY) {
+            OrderRow row = orderRows.get(order);
+            insertNewestFirst(allReadyOrders, row);
+            if (matchesFilter(row)) {
+                insertNewestFirst(readyOrdersTable.getItems(), row);
+            }
+        } else if (order.getStatus() == Order.OrderStatus.DELIVERED &&
+                   order.getBikerId() != null && order.getBikerId().equals(currentUser.getUsername())) {
+            insertNewestFirst(deliveredOrdersTable.getItems(), orderRows.get(order));
+        }
+    }
 
-        readyOrdersTable.refresh();
-        deliveredOrdersTable.refresh();
+    private void insertNewestFirst(List<OrderRow> target, OrderRow row) {
+        int index = 0;
+        while (index < target.size() && target.get(index).getCreatedAtMillis() >= row.getCreatedAtMillis()) {
+            index++;
+        }
+        target.add(index, row);
+    }
+
+    private static void removeRow(List<OrderRow> target, Order order) {
+        target.removeIf(row -> row.getOrderId().equals(order.getOrderId()));
     }
 
     private void handleOrderStatus(Order order) {
@@ -284,7 +299,7 @@ public class BikerController {
         Label customerLabel = new Label("Customer: " + order.getUserId());
         customerLabel.setStyle("-fx-font-size: 13; -fx-font-weight: bold;");
 
-        Label totalLabel = new Label("Total: ৳" + String.format("%.2f", order.getTotalPrice()));
+        Label totalLabel = new Label("Total: " + Money.format(order.getTotalMinor()));
         totalLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #27ae60; -fx-font-weight: bold;");
 
         VBox stagesBox = new VBox();
@@ -396,15 +411,16 @@ public class BikerController {
             Alert codAlert = new Alert(Alert.AlertType.CONFIRMATION);
             codAlert.setTitle("Cash on Delivery Confirmation");
             codAlert.setHeaderText("Confirm COD Payment: " + order.getOrderId());
-            codAlert.setContentText("Have you received the cash payment of ৳" + String.format("%.2f", order.getTotalPrice()) + " from the customer?");
+            codAlert.setContentText("Have you received the cash payment of " + Money.format(order.getTotalMinor()) + " from the customer?");
             
             codAlert.getButtonTypes().setAll(ButtonType.YES, ButtonType.NO);
 
             codAlert.showAndWait().ifPresent(response -> {
                 if (response == ButtonType.YES) {
-                    order.setStatus(Order.OrderStatus.DELIVERED);
-                    databaseService.saveDataToFiles();
-                    loadOrders();
+                    if (!databaseService.updateOrderStatus(order, Order.OrderStatus.DELIVERED)) {
+                        showOrderNotUpdated(order);
+                        return;
+                    }
 
                     Restaurant restaurant = databaseService.getRestaurant(order.getRestaurantId());
                     String restaurantName = restaurant != null ? restaurant.getName() : "Unknown";
@@ -424,9 +440,10 @@ public class BikerController {
 
             confirmAlert.showAndWait().ifPresent(response -> {
                 if (response == ButtonType.OK) {
-                    order.setStatus(Order.OrderStatus.DELIVERED);
-                    databaseService.saveDataToFiles();
-                    loadOrders();
+                    if (!databaseService.updateOrderStatus(order, Order.OrderStatus.DELIVERED)) {
+                        showOrderNotUpdated(order);
+                        return;
+                    }
 
                     Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
                     successAlert.setTitle("Success");
@@ -448,9 +465,14 @@ public class BikerController {
 
         confirmAlert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                order.setBikerId(currentUser.getUsername());
-                databaseService.saveDataToFiles();
-                loadOrders();
+                if (!databaseService.assignBiker(order, currentUser.getUsername())) {
+                    if (order.getBikerId() != null && !order.getBikerId().equals(currentUser.getUsername())) {
+                        showDeliveryTaken(order);
+                    } else {
+                        showOrderNotUpdated(order);
+                    }
+                    return;
+                }
                 
                 Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
                 successAlert.setTitle("Success");
@@ -461,6 +483,22 @@ public class BikerController {
         });
     }
 
+    private void showOrderNotUpdated(Order order) {
+        Alert errorAlert = new Alert(Alert.AlertType.ERROR);
+        errorAlert.setTitle("Order Not Updated");
+        errorAlert.setHeaderText(null);
+        errorAlert.setContentText("Order #" + order.getOrderId() + " could not be updated. It may have been changed by someone else.");
+        errorAlert.showAndWait();
+    }
+
+    private void showDeliveryTaken(Order order) {
+        Alert errorAlert = new Alert(Alert.AlertType.WARNING);
+        errorAlert.setTitle("Delivery Already Taken");
+        errorAlert.setHeaderText(null);
+        errorAlert.setContentText("Order #" + order.getOrderId() + " has already been accepted by another biker.");
+        errorAlert.showAndWait();
+    }
+
     private void declineOrder(Order order) {
         Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
         confirmAlert.setTitle("Decline Order");
@@ -479,28 +517,13 @@ public class BikerController {
         });
     }
 
-    @FXML
-    public void handleRefreshOrders() {
-        loadOrders();
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Refreshed");
-        alert.setHeaderText("Orders Updated");
-        alert.setContentText("Order list has been refreshed successfully!");
-        alert.showAndWait();
-    }
-
     @FXML
     public void handleBalance() {
-        int deliveredCount = 0;
-        List<Order> allOrders = databaseService.getAllOrders();
-        for (Order order : allOrders) {
-            if (order.getStatus() == Order.OrderStatus.DELIVERED && 
-                order.getBikerId() != null && 
-                order.getBikerId().equals(currentUser.getUsername())) {
-                deliveredCount++;
-            }
-        }
-        int totalIncome = deliveredCount * 100;
+        Ledger ledger = databaseService.getLedger();
+        String ledgerAccount = Ledger.bikerAccount(currentUser.getUsername());
+        int deliveredCount = ledger.getCreditCount(ledgerAccount);
+        long balanceMinor = ledger.getBalance(ledgerAccount);
+        long withdrawnMinor = ledger.getTotalDebited(ledgerAccount);
         
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Biker Balance");
@@ -510,9 +533,10 @@ public class BikerController {
         content.setPadding(new Insets(20));
         
         Label summaryLabel = new Label("Total Deliveries: " + deliveredCount + "\n" +
-                           "Income per Delivery: ৳100\n" +
+                           "Income per Delivery: " + Money.format(DatabaseService.DELIVERY_FEE_MINOR) + "\n" +
+                           "Withdrawn: " + Money.format(withdrawnMinor) + "\n" +
                            "─────────────────\n" +
-                           "Total Balance: ৳" + totalIncome);
+                           "Total Balance: " + Money.format(balanceMinor));
         summaryLabel.setStyle("-fx-font-size: 14;");
         
         content.getChildren().add(summaryLabel);
@@ -523,18 +547,33 @@ public class BikerController {
         ButtonType closeBtn = new ButtonType("Close", ButtonBar.ButtonData.CANCEL_CLOSE);
         dialog.getDialogPane().getButtonTypes().addAll(withdrawBtn, closeBtn);
         
-        final int finalTotalIncome = totalIncome;
         dialog.showAndWait().ifPresent(response -> {
             if (response == withdrawBtn) {
-                showWithdrawDialog(finalTotalIncome);
+                if (balanceMinor <= 0) {
+                    Alert infoAlert = new Alert(Alert.AlertType.INFORMATION);
+                    infoAlert.setTitle("Withdraw Balance");
+                    infoAlert.setHeaderText(null);
+                    infoAlert.setContentText("You have no balance to withdraw.");
+                    infoAlert.showAndWait();
+                    return;
+                }
+                if (databaseService.isRemote()) {
+                    Alert infoAlert = new Alert(Alert.AlertType.INFORMATION);
+                    infoAlert.setTitle("Not Available");
+                    infoAlert.setHeaderText("Connected to a Server");
+                    infoAlert.setContentText(DatabaseService.REMOTE_READ_ONLY_MESSAGE);
+                    infoAlert.showAndWait();
+                    return;
+                }
+                showWithdrawDialog(ledgerAccount, balanceMinor);
             }
         });
     }
     
-    private void showWithdrawDialog(int balance) {
+    private void showWithdrawDialog(String ledgerAccount, long balanceMinor) {
         Dialog<ButtonType> withdrawDialog = new Dialog<>();
         withdrawDialog.setTitle("Withdraw Balance");
-        withdrawDialog.setHeaderText("💳 Withdraw ৳" + balance);
+        withdrawDialog.setHeaderText("💳 Withdraw " + Money.format(balanceMinor));
         
         VBox content = new VBox(15);
         content.setPadding(new Insets(20));
@@ -578,12 +617,12 @@ public class BikerController {
                 }
                 
                 String generatedOtp = String.valueOf((int)(Math.random() * 900000) + 100000);
-                showOtpVerificationDialog(balance, method, account, generatedOtp);
+                showOtpVerificationDialog(ledgerAccount, balanceMinor, method, account, generatedOtp);
             }
         });
     }
     
-    private void showOtpVerificationDialog(int balance, String method, String account, String generatedOtp) {
+    private void showOtpVerificationDialog(String ledgerAccount, long balanceMinor, String method, String account, String generatedOtp) {
         Alert otpAlert = new Alert(Alert.AlertType.INFORMATION);
         otpAlert.setTitle("OTP Sent");
         otpAlert.setHeaderText("📩 OTP Sent to " + account);
@@ -592,7 +631,7 @@ public class BikerController {
         
         Dialog<ButtonType> otpDialog = new Dialog<>();
         otpDialog.setTitle("Verify OTP");
-        otpDialog.setHeaderText("🔐 Enter OTP to Withdraw ৳" + balance);
+        otpDialog.setHeaderText("🔐 Enter OTP to Withdraw " + Money.format(balanceMinor));
         
         VBox content = new VBox(15);
         content.setPadding(new Insets(20));
@@ -638,10 +677,19 @@ public class BikerController {
                     return;
                 }
                 
+                if (!databaseService.withdraw(ledgerAccount, balanceMinor)) {
+                    Alert errorAlert = new Alert(Alert.AlertType.ERROR);
+                    errorAlert.setTitle("Error");
+                    errorAlert.setHeaderText("Withdrawal Failed");
+                    errorAlert.setContentText("Your balance changed while you were withdrawing. Please open the balance again and retry.");
+                    errorAlert.showAndWait();
+                    return;
+                }
+                
                 Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
                 successAlert.setTitle("Withdrawal Successful");
                 successAlert.setHeaderText("✅ Withdrawal Complete");
-                successAlert.setContentText("Successfully withdrawn ৳" + balance + "\n\n" +
+                successAlert.setContentText("Successfully withdrawn " + Money.format(balanceMinor) + "\n\n" +
                         "Method: " + method + "\n" +
                         "Account: " + account + "\n\n" +
                         "The amount will be transferred within 24 hours.");
@@ -652,10 +700,12 @@ public class BikerController {
 
     @FXML
     public void handleLogout() {
+        databaseService.unsubscribe(changeListener);
         try {
             javafx.fxml.FXMLLoader fxmlLoader = new javafx.fxml.FXMLLoader(getClass().getResource("signin-view.fxml"));
             javafx.scene.Scene scene = new javafx.scene.Scene(fxmlLoader.load(), 600, 700);
             Stage stage = (Stage) userLabel.getScene().getWindow();
+            stage.setOnHidden(null);
             stage.setTitle("FoodBike - Sign In");
             stage.setScene(scene);
         } catch (java.io.IOException e) {
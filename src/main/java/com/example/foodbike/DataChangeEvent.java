@@ -0,0 +1,91 @@
+package com.example.foodbike;
+
+public class DataChangeEvent {
+    public enum Type {
+        ORDER_CREATED,
+        ORDER_STATUS_CHANGED,
+        ORDER_ASSIGNED,
+        REVIEW_ADDED,
+        APPLICATION_SUBMITTED,
+        APPLICATION_DECIDED,
+        ADMIN_ACTION_LOGGED
+    }
+
+    private final Type type;
+    private final Order order;
+    private final Order.OrderStatus previousStatus;
+    private final Review review;
+    private final RestaurantApplication application;
+    private final AdminAction adminAction;
+
+    private DataChangeEvent(Type type, Order order, Order.OrderStatus previousStatus,
+                            Review review, RestaurantApplication application) {
+        this(type, order, previousStatus, review, application, null);
+    }
+
+    private DataChangeEvent(Type type, Order order, Order.OrderStatus previousStatus,
+                            Review review, RestaurantApplication application, AdminAction adminAction) {
+        this.type = type;
+        this.order = order;
+        this.previousStatus = previousStatus;
+        this.review = review;
+        this.application = application;
+        this.adminAction = adminAction;
+    }
+
+    public static DataChangeEvent orderCreated(Order order) {
+        return new DataChangeEvent(Type.ORDER_CREATED, order, null, null, null);
+    }
+
+    public static DataChangeEvent orderStatusChanged(Order order, Order.OrderStatus previousStatus) {
+        return new DataChangeEvent(Type.ORDER_STATUS_CHANGED, order, previousStatus, null, null);
+    }
+
+    public static DataChangeEvent orderAssigned(Order order) {
+        return new DataChangeEvent(Type.ORDER_ASSIGNED, order, order.getStatus(), null, null);
+    }
+
+    public static DataChangeEvent reviewAdded(Review review) {
+        return new DataChangeEvent(Type.REVIEW_ADDED, null, null, review, null);
+    }
+
+    public static DataChangeEvent applicationSubmitted(RestaurantApplication application) {
+        return new DataChangeEvent(Type.APPLICATION_SUBMITTED, null, null, null, application);
+    }
+
+    public static DataChangeEvent applicationDecided(RestaurantApplication application) {
+        return new DataChangeEvent(Type.APPLICATION_DECIDED, null, null, null, application);
+    }
+
+    public static DataChangeEvent adminActionLogged(AdminAction action) {
+        return new DataChangeEvent(Type.ADMIN_ACTION_LOGGED, null, null, null, null, action);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public Order.OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public Review getReview() {
+        return review;
+    }
+
+    public RestaurantApplication getApplication() {
+        return application;
+    }
+
+    public AdminAction getAdminAction() {
+        return adminAction;
+    }
+
+    public boolean isOrderEvent() {
+        return order != null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.foodbike;
+
+/**
+ * Receives change events published by {@link DatabaseService}. Listeners are invoked on the
+ * thread that performed the change, so UI controllers must hop onto the FX thread themselves.
+ */
+@FunctionalInterface
+public interface DataChangeListener {
+    void onDataChanged(DataChangeEvent event);
+}
@@ -0,0 +1,413 @@
+package com.example.foodbike;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Exports orders, order lines, reviews and admin actions for offline analysis, as JSON Lines and/or
+ * a simple columnar format, one file per table per run.
+ * <p>
+ * Records are read from {@link DatabaseService} in pages and written as they arrive, so no table is
+ * ever copied whole. The last record exported from each table is kept in {@value #WATERMARK_FILE}
+ * in the output directory, and the next run starts after it, so a nightly export only contains new
+ * records. Orders are read in order of their last status change or biker assignment, so an order is
+ * exported again, with its current state, each time it changes; the row with the latest
+ * {@code changed_at_millis} for an {@code order_id} is its current state. Order lines never change
+ * and are exported once, with the order's first row. {@code --full} ignores the watermarks and
+ * exports everything again.
+ *
+ * <pre>
+ * java -cp target/classes com.example.foodbike.DataExporter [--data DIR] [--out DIR]
+ *     [--format jsonl|columnar|both] [--full]
+ * </pre>
+ *
+ * The data directory is opened with {@link DatabaseService#openForTool}, so the export should not
+ * be run against the directory of a running application.
+ *
+ * Columnar files ({@code .fbcol}) are big-endian: the int {@code 0x4642434C} ("FBCL"), the int
+ * format version, the column count, and each column's name (as {@code DataOutputStream.writeUTF})
+ * and type byte (0 = string, 1 = long). Row groups of up to {@value #ROW_GROUP_SIZE}
+ * rows follow, each an int row count and then each column's values in turn: longs as 8 bytes,
+ * strings as an int byte length (-1 for null) and UTF-8 bytes. A row count of 0 ends the file.
+ */
+public class DataExporter {
+    static final String WATERMARK_FILE = "export-watermark.properties";
+    private static final int PAGE_SIZE = 1000;
+    private static final int ROW_GROUP_SIZE = 4096;
+    private static final int COLUMNAR_MAGIC = 0x4642434C;
+    private static final int COLUMNAR_VERSION = 1;
+
+    private enum ColumnType {
+        STRING, LONG
+    }
+
+    private static final String[] ORDER_COLUMNS = {
+            "order_id", "user_id", "restaurant_id", "district", "status", "payment_method", "biker_id",
+            "menu_version", "item_count", "total_minor", "created_at_millis", "delivered_at_millis",
+            "biker_assigned_at_millis", "changed_at_millis"
+    };
+    private static final ColumnType[] ORDER_TYPES = {
+            ColumnType.STRING, ColumnType.STRING, ColumnType.STRING, ColumnType.STRING, ColumnType.STRING,
+            ColumnType.STRING, ColumnType.STRING, ColumnType.LONG, ColumnType.LONG, ColumnType.LONG,
+            ColumnType.LONG, ColumnType.LONG, ColumnType.LONG, ColumnType.LONG
+    };
+    private static final String[] LINE_COLUMNS = {
+            "order_id", "line_number", "item_id", "name", "unit_price_minor", "quantity", "line_total_minor",
+            "created_at_millis"
+    };
+    private static final ColumnType[] LINE_TYPES = {
+            ColumnType.STRING, ColumnType.LONG, ColumnType.STRING, ColumnType.STRING, ColumnType.LONG,
+            ColumnType.LONG, ColumnType.LONG, ColumnType.LONG
+    };
+    private static final String[] REVIEW_COLUMNS = {
+            "review_id", "restaurant_id", "user_id", "order_id", "rating", "comment", "created_at_millis"
+    };
+    private static final ColumnType[] REVIEW_TYPES = {
+            ColumnType.STRING, ColumnType.STRING, ColumnType.STRING, ColumnType.STRING, ColumnType.LONG,
+            ColumnType.STRING, ColumnType.LONG
+    };
+    private static final String[] ACTION_COLUMNS = {
+            "action_id", "admin_username", "action_type", "target_name", "details", "timestamp_millis"
+    };
+    private static final ColumnType[] ACTION_TYPES = {
+            ColumnType.STRING, ColumnType.STRING, ColumnType.STRING, ColumnType.STRING, ColumnType.STRING,
+            ColumnType.LONG
+    };
+
+    private final DatabaseService databaseService;
+    private final File outputDirectory;
+    private boolean jsonLines = true;
+    private boolean columnar = true;
+
+    public DataExporter(DatabaseService databaseService, File outputDirectory) {
+        this.databaseService = databaseService;
+        this.outputDirectory = outputDirectory;
+    }
+
+    public void setFormats(boolean jsonLines, boolean columnar) {
+        this.jsonLines = jsonLines;
+        this.columnar = columnar;
+    }
+
+    public static void main(String[] args) throws IOException {
+        File dataDirectory = new File(".");
+        File out = new File("export");
+        boolean full = false;
+        String format = "both";
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--full")) {
+                full = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                exitWithUsage("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--data" -> dataDirectory = new File(value);
+                case "--out" -> out = new File(value);
+                case "--format" -> {
+                    if (!value.equals("jsonl") && !value.equals("columnar") && !value.equals("both")) {
+                        exitWithUsage("Invalid value for --format: " + value);
+                    }
+                    format = value;
+                }
+                default -> exitWithUsage("Unknown option " + option);
+            }
+        }
+
+        DatabaseService databaseService = DatabaseService.openForTool(dataDirectory);
+        DataExporter exporter = new DataExporter(databaseService, out);
+        exporter.setFormats(!"columnar".equals(format), !"jsonl".equals(format));
+        long start = System.currentTimeMillis();
+        int[] counts = exporter.export(full);
+        databaseService.close();
+        System.out.println("Exported " + counts[0] + " order rows, " + counts[1] + " order lines, " + counts[2] + " reviews and "
+                + counts[3] + " admin actions to " + out.getAbsolutePath() + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static void exitWithUsage(String problem) {
+        System.out.println(problem);
+        System.out.println("Usage: DataExporter [--data DIR] [--out DIR] [--format jsonl|columnar|both] [--full]");
+        System.exit(1);
+    }
+
+    /**
+     * Exports everything after the stored watermarks (or everything, if {@code full}) and advances
+     * the watermarks once all files are written.
+     *
+     * @return the number of order rows, order lines, reviews and admin actions exported
+     */
+    public int[] export(boolean full) throws IOException {
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new IOException("Cannot create " + outputDirectory);
+        }
+        Properties watermark = full ? new Properties() : loadWatermark();
+        String run = String.valueOf(System.currentTimeMillis());
+        int[] counts = new int[4];
+
+        try (TableOutput orderOut = new TableOutput("orders-" + run, ORDER_COLUMNS, ORDER_TYPES);
+             TableOutput lineOut = new TableOutput("order_lines-" + run, LINE_COLUMNS, LINE_TYPES)) {
+            // orders.changed_* is the last order row exported; orders.millis/orders.id the newest
+            // order whose lines have been exported, so a changed order does not repeat its lines
+            long millis = Long.parseLong(watermark.getProperty("orders.changed_millis", "0"));
+            String id = watermark.getProperty("orders.changed_id", "");
+            Order linesExported = new Order(watermark.getProperty("orders.id", ""), null, null);
+            linesExported.setCreatedAtMillis(Long.parseLong(watermark.getProperty("orders.millis", "0")));
+            Order newestCreated = linesExported;
+            for (List<Order> page = databaseService.getOrdersChangedAfter(millis, id, PAGE_SIZE); !page.isEmpty();
+                 page = databaseService.getOrdersChangedAfter(millis, id, PAGE_SIZE)) {
+                for (Order order : page) {
+                    orderOut.write(order.getOrderId(), order.getUserId(), order.getRestaurantId(), order.getDistrict(),
+                            order.getStatus() != null ? order.getStatus().name() : null, order.getPaymentMethod(),
+                            order.getBikerId(), (long) order.getMenuVersion(), (long) order.getItemCount(),
+                            order.getTotalMinor(), order.getCreatedAtMillis(),
+                            order.getStatusEnteredAtMillis(Order.OrderStatus.DELIVERED),
+                            order.getBikerAssignedAtMillis(), order.getLastChangedAtMillis());
+                    if (Order.NEWEST_FIRST.compare(order, linesExported) >= 0) {
+                        continue;
+                    }
+                    if (Order.NEWEST_FIRST.compare(order, newestCreated) < 0) {
+                        newestCreated = order;
+                    }
+                    List<OrderLine> lines = order.getLines();
+                    for (int i = 0; i < lines.size(); i++) {
+                        OrderLine line = lines.get(i);
+                        lineOut.write(order.getOrderId(), (long) (i + 1), line.getItemId(), line.getNameSnapshot(),
+                                line.getUnitPriceMinor(), (long) line.getQuantity(), line.getLineTotalMinor(),
+                                order.getCreatedAtMillis());
+                    }
+                    counts[1] += lines.size();
+                }
+                Order last = page.get(page.size() - 1);
+                millis = last.getLastChangedAtMillis();
+                id = last.getOrderId();
+                counts[0] += page.size();
+            }
+            watermark.setProperty("orders.changed_millis", String.valueOf(millis));
+            watermark.setProperty("orders.changed_id", id);
+            watermark.setProperty("orders.millis", String.valueOf(newestCreated.getCreatedAtMillis()));
+            watermark.setProperty("orders.id", newestCreated.getOrderId());
+        }
+
+        try (TableOutput reviewOut = new TableOutput("reviews-" + run, REVIEW_COLUMNS, REVIEW_TYPES)) {
+            long millis = Long.parseLong(watermark.getProperty("reviews.millis", "0"));
+            String id = watermark.getProperty("reviews.id", "");
+            for (List<Review> page = databaseService.getReviewsCreatedAfter(millis, id, PAGE_SIZE); !page.isEmpty();
+                 page = databaseService.getReviewsCreatedAfter(millis, id, PAGE_SIZE)) {
+                for (Review review : page) {
+                    reviewOut.write(review.getReviewId(), review.getRestaurantId(), review.getUserId(), review.getOrderId(),
+                            (long) review.getRating(), review.getComment(), review.getCreatedAtMillis());
+                }
+                Review last = page.get(page.size() - 1);
+                millis = last.getCreatedAtMillis();
+                id = last.getReviewId();
+                counts[2] += page.size();
+            }
+            watermark.setProperty("reviews.millis", String.valueOf(millis));
+            watermark.setProperty("reviews.id", id);
+        }
+
+        try (TableOutput actionOut = new TableOutput("admin_actions-" + run, ACTION_COLUMNS, ACTION_TYPES)) {
+            long millis = Long.parseLong(watermark.getProperty("admin_actions.millis", "0"));
+            String id = watermark.getProperty("admin_actions.id", "");
+            for (List<AdminAction> page = databaseService.getAdminActionsAfter(millis, id, PAGE_SIZE); !page.isEmpty();
+                 page = databaseService.getAdminActionsAfter(millis, id, PAGE_SIZE)) {
+                for (AdminAction action : page) {
+                    actionOut.write(action.getActionId(), action.getAdminUsername(),
+                            action.getActionType() != null ? action.getActionType().name() : null, action.getTargetName(),
+                            action.getDetails(), action.getTimestampMillis());
+                }
+                AdminAction last = page.get(page.size() - 1);
+                millis = last.getTimestampMillis();
+                id = last.getActionId();
+                counts[3] += page.size();
+            }
+            watermark.setProperty("admin_actions.millis", String.valueOf(millis));
+            watermark.setProperty("admin_actions.id", id);
+        }
+
+        saveWatermark(watermark);
+        return counts;
+    }
+
+    private Properties loadWatermark() throws IOException {
+        Properties watermark = new Properties();
+        File file = new File(outputDirectory, WATERMARK_FILE);
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                watermark.load(in);
+            }
+        }
+        return watermark;
+    }
+
+    private void saveWatermark(Properties watermark) throws IOException {
+        File file = new File(outputDirectory, WATERMARK_FILE);
+        File temp = new File(outputDirectory, WATERMARK_FILE + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            watermark.store(out, "Last record exported from each table; delete to export everything again");
+        }
+        if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+            throw new IOException("Cannot update " + file);
+        }
+    }
+
+    /** The files for one table in the chosen formats, created when the first row arrives. */
+    private class TableOutput implements Closeable {
+        private final String baseName;
+        private final String[] columns;
+        private final ColumnType[] types;
+        private JsonLinesWriter jsonWriter;
+        private ColumnarWriter columnarWriter;
+
+        TableOutput(String baseName, String[] columns, ColumnType[] types) {
+            this.baseName = baseName;
+            this.columns = columns;
+            this.types = types;
+        }
+
+        void write(Object... row) throws IOException {
+            if (jsonLines) {
+                if (jsonWriter == null) {
+                    jsonWriter = new JsonLinesWriter(new File(outputDirectory, baseName + ".jsonl"), columns);
+                }
+                jsonWriter.write(row);
+            }
+            if (columnar) {
+                if (columnarWriter == null) {
+                    columnarWriter = new ColumnarWriter(new File(outputDirectory, baseName + ".fbcol"), columns, types);
+                }
+                columnarWriter.write(row);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (jsonWriter != null) {
+                    jsonWriter.close();
+                }
+            } finally {
+                if (columnarWriter != null) {
+                    columnarWriter.close();
+                }
+            }
+        }
+    }
+
+    private static class JsonLinesWriter implements Closeable {
+        private final Writer writer;
+        private final String[] columns;
+        private final StringBuilder sb = new StringBuilder(256);
+
+        JsonLinesWriter(File file, String[] columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+            this.columns = columns;
+        }
+
+        void write(Object[] row) throws IOException {
+            sb.setLength(0);
+            sb.append('{');
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append('"').append(columns[i]).append("\":");
+                Object value = row[i];
+                if (value == null || value instanceof String) {
+                    Json.appendQuoted(sb, (String) value);
+                } else {
+                    sb.append(value);
+                }
+            }
+            writer.append(sb.append("}\n"));
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /** Buffers one row group column by column, then writes it; see the class comment for the layout. */
+    private static class ColumnarWriter implements Closeable {
+        private final DataOutputStream out;
+        private final ColumnType[] types;
+        private final List<List<Object>> values = new ArrayList<>();
+        private int rows;
+
+        ColumnarWriter(File file, String[] columns, ColumnType[] types) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            this.types = types;
+            out.writeInt(COLUMNAR_MAGIC);
+            out.writeInt(COLUMNAR_VERSION);
+            out.writeInt(columns.length);
+            for (int i = 0; i < columns.length; i++) {
+                out.writeUTF(columns[i]);
+                out.writeByte(types[i].ordinal());
+                values.add(new ArrayList<>(ROW_GROUP_SIZE));
+            }
+        }
+
+        void write(Object[] row) throws IOException {
+            for (int i = 0; i < row.length; i++) {
+                values.get(i).add(row[i]);
+            }
+            if (++rows == ROW_GROUP_SIZE) {
+                flushRowGroup();
+            }
+        }
+
+        private void flushRowGroup() throws IOException {
+            if (rows == 0) {
+                return;
+            }
+            out.writeInt(rows);
+            for (int c = 0; c < types.length; c++) {
+                List<Object> column = values.get(c);
+                for (Object value : column) {
+                    switch (types[c]) {
+                        case LONG -> out.writeLong(value != null ? ((Number) value).longValue() : 0L);
+                        case STRING -> {
+                            if (value == null) {
+                                out.writeInt(-1);
+                            } else {
+                                byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+                                out.writeInt(utf8.length);
+                                out.write(utf8);
+                            }
+                        }
+                    }
+                }
+                column.clear();
+            }
+            rows = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flushRowGroup();
+                out.writeInt(0);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
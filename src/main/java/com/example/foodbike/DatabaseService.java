@@ -2,6 +2,9 @@ package com.example.foodbike;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DatabaseService {
     private static DatabaseService instance;
@@ -11,31 +14,104 @@ public class DatabaseService {
     private Map<String, RestaurantApplication> applications;
     private Map<String, AdminAction> adminActions;
     private Map<String, Review> reviews;
-    private static final String USERS_FILE = "users.dat";
-    private static final String RESTAURANTS_FILE = "restaurants.dat";
-    private static final String ORDERS_FILE = "orders.dat";
-    private static final String APPLICATIONS_FILE = "applications.dat";
-    private static final String ADMIN_ACTIONS_FILE = "admin_actions.dat";
-    private static final String REVIEWS_FILE = "reviews.dat";
-
-    private DatabaseService() {
+    // Time-sorted views of the maps above, newest first, so list screens never sort. Kept in step
+    // through putOrder/addReview/logAdminAction and rebuilt after loading, under this instance's lock.
+    private final NavigableSet<Order> ordersByTime = new TreeSet<>(Order.NEWEST_FIRST);
+    private final Map<String, NavigableSet<Order>> ordersByUser = new HashMap<>();
+    private final Map<String, NavigableSet<Order>> ordersByRestaurant = new HashMap<>();
+    private final NavigableSet<AdminAction> adminActionsByTime = new TreeSet<>(AdminAction.NEWEST_FIRST);
+    private final Map<String, NavigableSet<Review>> reviewsByRestaurant = new HashMap<>();
+    private final NavigableSet<Review> reviewsByTime = new TreeSet<>(Review.NEWEST_FIRST);
+    // Orders by when their status or biker last changed, oldest first, for incremental exports. The
+    // key an order is filed under is kept beside it so it can be found again after the order changes.
+    private final NavigableSet<ChangeKey> ordersByLastChange = new TreeSet<>();
+    private final Map<String, ChangeKey> lastChangeKeys = new HashMap<>();
+    // Restaurant ID to {sum of ratings, number of reviews}, so a new review updates the average without a scan
+    private final Map<String, int[]> ratingTotals = new HashMap<>();
+    // Menu item ID to the restaurant whose current menu has it, for edits and order-line lookups by ID
+    private final Map<String, Restaurant> restaurantsByItemId = new ConcurrentHashMap<>();
+    private final List<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final OrderStateMachine orderStateMachine = new OrderStateMachine();
+    private final OrderRowCache orderRowCache = new OrderRowCache(this);
+    private final SalesRollups salesRollups = new SalesRollups();
+    private final PopularDishes popularDishes = new PopularDishes();
+    private final RestaurantRanker restaurantRanker = new RestaurantRanker(this);
+    // Rebuilt whenever restaurants are added or removed; readers may use an old one meanwhile
+    private volatile RestaurantSearchIndex restaurantSearchIndex;
+    private Ledger ledger;
+    // Highest restaurant number handed out per division; never decremented, so deleted IDs are not reused.
+    private Map<String, Integer> restaurantSequences = new HashMap<>();
+    private final Map<String, AtomicInteger> restaurantCounters = new ConcurrentHashMap<>();
+    static final String USERS_FILE = "users.dat";
+    static final String RESTAURANTS_FILE = "restaurants.dat";
+    static final String ORDERS_FILE = "orders.dat";
+    static final String APPLICATIONS_FILE = "applications.dat";
+    static final String ADMIN_ACTIONS_FILE = "admin_actions.dat";
+    static final String REVIEWS_FILE = "reviews.dat";
+    private static final String SEQUENCES_FILE = "sequences.dat";
+    static final String LEDGER_FILE = "ledger.dat";
+    /** What a biker earns per delivered order, in poisha. */
+    public static final long DELIVERY_FEE_MINOR = 100_00;
+    /** What the admins earn per logged admin action, in poisha. */
+    public static final long ADMIN_ACTION_FEE_MINOR = 10_00;
+    /** System property naming a {@link FoodBikeServer} URL; when set, orders live on that server. */
+    public static final String SERVER_PROPERTY = "foodbike.server";
+    /** System property naming the directory that holds the data files; defaults to the working directory. */
+    public static final String DATA_DIR_PROPERTY = "foodbike.dataDir";
+    /** Why restaurant, menu, application and payout changes are refused while {@link #isRemote()}. */
+    public static final String REMOTE_READ_ONLY_MESSAGE = "Only orders are shared through the server. Restaurants, menus, "
+            + "applications and payouts are kept on each machine, so they cannot be changed while connected to a server. "
+            + "Make this change on the server's machine while the server is stopped.";
+    // Non-null in remote mode, where the orders map is a local copy kept in step with the server
+    private final FoodBikeClient remote;
+    private final File dataDirectory;
+    private AutoCancelScheduler autoCancelScheduler;
+    private Thread remoteSync;
+
+    private static final Map<String, String> DIVISION_PREFIXES = new HashMap<>();
+    static {
+        DIVISION_PREFIXES.put("Dhaka", "DH");
+        DIVISION_PREFIXES.put("Chittagong", "CH");
+        DIVISION_PREFIXES.put("Sylhet", "SY");
+        DIVISION_PREFIXES.put("Rajshahi", "RJ");
+        DIVISION_PREFIXES.put("Khulna", "KH");
+        DIVISION_PREFIXES.put("Barisal", "BA");
+        DIVISION_PREFIXES.put("Rangpur", "RP");
+        DIVISION_PREFIXES.put("Mymensingh", "MY");
+    }
+
+    private DatabaseService(File dataDirectory, boolean toolMode) {
+        this.dataDirectory = dataDirectory;
+        String serverUrl = System.getProperty(SERVER_PROPERTY);
+        remote = toolMode || serverUrl == null || serverUrl.isBlank() ? null : new FoodBikeClient(serverUrl, System.getProperty(FoodBikeServer.TOKEN_PROPERTY));
         users = new HashMap<>();
-        restaurants = new HashMap<>();
+        // Concurrent because the admin's import reads it from a background thread while the UI reads and edits it
+        restaurants = new ConcurrentHashMap<>();
         orders = new HashMap<>();
         applications = new HashMap<>();
         adminActions = new HashMap<>();
         reviews = new HashMap<>();
         loadDataFromFiles();
+        rebuildIndexes();
+        salesRollups.backfill(orders.values());
+        popularDishes.rebuild(ordersByTime.descendingSet());
+        subscribe(orderRowCache);
+        subscribe(salesRollups);
+        subscribe(popularDishes);
+        subscribe(restaurantRanker);
+        orderStateMachine.addHook((order, from, to) -> indexLastChange(order));
+        orderStateMachine.addHook((order, from, to) -> postEarnings(order));
+        orderStateMachine.addHook((order, from, to) -> publish(DataChangeEvent.orderStatusChanged(order, from)));
         
-        if (needsDistrictUpdate()) {
+        if (!toolMode && needsDistrictUpdate()) {
             restaurants.clear();
-            File restaurantsFile = new File(RESTAURANTS_FILE);
+            File restaurantsFile = new File(dataDirectory, RESTAURANTS_FILE);
             if (restaurantsFile.exists()) {
                 restaurantsFile.delete();
             }
         }
         
-        if (users.isEmpty()) {
+        if (!toolMode && users.isEmpty()) {
             initializeSampleData();
             saveDataToFiles();
         }
@@ -43,7 +119,7 @@ public class DatabaseService {
         Map<String, Restaurant> preservedRestaurants = new HashMap<>();
         for (Map.Entry<String, Restaurant> entry : restaurants.entrySet()) {
             String id = entry.getKey();
-            if (id.matches("[A-Z]{2}\\d{3}") && Integer.parseInt(id.substring(2)) > 13) {
+            if (id.matches("[A-Z]{2}\\d{3,}") && Integer.parseInt(id.substring(2)) > 13) {
                 preservedRestaurants.put(id, entry.getValue());
             }
         }
@@ -55,7 +131,7 @@ public class DatabaseService {
             }
         }
 
-        if (restaurants.size() < 256 || shouldReinitializeDefaultRestaurants() || needsDistrictUpdate()) {
+        if (!toolMode && (restaurants.size() < 256 || shouldReinitializeDefaultRestaurants() || needsDistrictUpdate())) {
             initializeRestaurants();
             restaurants.putAll(preservedRestaurants);
             
@@ -63,39 +139,20 @@ public class DatabaseService {
                 Restaurant existingRestaurant = null;
                 for (Restaurant r : restaurants.values()) {
                     if (r.getName().equals(app.getRestaurantName()) && 
-                        r.getDivision().equals(app.getDivision())) {
+                        r.getDivisionCode() == app.getDivisionCode()) {
                         existingRestaurant = r;
                         break;
                     }
                 }
                 
                 if (existingRestaurant == null) {
-                    Map<String, String> divisionPrefixes = new HashMap<>();
-                    divisionPrefixes.put("Dhaka", "DH");
-                    divisionPrefixes.put("Chittagong", "CH");
-                    divisionPrefixes.put("Sylhet", "SY");
-                    divisionPrefixes.put("Rajshahi", "RJ");
-                    divisionPrefixes.put("Khulna", "KH");
-                    divisionPrefixes.put("Barisal", "BA");
-                    divisionPrefixes.put("Rangpur", "RP");
-                    divisionPrefixes.put("Mymensingh", "MY");
-                    
-                    int count = 0;
-                    for (Restaurant r : restaurants.values()) {
-                        if (r.getDivision().equals(app.getDivision())) {
-                            count++;
-                        }
-                    }
-                    String prefix = divisionPrefixes.get(app.getDivision());
-                    String restaurantId = String.format("%s%03d", prefix, count + 1);
+                    String restaurantId = nextRestaurantId(app.getDivision());
                     
                     Restaurant restaurant = new Restaurant(restaurantId, app.getRestaurantName(), 
                                                           app.getDivision(), app.getDistrict(), app.getAddress());
                     restaurant.setRating(app.getRating());
                     
-                    for (MenuItem item : app.getMenuItems()) {
-                        restaurant.addMenuItem(item);
-                    }
+                    restaurant.addMenuItems(app.getMenuItems());
                     
                     restaurants.put(restaurantId, restaurant);
                 }
@@ -103,8 +160,62 @@ public class DatabaseService {
             
             saveDataToFiles();
         }
+
+        refreshSearchIndex();
+        for (Restaurant restaurant : restaurants.values()) {
+            indexMenu(restaurant);
+            pruneMenuVersions(restaurant);
+        }
+        if (toolMode) {
+            return;
+        }
+        openLedger();
+
+        if (remote != null) {
+            connectToServer();
+        } else {
+            autoCancelScheduler = new AutoCancelScheduler(this);
+            autoCancelScheduler.start(orders.values());
+        }
+    }
+
+    private void connectToServer() {
+        orders.clear();
+        rebuildIndexes();
+        long afterSeq = -1;
+        try {
+            FoodBikeClient.OrderList list = remote.fetchOrders();
+            for (Order order : list.getOrders()) {
+                putOrder(order);
+                postEarnings(order);
+            }
+            afterSeq = list.getSeq();
+            System.out.println("Connected to " + remote.getBaseUrl() + ", loaded " + orders.size() + " orders.");
+        } catch (IOException e) {
+            System.out.println("Could not reach " + remote.getBaseUrl() + ", will keep retrying: " + e.getMessage());
+        }
+        salesRollups.backfill(orders.values());
+        popularDishes.rebuild(ordersByTime.descendingSet());
+        remoteSync = remote.startSync(this, afterSeq);
+    }
+
+    public boolean isRemote() {
+        return remote != null;
     }
 
+    /**
+     * Logs and returns true when {@code change} has to be refused because this is a remote client.
+     * Only orders go through the server; restaurants, menus, applications and the ledger are each
+     * machine's own files, so a change made to them here would never reach the server or the other
+     * clients, and a payout could be taken once on every machine.
+     */
+    private boolean refusedInRemoteMode(String change) {
+        if (remote == null) {
+            return false;
+        }
+        System.out.println("Cannot " + change + " while connected to " + remote.getBaseUrl());
+        return true;
+    }
     private boolean shouldReinitializeDefaultRestaurants() {
         for (Restaurant r : restaurants.values()) {
             if (r.getName().equals("Burger King") || r.getName().equals("Pizza Hut") || 
@@ -116,27 +227,19 @@ public class DatabaseService {
     }
 
     private boolean needsDistrictUpdate() {
+        // Check if any restaurant lacks a district or any district has fewer than 4 restaurants
+        int[] districtCounts = new int[Geography.districtCount()];
         for (Restaurant r : restaurants.values()) {
-            if (r.getDistrict() == null || r.getDistrict().isEmpty()) {
+            int district = r.getDistrictCode();
+            if (district == Geography.NONE) {
                 return true;
             }
+            districtCounts[district]++;
         }
         
-        // Check if any district has fewer than 4 restaurants
-        Map<String, Integer> districtCounts = new HashMap<>();
-        for (Restaurant r : restaurants.values()) {
-            String district = r.getDistrict();
-            if (district != null && !district.isEmpty()) {
-                districtCounts.put(district, districtCounts.getOrDefault(district, 0) + 1);
-            }
-        }
-        
-        for (List<String> districts : getDivisionDistrictsMap().values()) {
-            for (String district : districts) {
-                int count = districtCounts.getOrDefault(district, 0);
-                if (count < 4) {
-                    return true;
-                }
+        for (int count : districtCounts) {
+            if (count < 4) {
+                return true;
             }
         }
         
@@ -145,14 +248,95 @@ public class DatabaseService {
 
     public static DatabaseService getInstance() {
         if (instance == null) {
-            instance = new DatabaseService();
+            instance = new DatabaseService(new File(System.getProperty(DATA_DIR_PROPERTY, ".")), false);
         }
         return instance;
     }
 
+    /**
+     * Opens a separate, non-shared instance on the data files in {@code dataDirectory}, for tools
+     * and benchmarks that work on a dataset other than the application's own. Call {@link #close()}
+     * when done so its background threads stop.
+     */
+    public static DatabaseService open(File dataDirectory) {
+        if (!dataDirectory.isDirectory() && !dataDirectory.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create data directory " + dataDirectory);
+        }
+        return new DatabaseService(dataDirectory, false);
+    }
+
+    /**
+     * Opens the data files in {@code dataDirectory} as they are, for command-line tools such as
+     * {@link DataExporter} and {@link RestaurantImporter}. Unlike {@link #open} it never seeds
+     * sample users or default restaurants, never connects to a server, and opens no ledger and no
+     * auto-cancel scheduler, so reading leaves the files untouched. {@link #getLedger()} returns
+     * null and earnings are not posted. A save still rewrites every data file, so a tool that
+     * writes must not run against the directory of a running application.
+     */
+    public static DatabaseService openForTool(File dataDirectory) {
+        if (!dataDirectory.isDirectory() && !dataDirectory.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create data directory " + dataDirectory);
+        }
+        return new DatabaseService(dataDirectory, true);
+    }
+
+    public void close() {
+        if (autoCancelScheduler != null) {
+            autoCancelScheduler.stop();
+        }
+        if (remoteSync != null) {
+            remoteSync.interrupt();
+        }
+        if (ledger != null) {
+            ledger.close();
+        }
+        listeners.clear();
+    }
+
+    public File getDataDirectory() {
+        return dataDirectory;
+    }
+
+    public OrderStateMachine getOrderStateMachine() {
+        return orderStateMachine;
+    }
+
+    /** Table rows for orders, shared by every window showing order tables. */
+    public OrderRowCache getOrderRowCache() {
+        return orderRowCache;
+    }
+
+    /** Daily sales per restaurant, district and division, kept up to date as orders change. */
+    public SalesRollups getSalesRollups() {
+        return salesRollups;
+    }
+
+    /** Most ordered dishes per restaurant and trending dishes per district, kept up to date as orders are placed. */
+    public PopularDishes getPopularDishes() {
+        return popularDishes;
+    }
+
+    public void subscribe(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void publish(DataChangeEvent event) {
+        for (DataChangeListener listener : listeners) {
+            try {
+                listener.onDataChanged(event);
+            } catch (RuntimeException e) {
+                System.out.println("Error delivering " + event.getType() + " event: " + e.getMessage());
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private void loadDataFromFiles() {
-        File usersFile = new File(USERS_FILE);
+        File usersFile = new File(dataDirectory, USERS_FILE);
         if (usersFile.exists()) {
             try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(usersFile))) {
                 users = (Map<String, User>) ois.readObject();
@@ -162,17 +346,17 @@ public class DatabaseService {
             }
         }
 
-        File restaurantsFile = new File(RESTAURANTS_FILE);
+        File restaurantsFile = new File(dataDirectory, RESTAURANTS_FILE);
         if (restaurantsFile.exists()) {
             try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(restaurantsFile))) {
-                restaurants = (Map<String, Restaurant>) ois.readObject();
+                restaurants = new ConcurrentHashMap<>((Map<String, Restaurant>) ois.readObject());
             } catch (IOException | ClassNotFoundException e) {
                 System.out.println("Error loading restaurants file: " + e.getMessage());
-                restaurants = new HashMap<>();
+                restaurants = new ConcurrentHashMap<>();
             }
         }
 
-        File ordersFile = new File(ORDERS_FILE);
+        File ordersFile = new File(dataDirectory, ORDERS_FILE);
         if (ordersFile.exists()) {
             try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(ordersFile))) {
                 orders = (Map<String, Order>) ois.readObject();
@@ -182,7 +366,7 @@ public class DatabaseService {
                 e.printStackTrace();
                 // Try to create backup before clearing
                 try {
-                    File backup = new File("orders_backup_" + System.currentTimeMillis() + ".dat");
+                    File backup = new File(dataDirectory, "orders_backup_" + System.currentTimeMillis() + ".dat");
                     java.nio.file.Files.copy(ordersFile.toPath(), backup.toPath());
                     System.out.println("Created backup: " + backup.getName());
                 } catch (IOException backupError) {
@@ -192,7 +376,7 @@ public class DatabaseService {
             }
         }
 
-        File applicationsFile = new File(APPLICATIONS_FILE);
+        File applicationsFile = new File(dataDirectory, APPLICATIONS_FILE);
         if (applicationsFile.exists()) {
             try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(applicationsFile))) {
                 applications = (Map<String, RestaurantApplication>) ois.readObject();
@@ -202,7 +386,7 @@ public class DatabaseService {
             }
         }
         
-        File adminActionsFile = new File(ADMIN_ACTIONS_FILE);
+        File adminActionsFile = new File(dataDirectory, ADMIN_ACTIONS_FILE);
         if (adminActionsFile.exists()) {
             try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(adminActionsFile))) {
                 adminActions = (Map<String, AdminAction>) ois.readObject();
@@ -212,7 +396,7 @@ public class DatabaseService {
             }
         }
 
-        File reviewsFile = new File(REVIEWS_FILE);
+        File reviewsFile = new File(dataDirectory, REVIEWS_FILE);
         if (reviewsFile.exists()) {
             try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(reviewsFile))) {
                 reviews = (Map<String, Review>) ois.readObject();
@@ -221,43 +405,65 @@ public class DatabaseService {
                 reviews = new HashMap<>();
             }
         }
+
+        File sequencesFile = new File(dataDirectory, SEQUENCES_FILE);
+        if (sequencesFile.exists()) {
+            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(sequencesFile))) {
+                restaurantSequences = (Map<String, Integer>) ois.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                System.out.println("Error loading sequences file: " + e.getMessage());
+                restaurantSequences = new HashMap<>();
+            }
+        }
     }
-    public void saveDataToFiles() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(USERS_FILE))) {
+    public synchronized void saveDataToFiles() {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(dataDirectory, USERS_FILE)))) {
             oos.writeObject(users);
         } catch (IOException e) {
             System.out.println("Error saving users file: " + e.getMessage());
         }
 
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(RESTAURANTS_FILE))) {
-            oos.writeObject(restaurants);
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(dataDirectory, RESTAURANTS_FILE)))) {
+            // Saved as a HashMap, as it always has been
+            oos.writeObject(new HashMap<>(restaurants));
         } catch (IOException e) {
             System.out.println("Error saving restaurants file: " + e.getMessage());
         }
 
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(ORDERS_FILE))) {
-            oos.writeObject(orders);
-        } catch (IOException e) {
-            System.out.println("Error saving orders file: " + e.getMessage());
+        if (remote == null) {
+            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(dataDirectory, ORDERS_FILE)))) {
+                oos.writeObject(orders);
+            } catch (IOException e) {
+                System.out.println("Error saving orders file: " + e.getMessage());
+            }
         }
 
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(APPLICATIONS_FILE))) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(dataDirectory, APPLICATIONS_FILE)))) {
             oos.writeObject(applications);
         } catch (IOException e) {
             System.out.println("Error saving applications file: " + e.getMessage());
         }
         
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(ADMIN_ACTIONS_FILE))) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(dataDirectory, ADMIN_ACTIONS_FILE)))) {
             oos.writeObject(adminActions);
         } catch (IOException e) {
             System.out.println("Error saving admin actions file: " + e.getMessage());
         }
 
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(REVIEWS_FILE))) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(dataDirectory, REVIEWS_FILE)))) {
             oos.writeObject(reviews);
         } catch (IOException e) {
             System.out.println("Error saving reviews file: " + e.getMessage());
         }
+
+        for (Map.Entry<String, AtomicInteger> entry : restaurantCounters.entrySet()) {
+            restaurantSequences.put(entry.getKey(), entry.getValue().get());
+        }
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(dataDirectory, SEQUENCES_FILE)))) {
+            oos.writeObject(restaurantSequences);
+        } catch (IOException e) {
+            System.out.println("Error saving sequences file: " + e.getMessage());
+        }
     }
 
     private void initializeSampleData() {
@@ -269,87 +475,8 @@ public class DatabaseService {
     }
 
     private void initializeRestaurants() {
-        Map<String, List<String>> divisionDistricts = new HashMap<>();
-        divisionDistricts.put("Dhaka", Arrays.asList("Dhaka", "Gazipur", "Narayanganj", "Tangail", "Munshiganj", "Manikganj", "Narsingdi", "Faridpur", "Rajbari", "Gopalganj", "Madaripur", "Shariatpur", "Kishoreganj"));
-        divisionDistricts.put("Chittagong", Arrays.asList("Chittagong", "Cox's Bazar", "Comilla", "Feni", "Brahmanbaria", "Rangamati", "Noakhali", "Chandpur", "Lakshmipur", "Bandarban", "Khagrachari"));
-        divisionDistricts.put("Sylhet", Arrays.asList("Sylhet", "Moulvibazar", "Habiganj", "Sunamganj"));
-        divisionDistricts.put("Rajshahi", Arrays.asList("Rajshahi", "Bogra", "Pabna", "Natore", "Sirajganj", "Naogaon", "Chapainawabganj", "Joypurhat"));
-        divisionDistricts.put("Khulna", Arrays.asList("Khulna", "Jessore", "Satkhira", "Bagerhat", "Jhenaidah", "Magura", "Narail", "Kushtia", "Chuadanga", "Meherpur"));
-        divisionDistricts.put("Barisal", Arrays.asList("Barisal", "Patuakhali", "Bhola", "Pirojpur", "Jhalokati", "Barguna"));
-        divisionDistricts.put("Rangpur", Arrays.asList("Rangpur", "Dinajpur", "Lalmonirhat", "Nilphamari", "Gaibandha", "Thakurgaon", "Panchagarh", "Kurigram"));
-        divisionDistricts.put("Mymensingh", Arrays.asList("Mymensingh", "Jamalpur", "Netrokona", "Sherpur"));
-
-        Map<String, String> divisionPrefixes = new HashMap<>();
-        divisionPrefixes.put("Dhaka", "DH");
-        divisionPrefixes.put("Chittagong", "CH");
-        divisionPrefixes.put("Sylhet", "SY");
-        divisionPrefixes.put("Rajshahi", "RJ");
-        divisionPrefixes.put("Khulna", "KH");
-        divisionPrefixes.put("Barisal", "BA");
-        divisionPrefixes.put("Rangpur", "RP");
-        divisionPrefixes.put("Mymensingh", "MY");
-        
-        String[] restaurantNames = {"Khabar Ghar", "Bhoj Bari", "Ruchi Bhandar", "Pakghor", "Swaad Kutir", 
-                                    "Amader Rannaghor", "Khana Khazana", "Rasoi Ghar", "Bhojan Griha", "Annapurna Bhoj",
-                                    "Spice Lounge", "Flavour Junction", "Royal Feast", "Golden Spoon", "Heritage Kitchen",
-                                    "Bawarchi Khana", "Dawat Ghar", "Mehfil Restaurant", "Sultan's Kitchen", "Mughal Durbar",
-                                    "Kacchi Bhai", "Biryani Mahal", "Tehari House", "Pulao Palace", "Rice Bowl",
-                                    "Tandoori Adda", "Kebab Corner", "Tikka Time", "Grill Master", "BBQ Nation",
-                                    "Curry Hub", "Masala Magic", "Spice Garden", "Chili Chicken", "Pepper Pot",
-                                    "Roti Ghar", "Naan Stop", "Paratha Plaza", "Chapati Corner", "Bread Basket",
-                                    "Desi Dhaba", "Village Kitchen", "Gram Bangla", "Shobar Rannaghor", "Bazar Bhoj",
-                                    "Fish Fry", "Machher Bazar", "Prawn Paradise", "Seafood Station", "Ocean Delight",
-                                    "Chicken King", "Murgh Mahal", "Roast House", "Fry Point", "Korai Kitchen",
-                                    "Sweet Corner", "Mishti Mukh", "Rosogolla House", "Dessert Delight", "Cake Palace",
-                                    "Tea Time", "Cha Chakra", "Coffee Adda", "Cafe Culture", "Brew Station",
-                                    "Breakfast Bazar", "Morning Meals", "Nashta Ghar", "Brunch Spot", "Early Bites",
-                                    "Fast Food Fusion", "Quick Bites", "Snack Attack", "Chatpata Corner", "Street Food",
-                                    "Pizza Point", "Pasta House", "Italian Touch", "Continental Cafe", "Western Grill",
-                                    "Chinese Wok", "Thai Spice", "Asian Bowl", "Oriental Kitchen", "Dragon House",
-                                    "Burger Spot", "Sandwich Shop", "Wrap Zone", "Hot Dog Hub", "Sub Station",
-                                    "Juice Junction", "Lassi Bar", "Smoothie Corner", "Borhani Bazar", "Drink Depot",
-                                    "Vegetarian Villa", "Green Plate", "Salad Bowl", "Healthy Eats", "Organic Oasis"};
-
-        String[] divisions = {"Dhaka", "Chittagong", "Sylhet", "Rajshahi", "Khulna", "Barisal", "Rangpur", "Mymensingh"};
-        
-        int restaurantId = 1;
-        int nameIndex = 0;
-        
-        for (String division : divisions) {
-            List<String> districts = divisionDistricts.get(division);
-            String prefix = divisionPrefixes.get(division);
-            int divisionCount = 0;
-            
-            for (String district : districts) {
-                for (int j = 0; j < 4; j++) {
-                    divisionCount++;
-                    
-                    String name = restaurantNames[nameIndex % restaurantNames.length];
-                    if (nameIndex >= restaurantNames.length) {
-                        name = name + " " + (nameIndex / restaurantNames.length);
-                    }
-                    nameIndex++;
-                    
-                    String[] areaNames = {"Shadar Road", "Station Road", "College Road", "Market Area", "City Center", "Sadar", "Pourashava", "Bypass Road", "Main Road", "Upazila Road"};
-                    String areaName = areaNames[restaurantId % areaNames.length];
-                    String address = areaName + ", " + district;
-                    
-                    String restaurantIdStr = String.format("%s%03d", prefix, divisionCount);
-                    
-                    Restaurant restaurant = new Restaurant(restaurantIdStr, name, division, district, address);
-
-                    double randomRating = 3.5 + Math.random() * 1.5;
-                    randomRating = Math.round(randomRating * 10) / 10.0;
-                    restaurant.setRating(randomRating);
-                    restaurant.addMenuItem(new MenuItem("item_" + restaurantId + "_1", "Special Combo", "Our signature dish", 250));
-                    restaurant.addMenuItem(new MenuItem("item_" + restaurantId + "_2", "Deluxe Meal", "Premium items", 350));
-                    restaurant.addMenuItem(new MenuItem("item_" + restaurantId + "_3", "Basic Meal", "Standard items", 150));
-                    restaurant.addMenuItem(new MenuItem("item_" + restaurantId + "_4", "Beverage", "Drinks and juices", 50));
-                    
-                    restaurants.put(restaurantIdStr, restaurant);
-                    restaurantId++;
-                }
-            }
+        for (Restaurant restaurant : SeedCatalog.load()) {
+            restaurants.put(restaurant.getId(), restaurant);
         }
     }
 
@@ -384,22 +511,38 @@ public class DatabaseService {
     }
 
     public List<Restaurant> searchRestaurants(String query) {
-        List<Restaurant> results = new ArrayList<>();
-        for (Restaurant restaurant : restaurants.values()) {
-            if (restaurant.getName().toLowerCase().contains(query.toLowerCase()) ||
-                (restaurant.getDistrict() != null && restaurant.getDistrict().toLowerCase().contains(query.toLowerCase())) ||
-                restaurant.getDivision().toLowerCase().contains(query.toLowerCase()) ||
-                restaurant.getAddress().toLowerCase().contains(query.toLowerCase())) {
-                results.add(restaurant);
-            }
-        }
-        return results;
+        return searchRestaurants(query, null);
+    }
+
+    /**
+     * Restaurants matching {@code query}, best first by text match, rating, recent orders and
+     * closeness to {@code homeDistrict} (null if unknown); see {@link RestaurantRanker}.
+     */
+    public List<Restaurant> searchRestaurants(String query, String homeDistrict) {
+        return restaurantRanker.rank(restaurantSearchIndex.search(query), query, homeDistrict);
+    }
+
+    public RestaurantRanker getRestaurantRanker() {
+        return restaurantRanker;
+    }
+
+    /** The current search index; safe to query from any thread. */
+    public RestaurantSearchIndex getRestaurantSearchIndex() {
+        return restaurantSearchIndex;
+    }
+
+    private void refreshSearchIndex() {
+        restaurantSearchIndex = new RestaurantSearchIndex(getAllRestaurants());
     }
 
     public List<Restaurant> getRestaurantsByDivision(String division) {
         List<Restaurant> results = new ArrayList<>();
+        int divisionCode = Geography.divisionCode(division);
+        if (divisionCode == Geography.NONE) {
+            return results;
+        }
         for (Restaurant restaurant : restaurants.values()) {
-            if (restaurant.getDivision().equalsIgnoreCase(division)) {
+            if (restaurant.getDivisionCode() == divisionCode) {
                 results.add(restaurant);
             }
         }
@@ -408,8 +551,12 @@ public class DatabaseService {
 
     public List<Restaurant> getRestaurantsByDistrict(String district) {
         List<Restaurant> results = new ArrayList<>();
+        int districtCode = Geography.districtCode(district);
+        if (districtCode == Geography.NONE) {
+            return results;
+        }
         for (Restaurant restaurant : restaurants.values()) {
-            if (restaurant.getDistrict() != null && restaurant.getDistrict().equalsIgnoreCase(district)) {
+            if (restaurant.getDistrictCode() == districtCode) {
                 results.add(restaurant);
             }
         }
@@ -421,93 +568,473 @@ public class DatabaseService {
     }
 
     public boolean addRestaurant(Restaurant restaurant) {
-        if (restaurants.containsKey(restaurant.getId())) {
+        if (refusedInRemoteMode("add restaurant " + restaurant.getId()) || restaurants.containsKey(restaurant.getId())) {
             return false;
         }
         restaurants.put(restaurant.getId(), restaurant);
+        indexMenu(restaurant);
+        orderRowCache.invalidateRestaurant(restaurant.getId());
+        refreshSearchIndex();
         saveDataToFiles();
         return true;
     }
 
+    /**
+     * Adds restaurants in bulk, rebuilding the search index and saving once for the whole batch.
+     * Restaurants whose ID is already taken are skipped.
+     *
+     * @return the number added
+     */
+    public synchronized int addRestaurants(Collection<Restaurant> newRestaurants) {
+        if (refusedInRemoteMode("import restaurants")) {
+            return 0;
+        }
+        int added = 0;
+        for (Restaurant restaurant : newRestaurants) {
+            if (restaurants.putIfAbsent(restaurant.getId(), restaurant) == null) {
+                indexMenu(restaurant);
+                orderRowCache.invalidateRestaurant(restaurant.getId());
+                added++;
+            }
+        }
+        if (added > 0) {
+            refreshSearchIndex();
+            saveDataToFiles();
+        }
+        return added;
+    }
+
     public boolean deleteRestaurant(String restaurantId) {
-        boolean removed = restaurants.remove(restaurantId) != null;
+        if (refusedInRemoteMode("delete restaurant " + restaurantId)) {
+            return false;
+        }
+        Restaurant restaurant = restaurants.remove(restaurantId);
+        boolean removed = restaurant != null;
         if (removed) {
+            for (MenuItem item : restaurant.getMenu()) {
+                restaurantsByItemId.remove(item.getId(), restaurant);
+            }
+            orderRowCache.invalidateRestaurant(restaurantId);
+            restaurantRanker.invalidate(restaurantId);
+            refreshSearchIndex();
             saveDataToFiles();
         }
         return removed;
     }
 
+    private void indexMenu(Restaurant restaurant) {
+        for (MenuItem item : restaurant.getMenu()) {
+            Restaurant previous = restaurantsByItemId.put(item.getId(), restaurant);
+            if (previous != null && previous != restaurant) {
+                System.out.println("Menu item " + item.getId() + " is on both " + previous.getId() + " and " + restaurant.getId());
+            }
+        }
+    }
+
+    /** @return the item on a restaurant's current menu with this ID, or null if no menu has it */
+    public MenuItem findMenuItem(String itemId) {
+        Restaurant restaurant = restaurantsByItemId.get(itemId);
+        return restaurant != null ? restaurant.getCurrentMenu().find(itemId) : null;
+    }
+
+    /** @return the restaurant whose current menu has the item, or null */
+    public Restaurant findMenuItemRestaurant(String itemId) {
+        return restaurantsByItemId.get(itemId);
+    }
+
+    /**
+     * The menu entry an order line was ordered from: the item in the menu version the order
+     * records, or for orders without one, the item as it is on the menu now.
+     *
+     * @return the item, or null if it cannot be found
+     */
+    public MenuItem resolveOrderLine(Order order, OrderLine line) {
+        Restaurant restaurant = restaurants.get(order.getRestaurantId());
+        Menu menu = restaurant != null ? restaurant.getMenuVersion(order.getMenuVersion()) : null;
+        if (menu != null && order.getMenuVersion() > 0) {
+            return menu.find(line.getItemId());
+        }
+        return findMenuItem(line.getItemId());
+    }
+
+    /** @return false if the menu cannot be changed here (see {@link #isRemote()}) */
+    public boolean addMenuItems(Restaurant restaurant, Collection<MenuItem> items) {
+        if (refusedInRemoteMode("change the menu of " + restaurant.getId())) {
+            return false;
+        }
+        restaurant.addMenuItems(items);
+        if (restaurants.get(restaurant.getId()) == restaurant) {
+            indexMenu(restaurant);
+            pruneMenuVersions(restaurant);
+        }
+        saveDataToFiles();
+        return true;
+    }
+
+    /** Replaces the menu item with the same ID on its restaurant's menu. */
+    public boolean updateMenuItem(MenuItem item) {
+        Restaurant restaurant = restaurantsByItemId.get(item.getId());
+        if (restaurant == null || refusedInRemoteMode("change menu item " + item.getId())) {
+            return false;
+        }
+        restaurant.replaceMenuItem(item);
+        pruneMenuVersions(restaurant);
+        saveDataToFiles();
+        return true;
+    }
+
+    /** Drops the restaurant's menu versions that no unfinished order was placed from. */
+    private synchronized void pruneMenuVersions(Restaurant restaurant) {
+        int oldestInUse = restaurant.getCurrentMenu().getVersion();
+        for (Order order : ordersByRestaurant.getOrDefault(restaurant.getId(), Collections.emptyNavigableSet())) {
+            if (order.getMenuVersion() > 0 && !OrderStateMachine.isTerminal(order.getStatus())) {
+                oldestInUse = Math.min(oldestInUse, order.getMenuVersion());
+            }
+        }
+        restaurant.pruneMenuVersions(oldestInUse);
+    }
+
+    public boolean setMenuItemAvailable(String itemId, boolean available) {
+        MenuItem item = findMenuItem(itemId);
+        return item != null && (item.isAvailable() == available || updateMenuItem(item.withAvailable(available)));
+    }
+
+    public boolean removeMenuItem(String itemId) {
+        if (refusedInRemoteMode("remove menu item " + itemId)) {
+            return false;
+        }
+        Restaurant restaurant = restaurantsByItemId.remove(itemId);
+        if (restaurant == null) {
+            return false;
+        }
+        restaurant.removeMenuItem(itemId);
+        pruneMenuVersions(restaurant);
+        saveDataToFiles();
+        return true;
+    }
+
+    /**
+     * Hands out the next restaurant ID for a division (e.g. "DH053"). Each division has its own
+     * atomic counter, seeded from the larger of the persisted high-water mark and the highest ID
+     * currently in use, so IDs are never reused even after restaurants are deleted.
+     */
+    static String divisionPrefix(String division) {
+        return DIVISION_PREFIXES.get(division);
+    }
+
+    public String nextRestaurantId(String division) {
+        return reserveRestaurantIds(division, 1).get(0);
+    }
+
+    /** Hands out {@code count} consecutive restaurant IDs for a division with one counter update. */
+    public List<String> reserveRestaurantIds(String division, int count) {
+        String prefix = DIVISION_PREFIXES.get(division);
+        if (prefix == null) {
+            throw new IllegalArgumentException("Unknown division: " + division);
+        }
+        AtomicInteger counter = restaurantCounters.computeIfAbsent(division, d -> {
+            int highest = restaurantSequences.getOrDefault(d, 0);
+            for (String id : new ArrayList<>(restaurants.keySet())) {
+                if (id.startsWith(prefix) && id.matches("[A-Z]{2}\\d{3,}")) {
+                    highest = Math.max(highest, Integer.parseInt(id.substring(2)));
+                }
+            }
+            return new AtomicInteger(highest);
+        });
+        int first = counter.getAndAdd(count) + 1;
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(String.format("%s%03d", prefix, first + i));
+        }
+        return ids;
+    }
+
     public List<String> getAllDivisions() {
-        Set<String> divisionsSet = new HashSet<>();
+        boolean[] present = new boolean[Geography.divisionCount()];
         for (Restaurant restaurant : restaurants.values()) {
-            divisionsSet.add(restaurant.getDivision());
+            int division = restaurant.getDivisionCode();
+            if (division != Geography.NONE) {
+                present[division] = true;
+            }
+        }
+        List<String> divisions = new ArrayList<>();
+        for (int division = 0; division < present.length; division++) {
+            if (present[division]) {
+                divisions.add(Geography.divisionName(division));
+            }
         }
-        List<String> divisions = new ArrayList<>(divisionsSet);
         Collections.sort(divisions);
         return divisions;
     }
 
     public List<String> getAllDistricts() {
-        Set<String> districtsSet = new HashSet<>();
+        long present = 0;
         for (Restaurant restaurant : restaurants.values()) {
-            if (restaurant.getDistrict() != null) {
-                districtsSet.add(restaurant.getDistrict());
-            }
+            present |= Geography.districtBit(restaurant.getDistrictCode());
         }
-        List<String> districts = new ArrayList<>(districtsSet);
-        Collections.sort(districts);
-        return districts;
+        return Geography.districtNames(present);
     }
 
     public Map<String, List<String>> getDivisionDistrictsMap() {
-        Map<String, List<String>> divisionDistricts = new HashMap<>();
-        divisionDistricts.put("Dhaka", Arrays.asList("Dhaka", "Gazipur", "Narayanganj", "Tangail", "Munshiganj", "Manikganj", "Narsingdi", "Faridpur", "Rajbari", "Gopalganj", "Madaripur", "Shariatpur", "Kishoreganj"));
-        divisionDistricts.put("Chittagong", Arrays.asList("Chittagong", "Cox's Bazar", "Comilla", "Feni", "Brahmanbaria", "Rangamati", "Noakhali", "Chandpur", "Lakshmipur", "Bandarban", "Khagrachari"));
-        divisionDistricts.put("Sylhet", Arrays.asList("Sylhet", "Moulvibazar", "Habiganj", "Sunamganj"));
-        divisionDistricts.put("Rajshahi", Arrays.asList("Rajshahi", "Bogra", "Pabna", "Natore", "Sirajganj", "Naogaon", "Chapainawabganj", "Joypurhat"));
-        divisionDistricts.put("Khulna", Arrays.asList("Khulna", "Jessore", "Satkhira", "Bagerhat", "Jhenaidah", "Magura", "Narail", "Kushtia", "Chuadanga", "Meherpur"));
-        divisionDistricts.put("Barisal", Arrays.asList("Barisal", "Patuakhali", "Bhola", "Pirojpur", "Jhalokati", "Barguna"));
-        divisionDistricts.put("Rangpur", Arrays.asList("Rangpur", "Dinajpur", "Lalmonirhat", "Nilphamari", "Gaibandha", "Thakurgaon", "Panchagarh", "Kurigram"));
-        divisionDistricts.put("Mymensingh", Arrays.asList("Mymensingh", "Jamalpur", "Netrokona", "Sherpur"));
-        return divisionDistricts;
-    }
-
-    public void createOrder(Order order) {
-        orders.put(order.getOrderId(), order);
-        saveDataToFiles();
+        return createDivisionDistrictsMap();
     }
 
-    public Order getOrder(String orderId) {
-        return orders.get(orderId);
+    static Map<String, List<String>> createDivisionDistrictsMap() {
+        return Geography.divisionDistrictsMap();
     }
 
-    public List<Order> getUserOrders(String userId) {
-        List<Order> userOrders = new ArrayList<>();
-        for (Order order : orders.values()) {
-            if (order.getUserId().equals(userId)) {
-                userOrders.add(order);
+    /**
+     * In remote mode the server issues the order ID, which is written back into {@code order}; the
+     * ORDER_CREATED event is published when the change comes back through the server's event feed.
+     *
+     * @return false if the server could not be reached or refused the order
+     */
+    public boolean createOrder(Order order) {
+        if (remote != null) {
+            try {
+                Order created = remote.createOrder(order);
+                synchronized (this) {
+                    order.setOrderId(created.getOrderId());
+                    order.setCreatedAtMillis(created.getCreatedAtMillis());
+                    order.copyLinesFrom(created);
+                    order.copyStateFrom(created);
+                    if (!orders.containsKey(order.getOrderId())) {
+                        putOrder(order);
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                System.out.println("Error creating order on server: " + e.getMessage());
+                return false;
             }
         }
-        return userOrders;
+        synchronized (this) {
+            putOrder(order);
+            saveDataToFiles();
+            postEarnings(order);
+            publish(DataChangeEvent.orderCreated(order));
+        }
+        return true;
     }
 
-    public List<Order> getRestaurantOrders(String restaurantId) {
-        List<Order> restaurantOrders = new ArrayList<>();
-        for (Order order : orders.values()) {
-            if (order.getRestaurantId().equals(restaurantId)) {
-                restaurantOrders.add(order);
+    public boolean updateOrderStatus(Order order, Order.OrderStatus status) {
+        if (remote != null) {
+            if (!OrderStateMachine.canTransition(order.getStatus(), status)) {
+                return false;
+            }
+            try {
+                Order updated = remote.updateOrderStatus(order.getOrderId(), status);
+                if (updated == null) {
+                    return false;
+                }
+                synchronized (this) {
+                    order.copyStateFrom(updated);
+                    indexLastChange(order);
+                }
+                return true;
+            } catch (IOException e) {
+                System.out.println("Error updating order on server: " + e.getMessage());
+                return false;
+            }
+        }
+        synchronized (this) {
+            if (orderStateMachine.transition(order, status)) {
+                saveDataToFiles();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public boolean assignBiker(Order order, String bikerId) {
+        if (remote != null) {
+            try {
+                Order updated = remote.assignBiker(order.getOrderId(), bikerId);
+                // On a conflict, pick up who has it now so the caller can tell the biker
+                Order current = updated != null ? updated : remote.fetchOrder(order.getOrderId());
+                synchronized (this) {
+                    order.copyStateFrom(current);
+                    indexLastChange(order);
+                }
+                return updated != null;
+            } catch (IOException e) {
+                System.out.println("Error assigning biker on server: " + e.getMessage());
+                return false;
+            }
+        }
+        synchronized (this) {
+            if (order.getBikerId() != null && !order.getBikerId().equals(bikerId)) {
+                return false;
+            }
+            order.setBikerId(bikerId);
+            indexLastChange(order);
+            saveDataToFiles();
+            postEarnings(order);
+            publish(DataChangeEvent.orderAssigned(order));
+        }
+        return true;
+    }
+
+    /** Applies one change from the server's event feed to the local copy and republishes it. */
+    synchronized void applyRemoteEvent(FoodBikeClient.RemoteEvent event) {
+        Order snapshot = event.getOrder();
+        Order existing = orders.get(snapshot.getOrderId());
+        if (existing == null) {
+            putOrder(snapshot);
+            postEarnings(snapshot);
+            publish(DataChangeEvent.orderCreated(snapshot));
+            return;
+        }
+        Order.OrderStatus before = existing.getStatus();
+        existing.copyStateFrom(snapshot);
+        indexLastChange(existing);
+        postEarnings(existing);
+        switch (event.getType()) {
+            case ORDER_CREATED -> publish(DataChangeEvent.orderCreated(existing));
+            case ORDER_ASSIGNED -> publish(DataChangeEvent.orderAssigned(existing));
+            default -> publish(DataChangeEvent.orderStatusChanged(existing,
+                    event.getPreviousStatus() != null ? event.getPreviousStatus() : before));
+        }
+    }
+
+    /** Reconciles the local copy with a full order list after (re)connecting to the server. */
+    synchronized void applyRemoteOrders(Collection<Order> snapshots) {
+        for (Order snapshot : snapshots) {
+            Order existing = orders.get(snapshot.getOrderId());
+            if (existing == null) {
+                putOrder(snapshot);
+                postEarnings(snapshot);
+                publish(DataChangeEvent.orderCreated(snapshot));
+                continue;
+            }
+            Order.OrderStatus before = existing.getStatus();
+            boolean reassigned = !Objects.equals(existing.getBikerId(), snapshot.getBikerId());
+            existing.copyStateFrom(snapshot);
+            indexLastChange(existing);
+            postEarnings(existing);
+            if (before != existing.getStatus()) {
+                publish(DataChangeEvent.orderStatusChanged(existing, before));
+            } else if (reassigned) {
+                publish(DataChangeEvent.orderAssigned(existing));
+            }
+        }
+    }
+
+    public synchronized void autoCancelExpiredOrders(Collection<Order> candidates) {
+        boolean hasAutoCancelled = false;
+        for (Order order : candidates) {
+            if (order.shouldAutoCancelled()) {
+                hasAutoCancelled |= orderStateMachine.transition(order, Order.OrderStatus.AUTO_CANCELLED);
+            }
+        }
+        if (hasAutoCancelled) {
+            saveDataToFiles();
+        }
+    }
+
+    public synchronized Order getOrder(String orderId) {
+        return orders.get(orderId);
+    }
+
+    /** The user's orders, newest first. */
+    public synchronized List<Order> getUserOrders(String userId) {
+        return new ArrayList<>(ordersByUser.getOrDefault(userId, Collections.emptyNavigableSet()));
+    }
+
+    /**
+     * Returns up to {@code limit} of the user's orders in {@link Order#NEWEST_FIRST} order, starting
+     * after {@code after} (or at the newest order when it is null). Paging from the last order seen
+     * rather than by offset keeps later pages stable while new orders arrive at the top.
+     */
+    public synchronized List<Order> getUserOrdersPage(String userId, Order after, int limit) {
+        NavigableSet<Order> userOrders = ordersByUser.getOrDefault(userId, Collections.emptyNavigableSet());
+        List<Order> page = new ArrayList<>(limit);
+        for (Order order : after != null ? userOrders.tailSet(after, false) : userOrders) {
+            if (page.size() == limit) {
+                break;
             }
+            page.add(order);
         }
-        return restaurantOrders;
+        return page;
+    }
+
+    /** The district of the user's most recent order, taken as where they live; null if they have not ordered. */
+    public synchronized String getHomeDistrict(String userId) {
+        NavigableSet<Order> userOrders = ordersByUser.get(userId);
+        return userOrders != null ? userOrders.first().getDistrict() : null;
     }
 
-    public List<Order> getAllOrders() {
-        return new ArrayList<>(orders.values());
+    /** The restaurant's orders, newest first. */
+    public synchronized List<Order> getRestaurantOrders(String restaurantId) {
+        return new ArrayList<>(ordersByRestaurant.getOrDefault(restaurantId, Collections.emptyNavigableSet()));
     }
 
-    public void submitApplication(RestaurantApplication application) {
+    /** Every order, newest first. */
+    public synchronized List<Order> getAllOrders() {
+        return new ArrayList<>(ordersByTime);
+    }
+
+    private void putOrder(Order order) {
+        Order previous = orders.put(order.getOrderId(), order);
+        if (previous != null && previous != order) {
+            ordersByTime.remove(previous);
+            removeFromGroup(ordersByUser, previous.getUserId(), previous);
+            removeFromGroup(ordersByRestaurant, previous.getRestaurantId(), previous);
+        }
+        indexOrder(order);
+    }
+
+    private void indexOrder(Order order) {
+        ordersByTime.add(order);
+        ordersByUser.computeIfAbsent(order.getUserId(), k -> new TreeSet<>(Order.NEWEST_FIRST)).add(order);
+        ordersByRestaurant.computeIfAbsent(order.getRestaurantId(), k -> new TreeSet<>(Order.NEWEST_FIRST)).add(order);
+        indexLastChange(order);
+    }
+
+    /** Refiles the order under its current last-change time; call after its status or biker changes. */
+    private void indexLastChange(Order order) {
+        ChangeKey key = new ChangeKey(order.getLastChangedAtMillis(), order.getOrderId(), order);
+        ChangeKey previous = lastChangeKeys.put(order.getOrderId(), key);
+        if (previous != null) {
+            ordersByLastChange.remove(previous);
+        }
+        ordersByLastChange.add(key);
+    }
+    private static <T> void removeFromGroup(Map<String, NavigableSet<T>> groups, String key, T value) {
+        NavigableSet<T> group = groups.get(key);
+        if (group != null && group.remove(value) && group.isEmpty()) {
+            groups.remove(key);
+        }
+    }
+
+    private synchronized void rebuildIndexes() {
+        ordersByTime.clear();
+        ordersByUser.clear();
+        ordersByRestaurant.clear();
+        ordersByLastChange.clear();
+        lastChangeKeys.clear();
+        for (Order order : orders.values()) {
+            indexOrder(order);
+        }
+        adminActionsByTime.clear();
+        adminActionsByTime.addAll(adminActions.values());
+        reviewsByRestaurant.clear();
+        reviewsByTime.clear();
+        ratingTotals.clear();
+        for (Review review : reviews.values()) {
+            indexReview(review);
+        }
+    }
+
+    /** @return false if applications cannot be changed here (see {@link #isRemote()}) */
+    public boolean submitApplication(RestaurantApplication application) {
+        if (refusedInRemoteMode("submit an application")) {
+            return false;
+        }
         applications.put(application.getApplicationId(), application);
         saveDataToFiles();
+        publish(DataChangeEvent.applicationSubmitted(application));
+        return true;
     }
 
     public List<RestaurantApplication> getPendingApplications() {
@@ -536,32 +1063,173 @@ public class DatabaseService {
 
     public void updateApplicationStatus(String applicationId, RestaurantApplication.ApplicationStatus status, String message) {
         RestaurantApplication app = applications.get(applicationId);
-        if (app != null) {
+        if (app != null && !refusedInRemoteMode("decide application " + applicationId)) {
             app.setStatus(status);
             app.setAdminMessage(message);
             saveDataToFiles();
+            publish(DataChangeEvent.applicationDecided(app));
         }
     }
     
     public void logAdminAction(AdminAction action) {
-        adminActions.put(action.getActionId(), action);
+        synchronized (this) {
+            adminActions.put(action.getActionId(), action);
+            adminActionsByTime.add(action);
+        }
         saveDataToFiles();
+        postAdminFee(action);
+        publish(DataChangeEvent.adminActionLogged(action));
+    }
+
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    /**
+     * Pays out {@code amountMinor} from a ledger account, e.g. {@link Ledger#bikerAccount}.
+     *
+     * @return false if the account's balance is lower than the amount
+     */
+    public boolean withdraw(String account, long amountMinor) {
+        if (refusedInRemoteMode("withdraw from " + account)) {
+            return false;
+        }
+        return ledger.withdraw(account, IdGenerator.getInstance().nextId("WDR"), System.currentTimeMillis(), amountMinor);
+    }
+
+    private void openLedger() {
+        try {
+            if (remote != null) {
+                // Balances are worked out afresh from the server's orders on every start and never
+                // written to this machine's ledger.dat, which only its own orders may pay into
+                File scratch = File.createTempFile("foodbike-ledger", ".dat");
+                scratch.deleteOnExit();
+                ledger = new Ledger(scratch);
+            } else {
+                ledger = new Ledger(new File(dataDirectory, LEDGER_FILE));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the ledger in " + dataDirectory, e);
+        }
+        if (ledger.isEmpty()) {
+            // First run with a ledger: pay out what the existing orders and actions already earned
+            ledger.beginBatch();
+            // A remote client's orders are posted as they arrive from the server, not its local ones
+            if (remote == null) {
+                for (Order order : orders.values()) {
+                    postEarnings(order);
+                }
+            }
+            for (AdminAction action : adminActions.values()) {
+                postAdminFee(action);
+            }
+            ledger.endBatch();
+        }
+    }
+
+    /**
+     * Posts whatever {@code order} has earned so far. Called on every change to an order; the
+     * ledger ignores postings it already has, so each fee is paid exactly once.
+     */
+    private void postEarnings(Order order) {
+        if (ledger == null) {
+            return;
+        }
+        String orderId = order.getOrderId();
+        boolean delivered = order.getStatus() == Order.OrderStatus.DELIVERED;
+        long deliveredAt = order.getStatusEnteredAtMillis(Order.OrderStatus.DELIVERED);
+        if (deliveredAt == 0) {
+            deliveredAt = System.currentTimeMillis();
+        }
+        if (delivered && order.getBikerId() != null) {
+            ledger.post(LedgerEntry.Kind.DELIVERY_FEE, orderId, deliveredAt,
+                    Ledger.DELIVERY_FEES, Ledger.bikerAccount(order.getBikerId()), DELIVERY_FEE_MINOR);
+        }
+        String payment = order.getPaymentMethod();
+        boolean prepaid = "Bkash".equals(payment) || "Nagad".equals(payment);
+        boolean cashCollected = "Cash on Delivery".equals(payment) && delivered;
+        if (prepaid || cashCollected) {
+            long paidAt = prepaid ? order.getStatusEnteredAtMillis(Order.OrderStatus.PENDING) : deliveredAt;
+            ledger.post(LedgerEntry.Kind.SALE, orderId, paidAt, Ledger.CUSTOMER_PAYMENTS,
+                    Ledger.restaurantAccount(order.getRestaurantId()), order.getTotalMinor());
+        }
+    }
+
+    private void postAdminFee(AdminAction action) {
+        if (ledger == null) {
+            return;
+        }
+        long timestamp = action.getTimestampMillis() != 0 ? action.getTimestampMillis() : System.currentTimeMillis();
+        ledger.post(LedgerEntry.Kind.ADMIN_FEE, action.getActionId(), timestamp,
+                Ledger.ADMIN_FEES, Ledger.ADMIN_ACCOUNT, ADMIN_ACTION_FEE_MINOR);
     }
     
-    public List<AdminAction> getAllAdminActions() {
-        List<AdminAction> actions = new ArrayList<>(adminActions.values());
-        actions.sort((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()));
-        return actions;
+    /**
+     * Up to {@code limit} orders created after the given order, oldest first, for exporting in
+     * pages without copying every order. A cursor of (0, "") starts from the beginning.
+     */
+    public synchronized List<Order> getOrdersCreatedAfter(long createdAtMillis, String orderId, int limit) {
+        Order cursor = new Order(orderId, null, null);
+        cursor.setCreatedAtMillis(createdAtMillis);
+        return pageAfter(ordersByTime, cursor, limit);
+    }
+
+    /**
+     * Up to {@code limit} orders whose status or biker last changed after the given time (ties
+     * broken by order ID), least recently changed first, so an export can pick up orders that
+     * changed since its last run as well as new ones. A cursor of (0, "") starts from the beginning.
+     */
+    public synchronized List<Order> getOrdersChangedAfter(long changedAtMillis, String orderId, int limit) {
+        List<Order> page = new ArrayList<>(Math.min(limit, 1024));
+        for (ChangeKey key : ordersByLastChange.tailSet(new ChangeKey(changedAtMillis, orderId, null), false)) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(key.order);
+        }
+        return page;
+    }
+
+    /** Like {@link #getOrdersCreatedAfter}, for reviews. */
+    public synchronized List<Review> getReviewsCreatedAfter(long createdAtMillis, String reviewId, int limit) {
+        Review cursor = new Review(reviewId, null, null, null, 0, null);
+        cursor.setCreatedAtMillis(createdAtMillis);
+        return pageAfter(reviewsByTime, cursor, limit);
+    }
+
+    /** Like {@link #getOrdersCreatedAfter}, for admin actions. */
+    public synchronized List<AdminAction> getAdminActionsAfter(long timestampMillis, String actionId, int limit) {
+        AdminAction cursor = new AdminAction(null, null, null, null);
+        cursor.setActionId(actionId);
+        cursor.setTimestampMillis(timestampMillis);
+        return pageAfter(adminActionsByTime, cursor, limit);
+    }
+
+    // The sets are newest first, so everything after the cursor is its head set, read backwards
+    private static <T> List<T> pageAfter(NavigableSet<T> newestFirst, T cursor, int limit) {
+        List<T> page = new ArrayList<>(Math.min(limit, 1024));
+        for (T item : newestFirst.headSet(cursor, false).descendingSet()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(item);
+        }
+        return page;
+    }
+
+    /** Every admin action, newest first. */
+    public synchronized List<AdminAction> getAllAdminActions() {
+        return new ArrayList<>(adminActionsByTime);
     }
     
-    public List<AdminAction> getAdminActionsByType(AdminAction.ActionType type) {
+    /** Admin actions of one type, newest first. */
+    public synchronized List<AdminAction> getAdminActionsByType(AdminAction.ActionType type) {
         List<AdminAction> filteredActions = new ArrayList<>();
-        for (AdminAction action : adminActions.values()) {
+        for (AdminAction action : adminActionsByTime) {
             if (action.getActionType() == type) {
                 filteredActions.add(action);
             }
         }
-        filteredActions.sort((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()));
         return filteredActions;
     }
     
@@ -570,20 +1238,42 @@ public class DatabaseService {
     }
 
     public void addReview(Review review) {
-        reviews.put(review.getReviewId(), review);
+        synchronized (this) {
+            Review previous = reviews.put(review.getReviewId(), review);
+            if (previous != null) {
+                removeFromGroup(reviewsByRestaurant, previous.getRestaurantId(), previous);
+                reviewsByTime.remove(previous);
+                int[] totals = ratingTotals.get(previous.getRestaurantId());
+                totals[0] -= previous.getRating();
+                totals[1]--;
+            }
+            indexReview(review);
+        }
         updateRestaurantRating(review.getRestaurantId());
         saveDataToFiles();
+        publish(DataChangeEvent.reviewAdded(review));
     }
 
-    public List<Review> getRestaurantReviews(String restaurantId) {
-        List<Review> restaurantReviews = new ArrayList<>();
+    /** The restaurant's reviews, newest first. */
+    public synchronized List<Review> getRestaurantReviews(String restaurantId) {
+        return new ArrayList<>(reviewsByRestaurant.getOrDefault(restaurantId, Collections.emptyNavigableSet()));
+    }
+
+    private void indexReview(Review review) {
+        reviewsByTime.add(review);
+        reviewsByRestaurant.computeIfAbsent(review.getRestaurantId(), k -> new TreeSet<>(Review.NEWEST_FIRST)).add(review);
+        int[] totals = ratingTotals.computeIfAbsent(review.getRestaurantId(), k -> new int[2]);
+        totals[0] += review.getRating();
+        totals[1]++;
+    }
+    public Set<String> getReviewedOrderIds(String userId) {
+        Set<String> orderIds = new HashSet<>();
         for (Review review : reviews.values()) {
-            if (review.getRestaurantId().equals(restaurantId)) {
-                restaurantReviews.add(review);
+            if (review.getUserId().equals(userId)) {
+                orderIds.add(review.getOrderId());
             }
         }
-        restaurantReviews.sort((r1, r2) -> r2.getCreatedAt().compareTo(r1.getCreatedAt()));
-        return restaurantReviews;
+        return orderIds;
     }
 
     public boolean hasUserReviewedOrder(String userId, String orderId) {
@@ -595,18 +1285,36 @@ public class DatabaseService {
         return false;
     }
 
-    private void updateRestaurantRating(String restaurantId) {
+    private synchronized void updateRestaurantRating(String restaurantId) {
         Restaurant restaurant = restaurants.get(restaurantId);
-        if (restaurant != null) {
-            List<Review> restaurantReviews = getRestaurantReviews(restaurantId);
-            if (!restaurantReviews.isEmpty()) {
-                double totalRating = 0;
-                for (Review review : restaurantReviews) {
-                    totalRating += review.getRating();
-                }
-                double averageRating = totalRating / restaurantReviews.size();
-                restaurant.setRating(Math.round(averageRating * 10.0) / 10.0);
-            }
+        int[] totals = ratingTotals.get(restaurantId);
+        if (restaurant != null && totals != null && totals[1] > 0) {
+            double averageRating = (double) totals[0] / totals[1];
+            restaurant.setRating(Math.round(averageRating * 10.0) / 10.0);
+        }
+    }
+
+    /** Number of reviews the restaurant has. */
+    public synchronized int getReviewCount(String restaurantId) {
+        int[] totals = ratingTotals.get(restaurantId);
+        return totals != null ? totals[1] : 0;
+    }
+
+    private static class ChangeKey implements Comparable<ChangeKey> {
+        private final long changedAtMillis;
+        private final String orderId;
+        private final Order order;
+
+        ChangeKey(long changedAtMillis, String orderId, Order order) {
+            this.changedAtMillis = changedAtMillis;
+            this.orderId = orderId;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(ChangeKey other) {
+            int byTime = Long.compare(changedAtMillis, other.changedAtMillis);
+            return byTime != 0 ? byTime : orderId.compareTo(other.orderId);
         }
     }
 }
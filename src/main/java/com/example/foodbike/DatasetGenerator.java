@@ -0,0 +1,545 @@
+package com.example.foodbike;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeded synthetic dataset for scale testing, written in the same .dat format the application
+ * loads. Restaurant and customer popularity follow Zipf distributions, so a few restaurants take
+ * most orders the way real ones do. The same seed, sizes and anchor time always produce the same
+ * data.
+ *
+ * <pre>
+ * java -cp target/classes com.example.foodbike.DatasetGenerator --out data-100k --orders 100000
+ *     [--users N] [--restaurants-per-district N] [--bikers N] [--entrepreneurs N]
+ *     [--days N] [--active-fraction F] [--seed N] [--anchor 2026-01-01T12:00]
+ * </pre>
+ *
+ * Every generated account uses the password {@value #PASSWORD}; the sample accounts admin1, user1
+ * and entrepreneur1 are kept so the UI can be explored straight away.
+ */
+public class DatasetGenerator {
+    public static final String PASSWORD = "Password@123";
+    private static final long ID_NODE = 1023;
+    private static final long MINUTE = 60_000L;
+
+    private static final String[] NAME_STEMS = {
+            "Khabar", "Bhoj", "Ruchi", "Swaad", "Spice", "Royal", "Golden", "Heritage", "Mughal", "Nawabi",
+            "Biryani", "Kebab", "Curry", "Tandoori", "Machher", "Murgh", "Mishti", "Cha", "Pizza", "Burger",
+            "Noodle", "Green", "Shahi", "Desi", "Bawarchi", "Dawat", "Mehfil", "Sultan's", "Gram", "Nodir"
+    };
+    private static final String[] NAME_SUFFIXES = {
+            "Ghar", "Bari", "Kitchen", "House", "Corner", "Palace", "Adda", "Lounge", "Cafe", "Express", "Dhaba", "Point"
+    };
+    private static final String[] AREAS = {
+            "Shadar Road", "Station Road", "College Road", "Market Area", "City Center", "Sadar",
+            "Pourashava", "Bypass Road", "Main Road", "Upazila Road"
+    };
+    // name, description, minimum price, maximum price
+    private static final Object[][] DISHES = {
+            {"Kacchi Biryani", "Mutton biryani with aloo", 280, 480}, {"Chicken Biryani", "Fragrant rice and chicken", 200, 350},
+            {"Beef Tehari", "Spiced beef and rice", 160, 260}, {"Morog Polao", "Chicken pulao", 220, 380},
+            {"Beef Kala Bhuna", "Slow-cooked beef", 250, 420}, {"Chicken Roast", "Festive roast chicken", 180, 300},
+            {"Ilish Bhaja", "Fried hilsa", 300, 650}, {"Rui Macher Jhol", "Rohu fish curry", 180, 320},
+            {"Chingri Malai Curry", "Prawns in coconut gravy", 350, 600}, {"Dal", "Yellow lentils", 40, 90},
+            {"Bhuna Khichuri", "Rice and lentils", 120, 220}, {"Paratha", "Flaky flatbread", 20, 45},
+            {"Naan", "Tandoor bread", 30, 70}, {"Chicken Tikka", "Grilled chicken", 220, 380},
+            {"Shami Kebab", "Minced meat patties", 60, 120}, {"Beef Burger", "Grilled beef patty", 180, 350},
+            {"Chicken Pizza", "Medium, 10 inch", 450, 900}, {"Chowmein", "Stir-fried noodles", 150, 280},
+            {"Thai Soup", "Clear or thick", 180, 320}, {"Fuchka", "Crisp shells with tamarind", 50, 100},
+            {"Chotpoti", "Spiced chickpeas", 50, 100}, {"Singara", "Potato pastry", 10, 25},
+            {"Rosogolla", "Syrupy cheese balls", 20, 50}, {"Mishti Doi", "Sweet yoghurt", 60, 150},
+            {"Falooda", "Layered dessert drink", 120, 220}, {"Borhani", "Spiced yoghurt drink", 40, 90},
+            {"Lassi", "Sweet or salted", 60, 120}, {"Milk Tea", "Doodh cha", 15, 40},
+            {"Cold Coffee", "With ice cream", 120, 250}, {"Fresh Lime Soda", "Sweet or salted", 50, 100}
+    };
+    private static final String[] REVIEW_COMMENTS = {
+            "", "Great food, will order again.", "Delivery was quick.", "Portion could be bigger.",
+            "Tasted amazing!", "A bit too spicy for me.", "Food arrived cold.", "Best biryani in town.",
+            "Good value for money.", "Packaging was excellent."
+    };
+    private static final String[] PAYMENT_METHODS = {"Bkash", "Nagad", "Cash on Delivery"};
+
+    private long seed;
+    private int orderCount = 10_000;
+    private int userCount = -1;
+    private int restaurantsPerDistrict = 4;
+    private int bikerCount = -1;
+    private int entrepreneurCount = -1;
+    private int days = 180;
+    private double activeOrderFraction = 0.02;
+    private LocalDateTime anchor = LocalDateTime.now();
+
+    private final Map<String, User> users = new LinkedHashMap<>();
+    private final Map<String, Restaurant> restaurants = new LinkedHashMap<>();
+    private final Map<String, Order> orders = new LinkedHashMap<>();
+    private final Map<String, RestaurantApplication> applications = new LinkedHashMap<>();
+    private final Map<String, AdminAction> adminActions = new LinkedHashMap<>();
+    private final Map<String, Review> reviews = new LinkedHashMap<>();
+
+    public DatasetGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        File out = new File("generated-data");
+        DatasetGenerator generator = new DatasetGenerator(42);
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                exitWithUsage("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--out" -> out = new File(value);
+                    case "--orders" -> generator.setOrderCount(Integer.parseInt(value));
+                    case "--users" -> generator.setUserCount(Integer.parseInt(value));
+                    case "--restaurants-per-district" -> generator.setRestaurantsPerDistrict(Integer.parseInt(value));
+                    case "--bikers" -> generator.setBikerCount(Integer.parseInt(value));
+                    case "--entrepreneurs" -> generator.setEntrepreneurCount(Integer.parseInt(value));
+                    case "--days" -> generator.setDays(Integer.parseInt(value));
+                    case "--active-fraction" -> generator.setActiveOrderFraction(Double.parseDouble(value));
+                    case "--seed" -> generator.setSeed(Long.parseLong(value));
+                    case "--anchor" -> generator.setAnchor(LocalDateTime.parse(value));
+                    default -> exitWithUsage("Unknown option " + option);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                exitWithUsage("Invalid value for " + option + ": " + value);
+            }
+        }
+        long start = System.currentTimeMillis();
+        generator.generate();
+        generator.writeTo(out);
+        System.out.println("Wrote " + generator.users.size() + " users, " + generator.restaurants.size() + " restaurants, "
+                + generator.orders.size() + " orders, " + generator.reviews.size() + " reviews, "
+                + generator.applications.size() + " applications and " + generator.adminActions.size()
+                + " admin actions to " + out.getAbsolutePath() + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static void exitWithUsage(String problem) {
+        System.out.println(problem);
+        System.out.println("Usage: DatasetGenerator [--out DIR] [--orders N] [--users N] [--restaurants-per-district N]"
+                + " [--bikers N] [--entrepreneurs N] [--days N] [--active-fraction F] [--seed N] [--anchor YYYY-MM-DDTHH:MM]");
+        System.exit(1);
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setOrderCount(int orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public void setUserCount(int userCount) {
+        this.userCount = userCount;
+    }
+
+    public void setRestaurantsPerDistrict(int restaurantsPerDistrict) {
+        // DatabaseService re-seeds its default restaurants if any district has fewer than four
+        if (restaurantsPerDistrict < 4) {
+            throw new IllegalArgumentException("Need at least 4 restaurants per district");
+        }
+        this.restaurantsPerDistrict = restaurantsPerDistrict;
+    }
+
+    public void setBikerCount(int bikerCount) {
+        this.bikerCount = bikerCount;
+    }
+
+    public void setEntrepreneurCount(int entrepreneurCount) {
+        this.entrepreneurCount = entrepreneurCount;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    /** Share of orders placed within the last hour and still in progress (PENDING to READY). */
+    public void setActiveOrderFraction(double activeOrderFraction) {
+        this.activeOrderFraction = activeOrderFraction;
+    }
+
+    /** Point in time the generated history ends at; fix it to get byte-identical output. */
+    public void setAnchor(LocalDateTime anchor) {
+        this.anchor = anchor;
+    }
+
+    public Map<String, User> getUsers() {
+        return users;
+    }
+
+    public Map<String, Restaurant> getRestaurants() {
+        return restaurants;
+    }
+
+    public Map<String, Order> getOrders() {
+        return orders;
+    }
+
+    public Map<String, Review> getReviews() {
+        return reviews;
+    }
+
+    public void generate() {
+        Random random = new Random(seed);
+        long anchorMillis = Timestamps.toMillis(anchor);
+
+        List<String> customers = generateUsers(random);
+        List<String> bikers = generateBikers();
+        List<Restaurant> restaurantList = generateRestaurants(random);
+        generateEntrepreneurs(random, restaurantList, anchorMillis);
+        generateOrders(random, restaurantList, customers, bikers, anchorMillis);
+        generateReviews(random);
+        generateAdminActions(random, restaurantList, anchorMillis);
+    }
+
+    public void writeTo(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        write(new File(directory, DatabaseService.USERS_FILE), new HashMap<>(users));
+        write(new File(directory, DatabaseService.RESTAURANTS_FILE), new HashMap<>(restaurants));
+        write(new File(directory, DatabaseService.ORDERS_FILE), new HashMap<>(orders));
+        write(new File(directory, DatabaseService.APPLICATIONS_FILE), new HashMap<>(applications));
+        write(new File(directory, DatabaseService.ADMIN_ACTIONS_FILE), new HashMap<>(adminActions));
+        write(new File(directory, DatabaseService.REVIEWS_FILE), new HashMap<>(reviews));
+    }
+
+    private static void write(File file, Object value) throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
+            oos.writeObject(value);
+        }
+    }
+
+    private List<String> generateUsers(Random random) {
+        users.put("admin1", new User("admin1", "Admin@123", "admin@foodbike.com", "01234567890", User.UserType.ADMIN));
+        users.put("user1", new User("user1", "User@123", "user@foodbike.com", "01987654321", User.UserType.USER));
+        users.put("entrepreneur1", new User("entrepreneur1", "Entrepreneur@123", "ent@foodbike.com", "01111111111", User.UserType.ENTREPRENEUR));
+        for (int i = 1; i <= 4; i++) {
+            addUser(String.format("admin_%02d", i), User.UserType.ADMIN, random);
+        }
+
+        int count = userCount >= 0 ? userCount : Math.max(100, orderCount / 20);
+        List<String> customers = new ArrayList<>(count + 1);
+        customers.add("user1");
+        for (int i = 1; i <= count; i++) {
+            customers.add(addUser(String.format("user_%06d", i), User.UserType.USER, random));
+        }
+        return customers;
+    }
+
+    private List<String> generateBikers() {
+        int count = bikerCount >= 0 ? bikerCount : Math.max(10, orderCount / 500);
+        List<String> bikers = new ArrayList<>(count);
+        Random random = new Random(seed ^ 0xB1CEL);
+        for (int i = 1; i <= count; i++) {
+            bikers.add(addUser(String.format("biker_%04d", i), User.UserType.BIKER, random));
+        }
+        return bikers;
+    }
+
+    private String addUser(String username, User.UserType type, Random random) {
+        String phone = "01" + (3 + random.nextInt(7)) + String.format("%08d", random.nextInt(100_000_000));
+        users.put(username, new User(username, PASSWORD, username + "@example.com", phone, type));
+        return username;
+    }
+
+    private List<Restaurant> generateRestaurants(Random random) {
+        Map<String, List<String>> divisionDistricts = DatabaseService.createDivisionDistrictsMap();
+        List<String> divisions = new ArrayList<>(divisionDistricts.keySet());
+        Collections.sort(divisions);
+
+        List<Restaurant> list = new ArrayList<>();
+        for (String division : divisions) {
+            String prefix = DatabaseService.divisionPrefix(division);
+            int sequence = 0;
+            Map<String, Integer> namesUsed = new HashMap<>();
+            for (String district : divisionDistricts.get(division)) {
+                for (int j = 0; j < restaurantsPerDistrict; j++) {
+                    String id = String.format("%s%03d", prefix, ++sequence);
+                    String name = NAME_STEMS[random.nextInt(NAME_STEMS.length)] + " "
+                            + NAME_SUFFIXES[random.nextInt(NAME_SUFFIXES.length)];
+                    int used = namesUsed.merge(name, 1, Integer::sum);
+                    if (used > 1) {
+                        name = name + " " + used;
+                    }
+                    String address = AREAS[random.nextInt(AREAS.length)] + ", " + district;
+                    Restaurant restaurant = new Restaurant(id, name, division, district, address);
+                    restaurant.setRating(Math.round((2.8 + random.nextDouble() * 2.2) * 10) / 10.0);
+
+                    // Mostly small menus with the occasional long one
+                    int menuSize = 3 + (int) Math.min(22, Math.abs(random.nextGaussian()) * 7);
+                    int[] dishes = shuffledIndexes(DISHES.length, random);
+                    List<MenuItem> menu = new ArrayList<>(menuSize);
+                    for (int k = 0; k < menuSize; k++) {
+                        Object[] dish = DISHES[dishes[k]];
+                        int min = (Integer) dish[2];
+                        int max = (Integer) dish[3];
+                        long priceMinor = Math.round((min + random.nextInt(max - min + 1)) / 5.0) * 5 * Money.MINOR_PER_MAJOR;
+                        menu.add(new MenuItem("item_" + id + "_" + (k + 1), (String) dish[0], (String) dish[1], priceMinor,
+                                random.nextInt(20) != 0));
+                    }
+                    restaurant.addMenuItems(menu);
+                    restaurants.put(id, restaurant);
+                    list.add(restaurant);
+                }
+            }
+        }
+        return list;
+    }
+
+    /** Each entrepreneur owns one restaurant through an approved application; a few are still waiting. */
+    private void generateEntrepreneurs(Random random, List<Restaurant> restaurantList, long anchorMillis) {
+        int count = entrepreneurCount >= 0 ? entrepreneurCount : Math.max(8, restaurantList.size() / 4);
+        int[] owned = shuffledIndexes(restaurantList.size(), random);
+        int approved = Math.min(count - count / 10, restaurantList.size());
+        long historyMillis = days * 24L * 60 * MINUTE;
+
+        for (int i = 1; i <= count; i++) {
+            String username = addUser(String.format("entrepreneur_%04d", i), User.UserType.ENTREPRENEUR, random);
+            long appliedAt = anchorMillis - historyMillis - random.nextInt(90 * 24 * 60) * MINUTE;
+            RestaurantApplication app;
+            if (i <= approved) {
+                Restaurant restaurant = restaurantList.get(owned[i - 1]);
+                app = new RestaurantApplication(uniqueId("APP", appliedAt, applications),
+                        username, restaurant.getName(), restaurant.getDivision(), restaurant.getDistrict(),
+                        restaurant.getAddress(), restaurant.getRating());
+                for (MenuItem item : restaurant.getMenu()) {
+                    app.addMenuItem(item);
+                }
+                app.setStatus(RestaurantApplication.ApplicationStatus.APPROVED);
+                app.setAdminMessage("Welcome to FoodBike!");
+                app.setMessageViewed(true);
+            } else {
+                Restaurant template = restaurantList.get(random.nextInt(restaurantList.size()));
+                appliedAt = anchorMillis - random.nextInt(7 * 24 * 60) * MINUTE;
+                app = new RestaurantApplication(uniqueId("APP", appliedAt, applications),
+                        username, "New " + template.getName(), template.getDivision(), template.getDistrict(),
+                        template.getAddress(), 4.0);
+                for (MenuItem item : template.getMenu()) {
+                    app.addMenuItem(new MenuItem(item.getId() + "_new", item.getName(), item.getDescription(), item.getPriceMinor()));
+                }
+            }
+            app.setAppliedAtMillis(appliedAt);
+            applications.put(app.getApplicationId(), app);
+        }
+    }
+
+    private void generateOrders(Random random, List<Restaurant> restaurantList, List<String> customers,
+                                List<String> bikers, long anchorMillis) {
+        Zipf restaurantPopularity = new Zipf(restaurantList.size(), 1.07, random);
+        Zipf customerActivity = new Zipf(customers.size(), 0.8, random);
+        long historyMillis = days * 24L * 60 * MINUTE;
+
+        List<Order> generated = new ArrayList<>(orderCount);
+        long[] createdMillis = new long[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            boolean active = random.nextDouble() < activeOrderFraction;
+            createdMillis[i] = active
+                    ? anchorMillis - random.nextInt(60) * MINUTE - random.nextInt(60_000)
+                    : anchorMillis - 60 * MINUTE - (long) (random.nextDouble() * historyMillis);
+        }
+        Arrays.sort(createdMillis);
+
+        // Same scheme as IdGenerator: a per-millisecond sequence that borrows the next millisecond when full
+        long lastMillis = Long.MIN_VALUE;
+        int sequence = 0;
+        for (int i = 0; i < orderCount; i++) {
+            long created = createdMillis[i];
+            long idMillis = Math.max(created, lastMillis);
+            if (idMillis == lastMillis && ++sequence > 4095) {
+                idMillis++;
+                sequence = 0;
+            } else if (idMillis != lastMillis) {
+                sequence = 0;
+            }
+            lastMillis = idMillis;
+            String orderId = IdGenerator.format("ORD", IdGenerator.compose(idMillis, ID_NODE, sequence));
+
+            Restaurant restaurant = restaurantList.get(restaurantPopularity.next());
+            Order order = new Order(orderId, customers.get(customerActivity.next()), restaurant.getId());
+            order.setDistrict(restaurant.getDistrict());
+            order.setPaymentMethod(PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+            order.setMenuVersion(restaurant.getCurrentMenu().getVersion());
+            int itemCount = 1 + (int) Math.min(7, Math.abs(random.nextGaussian()) * 2);
+            for (int k = 0; k < itemCount; k++) {
+                order.addItem(restaurant.getMenu().get(random.nextInt(restaurant.getMenu().size())));
+            }
+            order.setCreatedAtMillis(created);
+            applyLifecycle(order, created, anchorMillis, random, bikers);
+            generated.add(order);
+        }
+        for (Order order : generated) {
+            orders.put(order.getOrderId(), order);
+        }
+    }
+
+    private void applyLifecycle(Order order, long created, long anchorMillis, Random random, List<String> bikers) {
+        long[] enteredAt = new long[Order.OrderStatus.values().length];
+        enteredAt[Order.OrderStatus.PENDING.ordinal()] = created;
+        Order.OrderStatus finalStatus;
+        boolean recent = anchorMillis - created < 60 * MINUTE;
+
+        int roll = random.nextInt(100);
+        if (recent) {
+            finalStatus = roll < 30 ? Order.OrderStatus.PENDING
+                    : roll < 55 ? Order.OrderStatus.CONFIRMED
+                    : roll < 75 ? Order.OrderStatus.PREPARING
+                    : Order.OrderStatus.READY;
+        } else {
+            finalStatus = roll < 82 ? Order.OrderStatus.DELIVERED
+                    : roll < 91 ? Order.OrderStatus.CANCELLED
+                    : Order.OrderStatus.AUTO_CANCELLED;
+        }
+
+        long t = created;
+        if (finalStatus == Order.OrderStatus.CANCELLED) {
+            enteredAt[finalStatus.ordinal()] = t + (1 + random.nextInt(30)) * MINUTE;
+        } else if (finalStatus == Order.OrderStatus.AUTO_CANCELLED) {
+            enteredAt[finalStatus.ordinal()] = t + 60 * MINUTE;
+        } else if (finalStatus != Order.OrderStatus.PENDING) {
+            t += (1 + random.nextInt(15)) * MINUTE;
+            enteredAt[Order.OrderStatus.CONFIRMED.ordinal()] = t;
+            if (finalStatus != Order.OrderStatus.CONFIRMED && random.nextInt(3) != 0) {
+                t += (1 + random.nextInt(5)) * MINUTE;
+                enteredAt[Order.OrderStatus.PREPARING.ordinal()] = t;
+            }
+            if (finalStatus == Order.OrderStatus.READY || finalStatus == Order.OrderStatus.DELIVERED) {
+                t += (8 + random.nextInt(25)) * MINUTE;
+                enteredAt[Order.OrderStatus.READY.ordinal()] = t;
+                if (!bikers.isEmpty() && (finalStatus == Order.OrderStatus.DELIVERED || random.nextBoolean())) {
+                    long assignedAt = Math.min(t + (1 + random.nextInt(10)) * MINUTE, Math.max(created, anchorMillis - 1));
+                    order.restoreBiker(bikers.get(random.nextInt(bikers.size())), assignedAt);
+                }
+            }
+            if (finalStatus == Order.OrderStatus.DELIVERED) {
+                t += (10 + random.nextInt(40)) * MINUTE;
+                enteredAt[Order.OrderStatus.DELIVERED.ordinal()] = t;
+            }
+        }
+        for (int s = 0; s < enteredAt.length; s++) {
+            // Orders still in progress cannot have moved on after the anchor
+            enteredAt[s] = enteredAt[s] == 0 ? 0 : Math.min(enteredAt[s], Math.max(created, anchorMillis - 1));
+        }
+        order.restoreStatus(finalStatus, enteredAt);
+    }
+
+    private void generateReviews(Random random) {
+        for (Order order : orders.values()) {
+            if (order.getStatus() != Order.OrderStatus.DELIVERED || random.nextInt(4) != 0) {
+                continue;
+            }
+            Restaurant restaurant = restaurants.get(order.getRestaurantId());
+            long reviewedAt = order.getStatusEnteredAtMillis(Order.OrderStatus.DELIVERED) + (5 + random.nextInt(600)) * MINUTE;
+            int rating = (int) Math.max(1, Math.min(5, Math.round(restaurant.getRating() + random.nextGaussian() * 0.8)));
+            Review review = new Review(uniqueId("REV", reviewedAt, reviews),
+                    restaurant.getId(), order.getUserId(), order.getOrderId(), rating,
+                    REVIEW_COMMENTS[random.nextInt(REVIEW_COMMENTS.length)]);
+            review.setCreatedAtMillis(reviewedAt);
+            reviews.put(review.getReviewId(), review);
+        }
+    }
+
+    private void generateAdminActions(Random random, List<Restaurant> restaurantList, long anchorMillis) {
+        int sequence = 0;
+        for (RestaurantApplication app : applications.values()) {
+            if (app.getStatus() == RestaurantApplication.ApplicationStatus.APPROVED) {
+                long at = app.getAppliedAtMillis() + (1 + random.nextInt(48)) * 60 * MINUTE;
+                addAction(at, sequence++, AdminAction.ActionType.APPROVED_APPLICATION, app.getRestaurantName(),
+                        "Approved application from " + app.getEntrepreneurUsername());
+            }
+        }
+
+        AdminAction.ActionType[] routine = {
+                AdminAction.ActionType.EDITED_MENU, AdminAction.ActionType.ADDED_MENU_ITEM,
+                AdminAction.ActionType.EDITED_MENU_ITEM, AdminAction.ActionType.ADDED_RESTAURANT,
+                AdminAction.ActionType.REJECTED_APPLICATION
+        };
+        long historyMillis = days * 24L * 60 * MINUTE;
+        int count = Math.max(20, orderCount / 100);
+        for (int i = 0; i < count; i++) {
+            Restaurant restaurant = restaurantList.get(random.nextInt(restaurantList.size()));
+            AdminAction.ActionType type = routine[random.nextInt(routine.length)];
+            long at = anchorMillis - (long) (random.nextDouble() * historyMillis);
+            addAction(at, sequence++, type, restaurant.getName(), type.name().toLowerCase().replace('_', ' ')
+                    + " (" + restaurant.getId() + ")");
+        }
+    }
+
+    private void addAction(long at, int sequence, AdminAction.ActionType type, String target, String details) {
+        String[] admins = {"admin1", "admin_01", "admin_02", "admin_03", "admin_04"};
+        AdminAction action = new AdminAction(admins[sequence % admins.length], type, target, details);
+        action.setActionId(uniqueId("ACT", at, adminActions));
+        action.setTimestampMillis(at);
+        adminActions.put(action.getActionId(), action);
+    }
+
+    private static String uniqueId(String prefix, long at, Map<String, ?> existing) {
+        for (int sequence = 0; ; sequence++) {
+            String id = IdGenerator.format(prefix, IdGenerator.compose(at + sequence / 4096, ID_NODE, sequence));
+            if (!existing.containsKey(id)) {
+                return id;
+            }
+        }
+    }
+
+    private static int[] shuffledIndexes(int n, Random random) {
+        int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = tmp;
+        }
+        return indexes;
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1/(rank+1)^s. Ranks are shuffled onto
+     * indexes once, so the most popular restaurant is not simply the first one in the list.
+     */
+    private static class Zipf {
+        private final double[] cumulative;
+        private final int[] rankToIndex;
+        private final Random random;
+
+        Zipf(int n, double s, Random random) {
+            this.random = random;
+            this.cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1.0 / Math.pow(k + 1, s);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+            this.rankToIndex = shuffledIndexes(n, random);
+        }
+
+        int next() {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            return rankToIndex[Math.min(rank, cumulative.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.foodbike;
+
+import javafx.animation.PauseTransition;
+import javafx.concurrent.Task;
+import javafx.util.Duration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Search-as-you-type for a text field. {@link #submit} waits until the user has stopped typing for
+ * the debounce delay, then runs the search on a background thread and hands the result to the FX
+ * thread. Starting a search interrupts the one still running, and a superseded search's result is
+ * never delivered, so the view only shows the latest query. Use from the FX thread only.
+ */
+public class DebouncedSearch<R> {
+    public static final long DEFAULT_DELAY_MILLIS = 200;
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final PauseTransition pause;
+    private final Function<String, R> search;
+    private final Consumer<R> onResult;
+    private String pendingQuery;
+    private Task<R> running;
+
+    public DebouncedSearch(long delayMillis, Function<String, R> search, Consumer<R> onResult) {
+        this.search = search;
+        this.onResult = onResult;
+        this.pause = new PauseTransition(Duration.millis(delayMillis));
+        pause.setOnFinished(e -> start(pendingQuery));
+    }
+
+    /** Searches for {@code query} once the delay passes without another call. */
+    public void submit(String query) {
+        pendingQuery = query;
+        pause.playFromStart();
+    }
+
+    /** Searches straight away, e.g. when the user presses Enter or the Search button. */
+    public void submitNow(String query) {
+        pause.stop();
+        start(query);
+    }
+
+    /** Drops any pending or running search, e.g. when another filter replaces the results. */
+    public void cancel() {
+        pause.stop();
+        if (running != null) {
+            running.cancel();
+            running = null;
+        }
+    }
+
+    private void start(String query) {
+        if (running != null) {
+            running.cancel();
+        }
+        Task<R> task = new Task<>() {
+            @Override
+            protected R call() {
+                return search.apply(query);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (running == task) {
+                running = null;
+                onResult.accept(task.getValue());
+            }
+        });
+        task.setOnFailed(e -> {
+            if (running == task) {
+                running = null;
+            }
+            System.out.println("Search for \"" + query + "\" failed: " + task.getException().getMessage());
+        });
+        running = task;
+        EXECUTOR.execute(task);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.foodbike;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
@@ -14,14 +15,16 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 public class EntrepreneurController {
-    @FXML private TableView<Order> pendingOrdersTable;
-    @FXML private TableView<Order> confirmedOrdersTable;
+    @FXML private TableView<OrderRow> pendingOrdersTable;
+    @FXML private TableView<OrderRow> confirmedOrdersTable;
     @FXML private Label userLabel;
     @FXML private VBox restaurantInfoBox;
     @FXML private VBox applicationMessageBox;
@@ -32,6 +35,7 @@ public class EntrepreneurController {
     private User currentUser;
     private DatabaseService databaseService;
     private Restaurant myRestaurant;
+    private final DataChangeListener changeListener = event -> Platform.runLater(() -> applyChange(event));
 
     @FXML
     public void initialize() {
@@ -39,12 +43,15 @@ public class EntrepreneurController {
         setupOrderTables();
     }
 
-    public void setCurrentUser(User user) {
+    void setCurrentUser(User user, Stage stage) {
         this.currentUser = user;
         userLabel.setText("Welcome, " + user.getUsername());
         displayApplicationMessages();
         loadMyRestaurant();
         loadOrders();
+        databaseService.subscribe(changeListener);
+        // Closing the window skips handleLogout, so stop listening here as well
+        stage.setOnHidden(e -> databaseService.unsubscribe(changeListener));
     }
     
     private void displayApplicationMessages() {
@@ -202,12 +209,15 @@ public class EntrepreneurController {
         totalBalanceBtn.setStyle("-fx-padding: 8 15; -fx-font-size: 12; -fx-background-color: #f39c12; -fx-text-fill: white; -fx-border-radius: 4;");
         totalBalanceBtn.setOnAction(e -> handleTotalBalance());
 
+        Button salesBtn = new Button("📈 Sales");
+        salesBtn.setStyle("-fx-padding: 8 15; -fx-font-size: 12; -fx-background-color: #9b59b6; -fx-text-fill: white; -fx-border-radius: 4;");
+        salesBtn.setOnAction(e -> handleSales());
         // Add Menu Item button for entrepreneurs
         Button addMenuItemBtn = new Button("+ Add Menu Item");
         addMenuItemBtn.setStyle("-fx-padding: 8 15; -fx-font-size: 12; -fx-background-color: #3498db; -fx-text-fill: white; -fx-border-radius: 4;");
         addMenuItemBtn.setOnAction(e -> handleAddMenuItem());
 
-        headerBox.getChildren().addAll(titleLabel, spacer, totalBalanceBtn, addMenuItemBtn);
+        headerBox.getChildren().addAll(titleLabel, spacer, salesBtn, totalBalanceBtn, addMenuItemBtn);
 
         VBox infoCard = new VBox(8);
         infoCard.setStyle("-fx-border-color: #27ae60; -fx-border-width: 2; -fx-border-radius: 6; -fx-padding: 15; -fx-background-color: #d4edda; -fx-alignment: center;");
@@ -221,10 +231,18 @@ public class EntrepreneurController {
         Label ratingLabel = new Label("⭐ Rating: " + restaurant.getRating() + "/5.0");
         ratingLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #155724; -fx-font-weight: bold;");
 
+        List<Order> restaurantOrders = databaseService.getRestaurantOrders(restaurant.getId());
+        long confirmMillis = OrderStateMachine.averageLatencyMillis(restaurantOrders, Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+        long prepMillis = OrderStateMachine.averageLatencyMillis(restaurantOrders, Order.OrderStatus.CONFIRMED, Order.OrderStatus.READY);
+        long pickupMillis = OrderStateMachine.averagePickupLatencyMillis(restaurantOrders);
+        Label latencyLabel = new Label("⏱ Avg. confirm time: " + formatLatency(confirmMillis) + "   Avg. prep time: " + formatLatency(prepMillis)
+                + "   Avg. pickup wait: " + formatLatency(pickupMillis));
+        latencyLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #155724;");
+
         Label idLabel = new Label("ID: " + restaurant.getId());
         idLabel.setStyle("-fx-font-size: 11; -fx-text-fill: #6c757d; -fx-font-style: italic;");
 
-        infoCard.getChildren().addAll(nameLabel, locationLabel, ratingLabel, idLabel);
+        infoCard.getChildren().addAll(nameLabel, locationLabel, ratingLabel, latencyLabel, idLabel);
         restaurantInfoBox.getChildren().clear();
         restaurantInfoBox.getChildren().addAll(headerBox, infoCard);
 
@@ -233,6 +251,14 @@ public class EntrepreneurController {
         }
     }
     
+    private String formatLatency(long millis) {
+        if (millis < 0) {
+            return "N/A";
+        }
+        long minutes = millis / 60000;
+        return minutes < 1 ? "< 1 min" : minutes + " min";
+    }
+    
     private void displayMenu(Restaurant restaurant) {
         menuBox.getChildren().clear();
         
@@ -251,7 +277,7 @@ public class EntrepreneurController {
             descLabel.setStyle("-fx-font-size: 11; -fx-text-fill: #7f8c8d;");
             descLabel.setWrapText(true);
             
-            Label priceLabel = new Label("৳" + String.format("%.2f", item.getPrice()));
+            Label priceLabel = new Label(Money.format(item.getPriceMinor()));
             priceLabel.setStyle("-fx-font-size: 12; -fx-font-weight: bold; -fx-text-fill: #27ae60;");
             
             HBox actionBox = new HBox(5);
@@ -263,7 +289,17 @@ public class EntrepreneurController {
             deleteBtn.setStyle("-fx-padding: 4 8; -fx-font-size: 10; -fx-background-color: #e74c3c; -fx-text-fill: white; -fx-border-radius: 3;");
             deleteBtn.setOnAction(e -> handleDeleteMenuItem(item));
             
-            actionBox.getChildren().addAll(editBtn, deleteBtn);
+            Button availabilityBtn = new Button(item.isAvailable() ? "Mark Sold Out" : "Mark Available");
+            availabilityBtn.setStyle("-fx-padding: 4 8; -fx-font-size: 10; -fx-background-color: #95a5a6; -fx-text-fill: white; -fx-border-radius: 3;");
+            availabilityBtn.setOnAction(e -> {
+                if (refuseWhenRemote()) {
+                    return;
+                }
+                databaseService.setMenuItemAvailable(item.getId(), !item.isAvailable());
+                displayMenu(myRestaurant);
+            });
+            
+            actionBox.getChildren().addAll(editBtn, deleteBtn, availabilityBtn);
             
             menuCard.getChildren().addAll(nameLabel, descLabel, priceLabel, actionBox);
             menuBox.add(menuCard, col, row);
@@ -278,6 +314,9 @@ public class EntrepreneurController {
 
     @FXML
     public void handleApplyRestaurant() {
+        if (refuseWhenRemote()) {
+            return;
+        }
         List<RestaurantApplication> existingApps = databaseService.getEntrepreneurApplications(currentUser.getUsername());
         for (RestaurantApplication app : existingApps) {
             if (app.getStatus() == RestaurantApplication.ApplicationStatus.PENDING ||
@@ -301,7 +340,7 @@ public class EntrepreneurController {
         nameField.setPrefWidth(250);
         
         ComboBox<String> divisionCombo = new ComboBox<>();
-        divisionCombo.getItems().addAll("Dhaka", "Chittagong", "Sylhet", "Rajshahi", "Khulna", "Barisal", "Rangpur", "Mymensingh");
+        divisionCombo.getItems().addAll(Geography.divisionNames());
         divisionCombo.setPrefWidth(250);
         
         ComboBox<String> districtCombo = new ComboBox<>();
@@ -385,7 +424,7 @@ public class EntrepreneurController {
                     return null;
                 }
                 
-                String appId = "APP_" + System.currentTimeMillis();
+                String appId = IdGenerator.getInstance().nextId("APP");
                 RestaurantApplication application = new RestaurantApplication(
                     appId, currentUser.getUsername(), name, division, district, address, rating);
                 
@@ -435,11 +474,11 @@ public class EntrepreneurController {
                 return;
             }
             
-            String itemId = "item_" + System.currentTimeMillis();
-            MenuItem item = new MenuItem(itemId, name, desc, price);
+            String itemId = IdGenerator.getInstance().nextId("item");
+            MenuItem item = new MenuItem(itemId, name, desc, Money.ofMajor(price));
             menuItems.add(item);
             
-            Label savedItemLabel = new Label("✓ " + name + " - ৳" + price + " (" + desc + ")");
+            Label savedItemLabel = new Label("✓ " + name + " - " + Money.format(item.getPriceMinor()) + " (" + desc + ")");
             savedItemLabel.setStyle("-fx-text-fill: #27ae60; -fx-font-size: 12; -fx-padding: 5; -fx-background-color: #e8f5e9; -fx-border-radius: 3;");
             container.getChildren().add(0, savedItemLabel);
             
@@ -463,10 +502,12 @@ public class EntrepreneurController {
 
     @FXML
     public void handleLogout() {
+        databaseService.unsubscribe(changeListener);
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("signin-view.fxml"));
             Scene scene = new Scene(fxmlLoader.load(), 600, 700);
             Stage stage = (Stage) userLabel.getScene().getWindow();
+            stage.setOnHidden(null);
             stage.setTitle("FoodBike - Sign In");
             stage.setScene(scene);
         } catch (IOException e) {
@@ -474,12 +515,6 @@ public class EntrepreneurController {
         }
     }
     
-    @FXML
-    public void handleRefreshOrders() {
-        loadOrders();
-        showAlert("Refreshed", "Orders Updated", "Order list has been refreshed successfully!");
-    }
-
     @FXML
     public void handleTotalBalance() {
         if (myRestaurant == null) {
@@ -495,48 +530,52 @@ public class EntrepreneurController {
         content.setSpacing(15);
         content.setPadding(new Insets(20));
 
-        TableView<Order> balanceTable = new TableView<>();
+        TableView<OrderRow> balanceTable = new TableView<>();
         balanceTable.setPrefHeight(400);
         balanceTable.setPrefWidth(700);
 
-        TableColumn<Order, String> orderIdCol = new TableColumn<>("Order ID");
+        TableColumn<OrderRow, String> orderIdCol = new TableColumn<>("Order ID");
         orderIdCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getOrderId()));
         orderIdCol.setPrefWidth(150);
 
-        TableColumn<Order, String> customerCol = new TableColumn<>("Customer");
-        customerCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getUserId()));
+        TableColumn<OrderRow, String> customerCol = new TableColumn<>("Customer");
+        customerCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getCustomer()));
         customerCol.setPrefWidth(120);
 
-        TableColumn<Order, String> paymentCol = new TableColumn<>("Payment Method");
+        TableColumn<OrderRow, String> paymentCol = new TableColumn<>("Payment Method");
         paymentCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getPaymentMethod()));
         paymentCol.setPrefWidth(150);
 
-        TableColumn<Order, String> amountCol = new TableColumn<>("Amount");
-        amountCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty("৳" + String.format("%.2f", data.getValue().getTotalPrice())));
+        TableColumn<OrderRow, String> amountCol = new TableColumn<>("Amount");
+        amountCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getFormattedTotal()));
         amountCol.setPrefWidth(120);
 
-        TableColumn<Order, String> statusCol = new TableColumn<>("Status");
+        TableColumn<OrderRow, String> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getStatus().toString()));
         statusCol.setPrefWidth(120);
 
         balanceTable.getColumns().addAll(orderIdCol, customerCol, paymentCol, amountCol, statusCol);
 
+        Ledger ledger = databaseService.getLedger();
+        String ledgerAccount = Ledger.restaurantAccount(myRestaurant.getId());
+        long balanceMinor = ledger.getBalance(ledgerAccount);
+        long withdrawnMinor = ledger.getTotalDebited(ledgerAccount);
+
+        // The ledger credits a restaurant for each paid order (Bkash/Nagad on placement, cash on delivery)
         List<Order> payments = new ArrayList<>();
-        double totalBalance = 0.0;
-
-        List<Order> restaurantOrders = databaseService.getRestaurantOrders(myRestaurant.getId());
-        for (Order order : restaurantOrders) {
-            String payment = order.getPaymentMethod();
-            if (payment != null && (payment.equals("Bkash") || payment.equals("Nagad") || 
-                (payment.equals("Cash on Delivery") && order.getStatus() == Order.OrderStatus.DELIVERED))) {
-                payments.add(order);
-                totalBalance += order.getTotalPrice();
+        for (LedgerEntry entry : ledger.getEntries(ledgerAccount)) {
+            if (entry.getKind() == LedgerEntry.Kind.SALE) {
+                Order order = databaseService.getOrder(entry.getReference());
+                if (order != null) {
+                    payments.add(order);
+                }
             }
         }
 
-        balanceTable.getItems().setAll(payments);
+        balanceTable.getItems().setAll(databaseService.getOrderRowCache().getAll(payments));
 
-        Label totalLabel = new Label("Total Balance: ৳" + String.format("%.2f", totalBalance));
+        Label totalLabel = new Label("Total Balance: " + Money.format(balanceMinor)
+                + (withdrawnMinor > 0 ? "  (" + Money.format(withdrawnMinor) + " withdrawn)" : ""));
         totalLabel.setStyle("-fx-font-size: 18; -fx-font-weight: bold; -fx-text-fill: #27ae60; -fx-padding: 10;");
 
         content.getChildren().addAll(balanceTable, totalLabel);
@@ -547,18 +586,108 @@ public class EntrepreneurController {
         ButtonType closeBtn = new ButtonType("Close", ButtonBar.ButtonData.CANCEL_CLOSE);
         dialog.getDialogPane().getButtonTypes().addAll(withdrawBtn, closeBtn);
         
-        final double finalTotalBalance = totalBalance;
         dialog.showAndWait().ifPresent(response -> {
             if (response == withdrawBtn) {
-                showWithdrawDialog(finalTotalBalance);
+                if (balanceMinor <= 0) {
+                    showAlert("Withdraw Balance", null, "There is no balance to withdraw.");
+                    return;
+                }
+                if (refuseWhenRemote()) {
+                    return;
+                }
+                showWithdrawDialog(ledgerAccount, balanceMinor);
             }
         });
     }
     
-    private void showWithdrawDialog(double balance) {
+    public void handleSales() {
+        if (myRestaurant == null) {
+            showAlert("No Restaurant", "Error", "You don't have an approved restaurant yet.");
+            return;
+        }
+
+        SalesRollups rollups = databaseService.getSalesRollups();
+        String restaurantId = myRestaurant.getId();
+        LocalDate today = LocalDate.now();
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Sales");
+        dialog.setHeaderText("📈 Sales for " + myRestaurant.getName());
+
+        VBox content = new VBox(15);
+        content.setPadding(new Insets(20));
+
+        HBox summaryBox = new HBox(15);
+        summaryBox.getChildren().addAll(
+                createSalesSummaryCard("Today", rollups.getTotal(SalesRollups.Scope.RESTAURANT, restaurantId, today, today)),
+                createSalesSummaryCard("Last 7 Days", rollups.getTotal(SalesRollups.Scope.RESTAURANT, restaurantId, today.minusDays(6), today)),
+                createSalesSummaryCard("Last 30 Days", rollups.getTotal(SalesRollups.Scope.RESTAURANT, restaurantId, today.minusDays(29), today)));
+
+        TableView<SalesRollups.Sales> dailyTable = new TableView<>();
+        dailyTable.setPrefHeight(350);
+        dailyTable.setPrefWidth(650);
+        dailyTable.setPlaceholder(new Label("No orders in the last 30 days"));
+
+        TableColumn<SalesRollups.Sales, String> dateCol = new TableColumn<>("Date");
+        dateCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getDate().toString()));
+        dateCol.setPrefWidth(110);
+
+        TableColumn<SalesRollups.Sales, Number> ordersCol = new TableColumn<>("Orders");
+        ordersCol.setCellValueFactory(data -> new javafx.beans.property.SimpleIntegerProperty(data.getValue().getOrderCount()));
+        ordersCol.setPrefWidth(80);
+
+        TableColumn<SalesRollups.Sales, Number> cancelledCol = new TableColumn<>("Cancelled");
+        cancelledCol.setCellValueFactory(data -> new javafx.beans.property.SimpleIntegerProperty(data.getValue().getCancelledCount()));
+        cancelledCol.setPrefWidth(90);
+
+        TableColumn<SalesRollups.Sales, Number> deliveredCol = new TableColumn<>("Delivered");
+        deliveredCol.setCellValueFactory(data -> new javafx.beans.property.SimpleIntegerProperty(data.getValue().getDeliveredCount()));
+        deliveredCol.setPrefWidth(90);
+
+        TableColumn<SalesRollups.Sales, String> revenueCol = new TableColumn<>("Revenue");
+        revenueCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(Money.format(data.getValue().getRevenueMinor())));
+        revenueCol.setPrefWidth(130);
+
+        TableColumn<SalesRollups.Sales, String> basketCol = new TableColumn<>("Avg. Basket");
+        basketCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(Money.format(data.getValue().getAverageBasketMinor())));
+        basketCol.setPrefWidth(130);
+
+        dailyTable.getColumns().addAll(List.of(dateCol, ordersCol, cancelledCol, deliveredCol, revenueCol, basketCol));
+
+        List<SalesRollups.Sales> days = rollups.getDaily(SalesRollups.Scope.RESTAURANT, restaurantId, today.minusDays(29), today);
+        Collections.reverse(days);
+        dailyTable.getItems().setAll(days);
+
+        content.getChildren().addAll(summaryBox, dailyTable);
+
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().add(new ButtonType("Close", ButtonBar.ButtonData.CANCEL_CLOSE));
+        dialog.showAndWait();
+    }
+
+    private VBox createSalesSummaryCard(String title, SalesRollups.Sales sales) {
+        VBox card = new VBox(4);
+        card.setStyle("-fx-border-color: #9b59b6; -fx-border-radius: 6; -fx-padding: 10; -fx-background-color: #f5eef8;");
+        card.setPrefWidth(200);
+
+        Label titleLabel = new Label(title);
+        titleLabel.setStyle("-fx-font-size: 12; -fx-font-weight: bold; -fx-text-fill: #6c3483;");
+
+        Label revenueLabel = new Label(Money.format(sales.getRevenueMinor()));
+        revenueLabel.setStyle("-fx-font-size: 16; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+
+        Label detailLabel = new Label(sales.getOrderCount() + " orders, " + sales.getCancelledCount() + " cancelled\n"
+                + "Avg. basket: " + Money.format(sales.getAverageBasketMinor()));
+        detailLabel.setStyle("-fx-font-size: 11; -fx-text-fill: #555;");
+
+        card.getChildren().addAll(titleLabel, revenueLabel, detailLabel);
+        return card;
+    }
+
+    private void showWithdrawDialog(String ledgerAccount, long balanceMinor) {
         Dialog<ButtonType> withdrawDialog = new Dialog<>();
         withdrawDialog.setTitle("Withdraw Balance");
-        withdrawDialog.setHeaderText("💳 Withdraw ৳" + String.format("%.2f", balance));
+        withdrawDialog.setHeaderText("💳 Withdraw " + Money.format(balanceMinor));
         
         VBox content = new VBox(15);
         content.setPadding(new Insets(20));
@@ -598,17 +727,17 @@ public class EntrepreneurController {
                 }
                 
                 String generatedOtp = String.valueOf((int)(Math.random() * 900000) + 100000);
-                showOtpVerificationDialog(balance, method, account, generatedOtp);
+                showOtpVerificationDialog(ledgerAccount, balanceMinor, method, account, generatedOtp);
             }
         });
     }
     
-    private void showOtpVerificationDialog(double balance, String method, String account, String generatedOtp) {
+    private void showOtpVerificationDialog(String ledgerAccount, long balanceMinor, String method, String account, String generatedOtp) {
         showAlert("OTP Sent", "📩 OTP Sent to " + account, "Your OTP is: " + generatedOtp + "\n\nPlease use this OTP to complete the withdrawal.");
         
         Dialog<ButtonType> otpDialog = new Dialog<>();
         otpDialog.setTitle("Verify OTP");
-        otpDialog.setHeaderText("🔐 Enter OTP to Withdraw ৳" + String.format("%.2f", balance));
+        otpDialog.setHeaderText("🔐 Enter OTP to Withdraw " + Money.format(balanceMinor));
         
         VBox content = new VBox(15);
         content.setPadding(new Insets(20));
@@ -646,8 +775,13 @@ public class EntrepreneurController {
                     return;
                 }
                 
+                if (!databaseService.withdraw(ledgerAccount, balanceMinor)) {
+                    showAlert("Error", "Withdrawal Failed", "Your balance changed while you were withdrawing. Please open the balance again and retry.");
+                    return;
+                }
+                
                 showAlert("Withdrawal Successful", "✅ Withdrawal Complete", 
-                        "Successfully withdrawn ৳" + String.format("%.2f", balance) + "\n\n" +
+                        "Successfully withdrawn " + Money.format(balanceMinor) + "\n\n" +
                         "Method: " + method + "\n" +
                         "Account: " + account + "\n\n" +
                         "The amount will be transferred within 24 hours.");
@@ -661,7 +795,9 @@ public class EntrepreneurController {
             showAlert("No Restaurant", "Error", "You don't have an approved restaurant yet.");
             return;
         }
-
+        if (refuseWhenRemote()) {
+            return;
+        }
         Dialog<MenuItem> dialog = new Dialog<>();
         dialog.setTitle("Add Menu Item");
         dialog.setHeaderText("Add New Item to Menu");
@@ -701,22 +837,24 @@ public class EntrepreneurController {
                     return null;
                 }
 
-                String itemId = "item_" + System.currentTimeMillis();
-                return new MenuItem(itemId, name, desc, price);
+                String itemId = IdGenerator.getInstance().nextId("item");
+                return new MenuItem(itemId, name, desc, Money.ofMajor(price));
             }
             return null;
         });
 
         Optional<MenuItem> result = dialog.showAndWait();
         result.ifPresent(menuItem -> {
-            myRestaurant.addMenuItem(menuItem);
-            databaseService.saveDataToFiles();
+            databaseService.addMenuItems(myRestaurant, List.of(menuItem));
             displayMenu(myRestaurant);
             showAlert("Success", "Item Added", "Menu item added successfully!");
         });
     }
 
     private void handleEditMenuItem(MenuItem item) {
+        if (refuseWhenRemote()) {
+            return;
+        }
         Dialog<MenuItem> dialog = new Dialog<>();
         dialog.setTitle("Edit Menu Item");
         dialog.setHeaderText("Update Menu Item");
@@ -728,7 +866,7 @@ public class EntrepreneurController {
 
         TextField nameField = new TextField(item.getName());
         TextField descField = new TextField(item.getDescription());
-        Spinner<Double> priceSpinner = new Spinner<>(0.0, 10000.0, item.getPrice(), 10.0);
+        Spinner<Double> priceSpinner = new Spinner<>(0.0, 10000.0, Money.toMajor(item.getPriceMinor()), 10.0);
         priceSpinner.setEditable(true);
 
         grid.add(new Label("Item Name:"), 0, 0);
@@ -752,22 +890,23 @@ public class EntrepreneurController {
                     return null;
                 }
 
-                return new MenuItem(item.getId(), name, desc, price);
+                return item.withDetails(name, desc, Money.ofMajor(price));
             }
             return null;
         });
 
         Optional<MenuItem> result = dialog.showAndWait();
         result.ifPresent(updatedItem -> {
-            myRestaurant.getMenu().remove(item);
-            myRestaurant.addMenuItem(updatedItem);
-            databaseService.saveDataToFiles();
+            databaseService.updateMenuItem(updatedItem);
             displayMenu(myRestaurant);
             showAlert("Success", "Item Updated", "Menu item updated successfully!");
         });
     }
 
     private void handleDeleteMenuItem(MenuItem item) {
+        if (refuseWhenRemote()) {
+            return;
+        }
         Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
         confirmAlert.setTitle("Delete Menu Item");
         confirmAlert.setHeaderText("Delete: " + item.getName());
@@ -775,13 +914,21 @@ public class EntrepreneurController {
 
         Optional<ButtonType> result = confirmAlert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            myRestaurant.getMenu().remove(item);
-            databaseService.saveDataToFiles();
+            databaseService.removeMenuItem(item.getId());
             displayMenu(myRestaurant);
             showAlert("Success", "Item Deleted", "Menu item deleted successfully!");
         }
     }
 
+    /** Tells the entrepreneur why the change is unavailable and returns true when connected to a server. */
+    private boolean refuseWhenRemote() {
+        if (!databaseService.isRemote()) {
+            return false;
+        }
+        showAlert("Not Available", "Connected to a Server", DatabaseService.REMOTE_READ_ONLY_MESSAGE);
+        return true;
+    }
+
     private void showAlert(String title, String header, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -799,29 +946,26 @@ public class EntrepreneurController {
     }
     
     private void setupPendingOrdersTable() {
-        TableColumn<Order, String> orderIdCol = new TableColumn<>("Order ID");
+        TableColumn<OrderRow, String> orderIdCol = new TableColumn<>("Order ID");
         orderIdCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getOrderId()));
         orderIdCol.setPrefWidth(150);
         
-        TableColumn<Order, String> customerCol = new TableColumn<>("Customer");
-        customerCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getUserId()));
+        TableColumn<OrderRow, String> customerCol = new TableColumn<>("Customer");
+        customerCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getCustomer()));
         customerCol.setPrefWidth(150);
         
-        TableColumn<Order, String> itemsCol = new TableColumn<>("Items");
-        itemsCol.setCellValueFactory(data -> {
-            int itemCount = data.getValue().getItems().size();
-            return new javafx.beans.property.SimpleStringProperty(itemCount + " item(s)");
-        });
+        TableColumn<OrderRow, String> itemsCol = new TableColumn<>("Items");
+        itemsCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getItemSummary()));
         itemsCol.setPrefWidth(100);
         
-        TableColumn<Order, String> totalCol = new TableColumn<>("Total");
-        totalCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty("৳" + String.format("%.2f", data.getValue().getTotalPrice())));
+        TableColumn<OrderRow, String> totalCol = new TableColumn<>("Total");
+        totalCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getFormattedTotal()));
         totalCol.setPrefWidth(100);
         
-        TableColumn<Order, String> statusCol = new TableColumn<>("Status");
+        TableColumn<OrderRow, String> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getStatus().toString()));
         statusCol.setPrefWidth(100);
-        statusCol.setCellFactory(col -> new TableCell<Order, String>() {
+        statusCol.setCellFactory(col -> new TableCell<OrderRow, String>() {
             @Override
             protected void updateItem(String status, boolean empty) {
                 super.updateItem(status, empty);
@@ -829,7 +973,7 @@ public class EntrepreneurController {
                     setText(null);
                     setStyle("");
                 } else {
-                    Order order = getTableView().getItems().get(getIndex());
+                    OrderRow order = getTableView().getItems().get(getIndex());
                     if (order.getStatus() == Order.OrderStatus.AUTO_CANCELLED) {
                         setText("✗ " + status);
                         setStyle("-fx-text-fill: #e74c3c; -fx-font-weight: bold;");
@@ -844,15 +988,15 @@ public class EntrepreneurController {
             }
         });
         
-        TableColumn<Order, Void> actionCol = new TableColumn<>("Action");
+        TableColumn<OrderRow, Void> actionCol = new TableColumn<>("Action");
         actionCol.setPrefWidth(150);
-        actionCol.setCellFactory(col -> new TableCell<Order, Void>() {
+        actionCol.setCellFactory(col -> new TableCell<OrderRow, Void>() {
             private final Button statusBtn = new Button("Order Status");
             
             {
                 statusBtn.setStyle("-fx-padding: 5 10; -fx-font-size: 11; -fx-background-color: #3498db; -fx-text-fill: white; -fx-border-radius: 4;");
                 statusBtn.setOnAction(e -> {
-                    Order order = getTableView().getItems().get(getIndex());
+                    Order order = getTableView().getItems().get(getIndex()).getOrder();
                     handleOrderStatus(order);
                 });
             }
@@ -872,29 +1016,26 @@ public class EntrepreneurController {
     }
     
     private void setupConfirmedOrdersTable() {
-        TableColumn<Order, String> orderIdCol = new TableColumn<>("Order ID");
+        TableColumn<OrderRow, String> orderIdCol = new TableColumn<>("Order ID");
         orderIdCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getOrderId()));
         orderIdCol.setPrefWidth(150);
         
-        TableColumn<Order, String> customerCol = new TableColumn<>("Customer");
-        customerCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getUserId()));
+        TableColumn<OrderRow, String> customerCol = new TableColumn<>("Customer");
+        customerCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getCustomer()));
         customerCol.setPrefWidth(150);
         
-        TableColumn<Order, String> itemsCol = new TableColumn<>("Items");
-        itemsCol.setCellValueFactory(data -> {
-            int itemCount = data.getValue().getItems().size();
-            return new javafx.beans.property.SimpleStringProperty(itemCount + " item(s)");
-        });
+        TableColumn<OrderRow, String> itemsCol = new TableColumn<>("Items");
+        itemsCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getItemSummary()));
         itemsCol.setPrefWidth(150);
         
-        TableColumn<Order, String> totalCol = new TableColumn<>("Total");
-        totalCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty("৳" + String.format("%.2f", data.getValue().getTotalPrice())));
+        TableColumn<OrderRow, String> totalCol = new TableColumn<>("Total");
+        totalCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getFormattedTotal()));
         totalCol.setPrefWidth(100);
         
-        TableColumn<Order, String> statusCol = new TableColumn<>("Status");
+        TableColumn<OrderRow, String> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getStatus().toString()));
         statusCol.setPrefWidth(150);
-        statusCol.setCellFactory(col -> new TableCell<Order, String>() {
+        statusCol.setCellFactory(col -> new TableCell<OrderRow, String>() {
             @Override
             protected void updateItem(String status, boolean empty) {
                 super.updateItem(status, empty);
@@ -902,7 +1043,7 @@ public class EntrepreneurController {
                     setText(null);
                     setStyle("");
                 } else {
-                    Order order = getTableView().getItems().get(getIndex());
+                    OrderRow order = getTableView().getItems().get(getIndex());
                     if (order.getStatus() == Order.OrderStatus.AUTO_CANCELLED) {
                         setText("✗ " + status);
                         setStyle("-fx-text-fill: #e74c3c; -fx-font-weight: bold;");
@@ -923,15 +1064,15 @@ public class EntrepreneurController {
             }
         });
         
-        TableColumn<Order, Void> actionCol = new TableColumn<>("Action");
+        TableColumn<OrderRow, Void> actionCol = new TableColumn<>("Action");
         actionCol.setPrefWidth(150);
-        actionCol.setCellFactory(col -> new TableCell<Order, Void>() {
+        actionCol.setCellFactory(col -> new TableCell<OrderRow, Void>() {
             private final Button statusBtn = new Button("Order Status");
             
             {
                 statusBtn.setStyle("-fx-padding: 5 10; -fx-font-size: 11; -fx-background-color: #3498db; -fx-text-fill: white; -fx-border-radius: 4;");
                 statusBtn.setOnAction(e -> {
-                    Order order = getTableView().getItems().get(getIndex());
+                    Order order = getTableView().getItems().get(getIndex()).getOrder();
                     handleOrderStatus(order);
                 });
             }
@@ -942,7 +1083,7 @@ public class EntrepreneurController {
                 if (empty) {
                     setGraphic(null);
                 } else {
-                    Order order = getTableView().getItems().get(getIndex());
+                    OrderRow order = getTableView().getItems().get(getIndex());
                     if (order.getStatus() == Order.OrderStatus.CONFIRMED || 
                         order.getStatus() == Order.OrderStatus.READY ||
                         order.getStatus() == Order.OrderStatus.DELIVERED) {
@@ -964,18 +1105,6 @@ public class EntrepreneurController {
         
         List<Order> allOrders = databaseService.getRestaurantOrders(myRestaurant.getId());
         
-        // Auto-cancel pending orders older than 5 hours
-        boolean hasAutoCancelled = false;
-        for (Order order : allOrders) {
-            if (order.shouldAutoCancelled()) {
-                order.setStatus(Order.OrderStatus.AUTO_CANCELLED);
-                hasAutoCancelled = true;
-            }
-        }
-        if (hasAutoCancelled) {
-            databaseService.saveDataToFiles();
-        }
-        
         List<Order> pendingOrders = new ArrayList<>();
         List<Order> confirmedOrders = new ArrayList<>();
         
@@ -987,16 +1116,62 @@ public class EntrepreneurController {
             }
         }
         
-        // Sort by creation date (newest first)
-        pendingOrders.sort((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()));
-        confirmedOrders.sort((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()));
-        
-        pendingOrdersTable.getItems().setAll(pendingOrders);
-        confirmedOrdersTable.getItems().setAll(confirmedOrders);
-        
-        // Refresh tables
-        pendingOrdersTable.refresh();
-        confirmedOrdersTable.refresh();
+        OrderRowCache orderRows = databaseService.getOrderRowCache();
+        pendingOrdersTable.getItems().setAll(orderRows.getAll(pendingOrders));
+        confirmedOrdersTable.getItems().setAll(orderRows.getAll(confirmedOrders));
+    }
+
+    private void applyChange(DataChangeEvent event) {
+        if (currentUser == null) {
+            return;
+        }
+        switch (event.getType()) {
+            case APPLICATION_DECIDED:
+                if (event.getApplication().getEntrepreneurUsername().equals(currentUser.getUsername())) {
+                    displayApplicationMessages();
+                    loadMyRestaurant();
+                    loadOrders();
+                }
+                break;
+            case REVIEW_ADDED:
+                if (myRestaurant != null && event.getReview().getRestaurantId().equals(myRestaurant.getId())) {
+                    displayRestaurantInfo(myRestaurant);
+                }
+                break;
+            case ORDER_CREATED:
+            case ORDER_STATUS_CHANGED:
+            case ORDER_ASSIGNED:
+                Order order = event.getOrder();
+                if (myRestaurant == null || !order.getRestaurantId().equals(myRestaurant.getId())) {
+                    return;
+                }
+                removeRow(pendingOrdersTable.getItems(), order);
+                removeRow(confirmedOrdersTable.getItems(), order);
+                OrderRow row = databaseService.getOrderRowCache().get(order);
+                if (order.getStatus() == Order.OrderStatus.PENDING) {
+                    insertNewestFirst(pendingOrdersTable.getItems(), row);
+                } else {
+                    insertNewestFirst(confirmedOrdersTable.getItems(), row);
+                }
+                if (event.getType() == DataChangeEvent.Type.ORDER_STATUS_CHANGED) {
+                    displayRestaurantInfo(myRestaurant);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void insertNewestFirst(List<OrderRow> target, OrderRow row) {
+        int index = 0;
+        while (index < target.size() && target.get(index).getCreatedAtMillis() >= row.getCreatedAtMillis()) {
+            index++;
+        }
+        target.add(index, row);
+    }
+
+    private static void removeRow(List<OrderRow> target, Order order) {
+        target.removeIf(row -> row.getOrderId().equals(order.getOrderId()));
     }
     
     private void handleOrderStatus(Order order) {
@@ -1011,7 +1186,7 @@ public class EntrepreneurController {
         Label customerLabel = new Label("Customer: " + order.getUserId());
         customerLabel.setStyle("-fx-font-size: 13; -fx-font-weight: bold;");
         
-        Label totalLabel = new Label("Total: ৳" + String.format("%.2f", order.getTotalPrice()));
+        Label totalLabel = new Label("Total: " + Money.format(order.getTotalMinor()));
         totalLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #27ae60; -fx-font-weight: bold;");
         
         VBox stagesBox = new VBox();
@@ -1131,9 +1306,10 @@ public class EntrepreneurController {
         
         Optional<ButtonType> result = confirmAlert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            order.setStatus(Order.OrderStatus.CANCELLED);
-            databaseService.saveDataToFiles();
-            loadOrders();
+            if (!databaseService.updateOrderStatus(order, Order.OrderStatus.CANCELLED)) {
+                showAlert("Error", "Order Not Updated", "Order is already " + order.getStatus() + " and cannot be changed.");
+                return;
+            }
             showAlert("Order Declined", "Order Cancelled", "Order has been declined and cancelled.");
         }
     }
@@ -1146,9 +1322,10 @@ public class EntrepreneurController {
         
         Optional<ButtonType> result = confirmAlert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            order.setStatus(Order.OrderStatus.CONFIRMED);
-            databaseService.saveDataToFiles();
-            loadOrders();
+            if (!databaseService.updateOrderStatus(order, Order.OrderStatus.CONFIRMED)) {
+                showAlert("Error", "Order Not Updated", "Order is already " + order.getStatus() + " and cannot be changed.");
+                return;
+            }
             showAlert("Success", "Order Approved", "Order has been confirmed successfully!");
         }
     }
@@ -1161,9 +1338,10 @@ public class EntrepreneurController {
         
         Optional<ButtonType> result = confirmAlert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            order.setStatus(Order.OrderStatus.READY);
-            databaseService.saveDataToFiles();
-            loadOrders();
+            if (!databaseService.updateOrderStatus(order, Order.OrderStatus.READY)) {
+                showAlert("Error", "Order Not Updated", "Order is already " + order.getStatus() + " and cannot be changed.");
+                return;
+            }
             showAlert("Success", "Order Ready", "Order marked as ready! Biker is on the way to deliver.");
         }
     }
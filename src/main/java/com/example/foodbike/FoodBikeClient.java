@@ -0,0 +1,246 @@
+package com.example.foodbike;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP client for {@link FoodBikeServer}. {@link DatabaseService} uses it in remote mode to send
+ * order changes to the server and to keep its local copy of the orders in step with the server's
+ * event feed.
+ */
+public class FoodBikeClient {
+    private static final long POLL_TIMEOUT_MILLIS = 20_000;
+    private static final long RETRY_DELAY_MILLIS = 2_000;
+
+    private final String baseUrl;
+    private final String token;
+    private final HttpClient httpClient;
+    public static class OrderList {
+        private final long seq;
+        private final List<Order> orders;
+
+        OrderList(long seq, List<Order> orders) {
+            this.seq = seq;
+            this.orders = orders;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public List<Order> getOrders() {
+            return orders;
+        }
+    }
+
+    public static class RemoteEvent {
+        private final DataChangeEvent.Type type;
+        private final Order.OrderStatus previousStatus;
+        private final Order order;
+
+        RemoteEvent(DataChangeEvent.Type type, Order.OrderStatus previousStatus, Order order) {
+            this.type = type;
+            this.previousStatus = previousStatus;
+            this.order = order;
+        }
+
+        public DataChangeEvent.Type getType() {
+            return type;
+        }
+
+        public Order.OrderStatus getPreviousStatus() {
+            return previousStatus;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+    }
+
+    public static class EventBatch {
+        private final long seq;
+        private final boolean reset;
+        private final List<RemoteEvent> events;
+
+        EventBatch(long seq, boolean reset, List<RemoteEvent> events) {
+            this.seq = seq;
+            this.reset = reset;
+            this.events = events;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public boolean isReset() {
+            return reset;
+        }
+
+        public List<RemoteEvent> getEvents() {
+            return events;
+        }
+    }
+
+    /** @param token the server's shared token (see {@link FoodBikeServer#TOKEN_PROPERTY}), or null to send none */
+    public FoodBikeClient(String baseUrl, String token) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.token = token;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @SuppressWarnings("unchecked")
+    public OrderList fetchOrders() throws IOException {
+        Map<String, Object> json = Json.parseObject(send(get("/api/orders"), 200).body());
+        List<Order> orders = new ArrayList<>();
+        for (Object order : (List<Object>) json.get("orders")) {
+            orders.add(OrderJson.fromJson((Map<String, Object>) order));
+        }
+        return new OrderList(Json.getLong(json, "seq", 0), orders);
+    }
+
+    /** @return the order as stored by the server, with its server-issued ID */
+    public Order createOrder(Order order) throws IOException {
+        HttpResponse<String> response = send(post("/api/orders", OrderJson.toJson(order)), 201);
+        return OrderJson.fromJson(Json.parseObject(response.body()));
+    }
+
+    /** @return the updated order, or null if the server rejected the transition */
+    public Order updateOrderStatus(String orderId, Order.OrderStatus status) throws IOException {
+        String body = "{\"status\":\"" + status.name() + "\"}";
+        HttpResponse<String> response = send(post("/api/orders/" + encode(orderId) + "/status", body), 200, 409);
+        return response.statusCode() == 409 ? null : OrderJson.fromJson(Json.parseObject(response.body()));
+    }
+
+    public Order fetchOrder(String orderId) throws IOException {
+        return OrderJson.fromJson(Json.parseObject(send(get("/api/orders/" + encode(orderId)), 200).body()));
+    }
+
+    /** @return the updated order, or null if another biker already has it */
+    public Order assignBiker(String orderId, String bikerId) throws IOException {
+        String body = "{\"bikerId\":" + Json.quote(bikerId) + "}";
+        HttpResponse<String> response = send(post("/api/orders/" + encode(orderId) + "/biker", body), 200, 409);
+        return response.statusCode() == 409 ? null : OrderJson.fromJson(Json.parseObject(response.body()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public EventBatch pollEvents(long after, long timeoutMillis) throws IOException {
+        HttpRequest request = request("/api/events?after=" + after + "&timeout=" + timeoutMillis)
+                .timeout(Duration.ofMillis(timeoutMillis + 10_000))
+                .GET()
+                .build();
+        Map<String, Object> json = Json.parseObject(send(request, 200).body());
+        List<RemoteEvent> events = new ArrayList<>();
+        for (Object item : (List<Object>) json.get("events")) {
+            Map<String, Object> event = (Map<String, Object>) item;
+            String previous = Json.getString(event, "previousStatus");
+            events.add(new RemoteEvent(
+                    DataChangeEvent.Type.valueOf(Json.getString(event, "type")),
+                    previous != null ? Order.OrderStatus.valueOf(previous) : null,
+                    OrderJson.fromJson((Map<String, Object>) event.get("order"))));
+        }
+        return new EventBatch(Json.getLong(json, "seq", 0), Boolean.TRUE.equals(json.get("reset")), events);
+    }
+
+    /**
+     * Follows the server's event feed on a background thread and applies each change to
+     * {@code databaseService}. A negative {@code afterSeq} starts with a full re-list of the orders.
+     */
+    public Thread startSync(DatabaseService databaseService, long afterSeq) {
+        return Thread.ofVirtual().name("foodbike-order-sync").start(() -> {
+            long after = afterSeq;
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    if (after < 0) {
+                        OrderList list = fetchOrders();
+                        databaseService.applyRemoteOrders(list.getOrders());
+                        after = list.getSeq();
+                    }
+                    EventBatch batch = pollEvents(after, POLL_TIMEOUT_MILLIS);
+                    if (batch.isReset()) {
+                        after = -1;
+                        continue;
+                    }
+                    for (RemoteEvent event : batch.getEvents()) {
+                        databaseService.applyRemoteEvent(event);
+                    }
+                    after = batch.getSeq();
+                } catch (InterruptedIOException e) {
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("Lost connection to " + baseUrl + ": " + e.getMessage());
+                    try {
+                        Thread.sleep(RETRY_DELAY_MILLIS);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (token != null && !token.isBlank()) {
+            builder.header(FoodBikeServer.TOKEN_HEADER, token);
+        }
+        return builder;
+    }
+
+    private HttpRequest get(String path) {
+        return request(path)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return request(path)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request, int... expectedStatuses) throws IOException {
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + request.uri());
+        }
+        for (int expected : expectedStatuses) {
+            if (response.statusCode() == expected) {
+                return response;
+            }
+        }
+        String message = response.body();
+        try {
+            message = Json.getString(Json.parseObject(response.body()), "error");
+        } catch (IllegalArgumentException ignored) {
+            // Not a JSON error body; report it as is
+        }
+        throw new IOException("Server returned " + response.statusCode() + " for " + request.uri().getPath() + ": " + message);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,457 @@
+package com.example.foodbike;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Headless entry point that owns the data files and serves them over HTTP/JSON so several desktop
+ * clients (started with {@code --server=http://host:port}) can share one order board. Every
+ * request runs on its own virtual thread, which keeps long-polling clients of {@code /api/events}
+ * cheap.
+ * <p>
+ * Every request must carry the shared token from the {@value #TOKEN_PROPERTY} system property in
+ * the {@value #TOKEN_HEADER} header; clients send the same property's value. The server listens
+ * on the loopback interface unless started with {@code --bind ADDRESS} (e.g. {@code 0.0.0.0} to
+ * serve the LAN).
+ *
+ * <pre>
+ * java -Dfoodbike.token=SECRET com.example.foodbike.FoodBikeServer [--port N] [--bind ADDRESS]
+ * </pre>
+ *
+ * <pre>
+ * GET  /api/restaurants[?district=|?division=|?q=]   GET /api/restaurants/{id}
+ * GET  /api/orders[?userId=|?restaurantId=]          GET /api/orders/{id}
+ * POST /api/orders                                   POST /api/orders/{id}/status {"status":...}
+ * POST /api/orders/{id}/biker {"bikerId":...}        GET  /api/events?after={seq}[&amp;timeout={ms}]
+ * </pre>
+ */
+public class FoodBikeServer {
+    public static final int DEFAULT_PORT = 8080;
+    /** System property holding the token that clients and the server share. */
+    public static final String TOKEN_PROPERTY = "foodbike.token";
+    public static final String TOKEN_HEADER = "X-FoodBike-Token";
+    private static final long MAX_POLL_MILLIS = 30_000;
+    private static final long DEFAULT_POLL_MILLIS = 20_000;
+
+    private final DatabaseService databaseService;
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final EventLog eventLog = new EventLog(10_000);
+    private final byte[] token;
+
+    /** Serves on {@code address}, answering only requests that carry {@code token}. */
+    public FoodBikeServer(DatabaseService databaseService, InetSocketAddress address, String token) throws IOException {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("A shared token is required");
+        }
+        this.databaseService = databaseService;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.httpServer = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/api/restaurants", exchange -> handle(exchange, this::handleRestaurants));
+        httpServer.createContext("/api/orders", exchange -> handle(exchange, this::handleOrders));
+        httpServer.createContext("/api/events", exchange -> handle(exchange, this::handleEvents));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger("foodbike.port", DEFAULT_PORT);
+        String bind = InetAddress.getLoopbackAddress().getHostAddress();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                exitWithUsage("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--port" -> port = Integer.parseInt(value);
+                    case "--bind" -> bind = value;
+                    default -> exitWithUsage("Unknown option " + option);
+                }
+            } catch (NumberFormatException e) {
+                exitWithUsage("Invalid value for " + option + ": " + value);
+            }
+        }
+        String token = System.getProperty(TOKEN_PROPERTY);
+        if (token == null || token.isBlank()) {
+            exitWithUsage("Set -D" + TOKEN_PROPERTY + "=... to the token clients must send");
+        }
+        // The server is the one process that reads and writes the data files
+        System.clearProperty(DatabaseService.SERVER_PROPERTY);
+        DatabaseService databaseService = DatabaseService.getInstance();
+        FoodBikeServer server = new FoodBikeServer(databaseService, new InetSocketAddress(bind, port), token);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            databaseService.saveDataToFiles();
+        }, "foodbike-server-shutdown"));
+        server.start();
+        System.out.println("FoodBike server listening on " + bind + " port " + server.getPort());
+    }
+
+    private static void exitWithUsage(String problem) {
+        System.out.println(problem);
+        System.out.println("Usage: java -D" + TOKEN_PROPERTY + "=TOKEN FoodBikeServer [--port N] [--bind ADDRESS]");
+        System.exit(1);
+    }
+    public void start() {
+        databaseService.subscribe(eventLog);
+        httpServer.start();
+    }
+
+    public void stop() {
+        httpServer.stop(1);
+        databaseService.unsubscribe(eventLog);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange, String subPath) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) {
+        try (exchange) {
+            String contextPath = exchange.getHttpContext().getPath();
+            String subPath = exchange.getRequestURI().getPath().substring(contextPath.length());
+            if (!hasToken(exchange)) {
+                sendError(exchange, 401, "Missing or wrong " + TOKEN_HEADER + " header");
+                return;
+            }
+            try {
+                handler.handle(exchange, subPath);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                System.out.println("Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+                sendError(exchange, 500, "Internal server error");
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing response: " + e.getMessage());
+        }
+    }
+
+    private void handleRestaurants(HttpExchange exchange, String subPath) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        if (subPath.length() > 1) {
+            Restaurant restaurant = databaseService.getRestaurant(subPath.substring(1));
+            if (restaurant == null) {
+                sendError(exchange, 404, "Restaurant not found");
+                return;
+            }
+            StringBuilder sb = new StringBuilder();
+            OrderJson.appendRestaurant(sb, restaurant);
+            sendJson(exchange, 200, sb.toString());
+            return;
+        }
+
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+        List<Restaurant> restaurants;
+        if (query.containsKey("district")) {
+            restaurants = databaseService.getRestaurantsByDistrict(query.get("district"));
+        } else if (query.containsKey("division")) {
+            restaurants = databaseService.getRestaurantsByDivision(query.get("division"));
+        } else if (query.containsKey("q")) {
+            restaurants = databaseService.searchRestaurants(query.get("q"));
+        } else {
+            restaurants = databaseService.getAllRestaurants();
+        }
+        StringBuilder sb = new StringBuilder("{\"restaurants\":[");
+        for (int i = 0; i < restaurants.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            OrderJson.appendRestaurant(sb, restaurants.get(i));
+        }
+        sendJson(exchange, 200, sb.append("]}").toString());
+    }
+
+    private void handleOrders(HttpExchange exchange, String subPath) throws IOException {
+        String[] parts = subPath.isEmpty() || subPath.equals("/") ? new String[0] : subPath.substring(1).split("/");
+        String method = exchange.getRequestMethod();
+
+        if (parts.length == 0) {
+            if (method.equals("GET")) {
+                listOrders(exchange);
+            } else if (method.equals("POST")) {
+                createOrder(exchange);
+            } else {
+                sendError(exchange, 405, "Method not allowed");
+            }
+            return;
+        }
+
+        Order order = databaseService.getOrder(parts[0]);
+        if (order == null) {
+            sendError(exchange, 404, "Order not found");
+            return;
+        }
+        if (parts.length == 1) {
+            if (requireMethod(exchange, "GET")) {
+                sendJson(exchange, 200, OrderJson.toJson(order));
+            }
+        } else if (parts.length == 2 && parts[1].equals("status")) {
+            if (requireMethod(exchange, "POST")) {
+                updateStatus(exchange, order);
+            }
+        } else if (parts.length == 2 && parts[1].equals("biker")) {
+            if (requireMethod(exchange, "POST")) {
+                String bikerId = Json.getString(Json.parseObject(readBody(exchange)), "bikerId");
+                if (bikerId == null || bikerId.isBlank()) {
+                    throw new IllegalArgumentException("bikerId is required");
+                }
+                if (databaseService.assignBiker(order, bikerId)) {
+                    sendJson(exchange, 200, OrderJson.toJson(order));
+                } else {
+                    sendError(exchange, 409, "Order is already assigned to " + order.getBikerId());
+                }
+            }
+        } else {
+            sendError(exchange, 404, "Not found");
+        }
+    }
+
+    private void listOrders(HttpExchange exchange) throws IOException {
+        // Read the sequence first so a client polling from it cannot miss a change made while listing
+        long seq = eventLog.currentSeq();
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+        List<Order> orders;
+        if (query.containsKey("userId")) {
+            orders = databaseService.getUserOrders(query.get("userId"));
+        } else if (query.containsKey("restaurantId")) {
+            orders = databaseService.getRestaurantOrders(query.get("restaurantId"));
+        } else {
+            orders = databaseService.getAllOrders();
+        }
+        StringBuilder sb = new StringBuilder(64 + orders.size() * 256);
+        sb.append("{\"seq\":").append(seq).append(",\"orders\":[");
+        for (int i = 0; i < orders.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            OrderJson.appendOrder(sb, orders.get(i));
+        }
+        sendJson(exchange, 200, sb.append("]}").toString());
+    }
+
+    private void createOrder(HttpExchange exchange) throws IOException {
+        Order request = OrderJson.fromJson(Json.parseObject(readBody(exchange)));
+        if (request.getUserId() == null || request.getRestaurantId() == null) {
+            throw new IllegalArgumentException("userId and restaurantId are required");
+        }
+        if (request.getLines().isEmpty()) {
+            throw new IllegalArgumentException("An order needs at least one item");
+        }
+        Restaurant restaurant = databaseService.getRestaurant(request.getRestaurantId());
+        if (restaurant == null) {
+            throw new IllegalArgumentException("Unknown restaurant " + request.getRestaurantId());
+        }
+
+        // IDs and timestamps are always issued here so clients on different machines cannot collide
+        Order order = new Order(IdGenerator.getInstance().nextId("ORD"), request.getUserId(), restaurant.getId());
+        order.setDistrict(restaurant.getDistrict());
+        order.setPaymentMethod(request.getPaymentMethod());
+        // Prices and names come from the menu as it is now; the client only chooses items and quantities
+        Menu menu = restaurant.getCurrentMenu();
+        order.setMenuVersion(menu.getVersion());
+        for (OrderLine line : request.getLines()) {
+            MenuItem item = menu.find(line.getItemId());
+            if (item == null) {
+                throw new IllegalArgumentException("Unknown menu item " + line.getItemId());
+            }
+            if (!item.isAvailable()) {
+                throw new IllegalArgumentException(item.getName() + " is not available");
+            }
+            if (line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for " + item.getName());
+            }
+            order.addLine(OrderLine.of(item, line.getQuantity()));
+        }
+        databaseService.createOrder(order);
+        sendJson(exchange, 201, OrderJson.toJson(order));
+    }
+
+    private void updateStatus(HttpExchange exchange, Order order) throws IOException {
+        String statusName = Json.getString(Json.parseObject(readBody(exchange)), "status");
+        Order.OrderStatus status;
+        try {
+            status = Order.OrderStatus.valueOf(String.valueOf(statusName));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status " + statusName);
+        }
+        Order.OrderStatus current = order.getStatus();
+        if (databaseService.updateOrderStatus(order, status)) {
+            sendJson(exchange, 200, OrderJson.toJson(order));
+        } else {
+            sendError(exchange, 409, "Cannot move order from " + current + " to " + status);
+        }
+    }
+
+    private void handleEvents(HttpExchange exchange, String subPath) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+        long after = Long.parseLong(query.getOrDefault("after", "0"));
+        long timeout = Math.min(MAX_POLL_MILLIS, Long.parseLong(query.getOrDefault("timeout", String.valueOf(DEFAULT_POLL_MILLIS))));
+        try {
+            sendJson(exchange, 200, eventLog.awaitAfter(after, timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Server shutting down");
+        }
+    }
+
+    private boolean hasToken(HttpExchange exchange) {
+        String sent = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        // Constant-time, so the token cannot be guessed a byte at a time from response times
+        return sent != null && MessageDigest.isEqual(token, sent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean requireMethod(HttpExchange exchange, String method) throws IOException {
+        if (!exchange.getRequestMethod().equals(method)) {
+            sendError(exchange, 405, "Method not allowed");
+            return false;
+        }
+        return true;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        Map<String, String> query = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, "{\"error\":" + Json.quote(message) + "}");
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Numbered, bounded history of order changes that clients long-poll to keep their copy of the
+     * order board current. A client that falls further behind than the history reaches is told to
+     * reset and re-list the orders.
+     */
+    private static class EventLog implements DataChangeListener {
+        private final int capacity;
+        private final ArrayDeque<String> entries = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition appended = lock.newCondition();
+        private long lastSeq;
+
+        EventLog(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void onDataChanged(DataChangeEvent event) {
+            if (!event.isOrderEvent()) {
+                return;
+            }
+            lock.lock();
+            try {
+                long seq = ++lastSeq;
+                StringBuilder sb = new StringBuilder(320);
+                sb.append("{\"seq\":").append(seq).append(",\"type\":\"").append(event.getType().name()).append('"');
+                if (event.getPreviousStatus() != null) {
+                    sb.append(",\"previousStatus\":\"").append(event.getPreviousStatus().name()).append('"');
+                }
+                sb.append(",\"order\":");
+                OrderJson.appendOrder(sb, event.getOrder());
+                entries.addLast(sb.append('}').toString());
+                if (entries.size() > capacity) {
+                    entries.removeFirst();
+                }
+                appended.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long currentSeq() {
+            lock.lock();
+            try {
+                return lastSeq;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        String awaitAfter(long after, long timeoutMillis) throws InterruptedException {
+            lock.lock();
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                while (lastSeq <= after && remaining > 0) {
+                    remaining = appended.awaitNanos(remaining);
+                }
+                long firstSeq = lastSeq - entries.size() + 1;
+                boolean reset = after < firstSeq - 1 || after > lastSeq;
+                StringBuilder sb = new StringBuilder();
+                sb.append("{\"seq\":").append(lastSeq).append(",\"reset\":").append(reset).append(",\"events\":[");
+                if (!reset) {
+                    long seq = firstSeq;
+                    boolean first = true;
+                    for (String entry : entries) {
+                        if (seq++ > after) {
+                            if (!first) {
+                                sb.append(',');
+                            }
+                            sb.append(entry);
+                            first = false;
+                        }
+                    }
+                }
+                return sb.append("]}").toString();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
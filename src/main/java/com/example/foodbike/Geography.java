@@ -0,0 +1,202 @@
+package com.example.foodbike;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The fixed dictionary of Bangladesh's 8 divisions and 64 districts. Restaurants, orders and
+ * applications store the small integer codes from this class instead of their own copies of the
+ * names, so location filters compare ints. With exactly 64 districts, a set of districts fits in one
+ * {@code long} bit mask, so "in this division" and "in this district" checks are a single AND.
+ * <p>
+ * The codes are written to the data files: entries may be appended but never reordered or removed.
+ */
+public final class Geography {
+    /** Code for a missing or unrecognised division or district. */
+    public static final int NONE = -1;
+    /** Mask containing every district. */
+    public static final long ALL_DISTRICTS = -1L;
+
+    private static final String[] DIVISIONS = {
+            "Dhaka", "Chittagong", "Sylhet", "Rajshahi", "Khulna", "Barisal", "Rangpur", "Mymensingh"
+    };
+
+    private static final String[][] DISTRICTS_BY_DIVISION = {
+            {"Dhaka", "Gazipur", "Narayanganj", "Tangail", "Munshiganj", "Manikganj", "Narsingdi", "Faridpur", "Rajbari", "Gopalganj", "Madaripur", "Shariatpur", "Kishoreganj"},
+            {"Chittagong", "Cox's Bazar", "Comilla", "Feni", "Brahmanbaria", "Rangamati", "Noakhali", "Chandpur", "Lakshmipur", "Bandarban", "Khagrachari"},
+            {"Sylhet", "Moulvibazar", "Habiganj", "Sunamganj"},
+            {"Rajshahi", "Bogra", "Pabna", "Natore", "Sirajganj", "Naogaon", "Chapainawabganj", "Joypurhat"},
+            {"Khulna", "Jessore", "Satkhira", "Bagerhat", "Jhenaidah", "Magura", "Narail", "Kushtia", "Chuadanga", "Meherpur"},
+            {"Barisal", "Patuakhali", "Bhola", "Pirojpur", "Jhalokati", "Barguna"},
+            {"Rangpur", "Dinajpur", "Lalmonirhat", "Nilphamari", "Gaibandha", "Thakurgaon", "Panchagarh", "Kurigram"},
+            {"Mymensingh", "Jamalpur", "Netrokona", "Sherpur"}
+    };
+
+    private static final String[] DISTRICTS;
+    private static final byte[] DIVISION_OF_DISTRICT;
+    private static final long[] DISTRICTS_OF_DIVISION = new long[DIVISIONS.length];
+    private static final Map<String, Integer> DIVISION_CODES = new HashMap<>();
+    private static final Map<String, Integer> DISTRICT_CODES = new HashMap<>();
+
+    static {
+        List<String> districts = new ArrayList<>();
+        List<Integer> divisionOf = new ArrayList<>();
+        for (int division = 0; division < DIVISIONS.length; division++) {
+            DIVISION_CODES.put(DIVISIONS[division].toLowerCase(Locale.ROOT), division);
+            for (String district : DISTRICTS_BY_DIVISION[division]) {
+                int code = districts.size();
+                districts.add(district);
+                divisionOf.add(division);
+                DISTRICT_CODES.put(district.toLowerCase(Locale.ROOT), code);
+                DISTRICTS_OF_DIVISION[division] |= 1L << code;
+            }
+        }
+        if (districts.size() > Long.SIZE) {
+            throw new ExceptionInInitializerError("District masks hold at most 64 districts");
+        }
+        DISTRICTS = districts.toArray(new String[0]);
+        DIVISION_OF_DISTRICT = new byte[DISTRICTS.length];
+        for (int i = 0; i < DISTRICTS.length; i++) {
+            DIVISION_OF_DISTRICT[i] = (byte) (int) divisionOf.get(i);
+        }
+    }
+
+    private Geography() {
+    }
+
+    public static int divisionCount() {
+        return DIVISIONS.length;
+    }
+
+    public static int districtCount() {
+        return DISTRICTS.length;
+    }
+
+    /** @return the division's code, ignoring case, or {@link #NONE} for null or an unknown name */
+    public static int divisionCode(String name) {
+        Integer code = name != null ? DIVISION_CODES.get(name.trim().toLowerCase(Locale.ROOT)) : null;
+        return code != null ? code : NONE;
+    }
+
+    /** @return the district's code, ignoring case, or {@link #NONE} for null or an unknown name */
+    public static int districtCode(String name) {
+        Integer code = name != null ? DISTRICT_CODES.get(name.trim().toLowerCase(Locale.ROOT)) : null;
+        return code != null ? code : NONE;
+    }
+
+    /** @return the canonical name, or null for {@link #NONE} */
+    public static String divisionName(int code) {
+        return code >= 0 && code < DIVISIONS.length ? DIVISIONS[code] : null;
+    }
+
+    /** @return the canonical name, or null for {@link #NONE} */
+    public static String districtName(int code) {
+        return code >= 0 && code < DISTRICTS.length ? DISTRICTS[code] : null;
+    }
+
+    public static int divisionOfDistrict(int districtCode) {
+        return districtCode >= 0 && districtCode < DISTRICTS.length ? DIVISION_OF_DISTRICT[districtCode] : NONE;
+    }
+
+    /** Bit mask of the districts in {@code divisionCode}, or 0 for {@link #NONE}. */
+    public static long districtsOf(int divisionCode) {
+        return divisionCode >= 0 && divisionCode < DIVISIONS.length ? DISTRICTS_OF_DIVISION[divisionCode] : 0L;
+    }
+
+    public static long districtBit(int districtCode) {
+        return districtCode >= 0 && districtCode < DISTRICTS.length ? 1L << districtCode : 0L;
+    }
+
+    /**
+     * Mask of the districts that satisfy a division filter and a district filter together, where a
+     * null name, or one the dictionary does not know (such as an "All" choice), means no filter.
+     */
+    public static long filterMask(String division, String district) {
+        long mask = ALL_DISTRICTS;
+        int divisionCode = divisionCode(division);
+        if (divisionCode != NONE) {
+            mask &= districtsOf(divisionCode);
+        }
+        int districtCode = districtCode(district);
+        if (districtCode != NONE) {
+            mask &= districtBit(districtCode);
+        }
+        return mask;
+    }
+
+    /** True if the district is in {@code mask}; an unknown district only matches the unfiltered mask. */
+    public static boolean matches(long mask, int districtCode) {
+        return mask == ALL_DISTRICTS || (districtBit(districtCode) & mask) != 0;
+    }
+
+    /**
+     * Code for a division name given as input, where null or blank means none.
+     *
+     * @throws IllegalArgumentException if the name is not one of the 8 divisions
+     */
+    public static int requireDivisionCode(String name) {
+        int code = divisionCode(name);
+        if (code == NONE && name != null && !name.isBlank()) {
+            throw new IllegalArgumentException("Unknown division: " + name);
+        }
+        return code;
+    }
+
+    /**
+     * Code for a district name given as input, where null or blank means none.
+     *
+     * @throws IllegalArgumentException if the name is not one of the 64 districts
+     */
+    public static int requireDistrictCode(String name) {
+        int code = districtCode(name);
+        if (code == NONE && name != null && !name.isBlank()) {
+            throw new IllegalArgumentException("Unknown district: " + name);
+        }
+        return code;
+    }
+
+    /** Code for a name read from an old data file; unknown names are reported and dropped. */
+    static int migrateCode(String name, boolean district) {
+        int code = district ? districtCode(name) : divisionCode(name);
+        if (code == NONE && name != null && !name.isEmpty()) {
+            System.out.println("Unknown " + (district ? "district" : "division") + " '" + name + "' in saved data; leaving it unset");
+        }
+        return code;
+    }
+
+    public static List<String> divisionNames() {
+        return List.of(DIVISIONS);
+    }
+
+    /** District names in code order, which is their order within each division. */
+    public static List<String> districtNames(int divisionCode) {
+        if (divisionCode < 0 || divisionCode >= DIVISIONS.length) {
+            return Collections.emptyList();
+        }
+        return List.of(DISTRICTS_BY_DIVISION[divisionCode]);
+    }
+
+    /** Names of the districts in {@code mask}, sorted alphabetically. */
+    public static List<String> districtNames(long mask) {
+        List<String> names = new ArrayList<>(Long.bitCount(mask));
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            names.add(DISTRICTS[Long.numberOfTrailingZeros(bits)]);
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /** Division name to its district names, in dictionary order. */
+    public static Map<String, List<String>> divisionDistrictsMap() {
+        Map<String, List<String>> map = new LinkedHashMap<>();
+        for (int division = 0; division < DIVISIONS.length; division++) {
+            map.put(DIVISIONS[division], districtNames(division));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.foodbike;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style 64-bit IDs: 41 bits of milliseconds since {@link #EPOCH_MILLIS}, 10 bits of node
+ * id and a 12-bit per-millisecond sequence. The timestamp and sequence share one {@link AtomicLong}
+ * that only moves forward through a CAS loop, so IDs are unique and strictly increasing without a
+ * lock. When a millisecond's 4096 sequence values run out, or the wall clock steps backwards, the
+ * generator keeps counting on from its last value instead of waiting for the clock.
+ */
+public class IdGenerator {
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ID_DIGITS = 19;
+
+    private final long nodeId;
+    // (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    public IdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    // Created on first use, so foodbike.nodeId can still be set before then, without a lock per call
+    private static class Holder {
+        static final IdGenerator INSTANCE = new IdGenerator(Long.getLong("foodbike.nodeId", 0L));
+    }
+
+    public static IdGenerator getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastState.get();
+            long next = now > last ? now : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                        | (nodeId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code prefix + "_" + id} with the id zero-padded to 19 digits so that string IDs
+     * sort in the same order as they were issued.
+     */
+    public String nextId(String prefix) {
+        return format(prefix, nextId());
+    }
+
+    public static String format(String prefix, long id) {
+        String digits = Long.toString(id);
+        StringBuilder sb = new StringBuilder(prefix.length() + 1 + ID_DIGITS);
+        sb.append(prefix).append('_');
+        for (int i = digits.length(); i < ID_DIGITS; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /** Builds the id for a given time, node and sequence, e.g. for records created offline. */
+    public static long compose(long timestampMillis, long nodeId, long sequence) {
+        return ((timestampMillis - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS))
+                | ((nodeId & MAX_NODE_ID) << SEQUENCE_BITS)
+                | (sequence & SEQUENCE_MASK);
+    }
+
+    public static long timestampMillisOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+}
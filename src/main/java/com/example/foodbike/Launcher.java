@@ -4,6 +4,15 @@ import javafx.application.Application;
 
 public class Launcher {
     public static void main(String[] args) {
+        // --server=http://host:8080 shares one FoodBikeServer's orders instead of the local data files;
+        // --token=... is the server's shared token, which can also be given as -Dfoodbike.token
+        for (String arg : args) {
+            if (arg.startsWith("--server=")) {
+                System.setProperty(DatabaseService.SERVER_PROPERTY, arg.substring("--server=".length()));
+            } else if (arg.startsWith("--token=")) {
+                System.setProperty(FoodBikeServer.TOKEN_PROPERTY, arg.substring("--token=".length()));
+            }
+        }
         Application.launch(HelloApplication.class, args);
     }
 }
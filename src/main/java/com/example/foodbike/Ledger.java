@@ -0,0 +1,254 @@
+package com.example.foodbike;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Double-entry, append-only earnings ledger. Every posting debits one account and credits another
+ * by the same amount, so all balances always sum to zero; the accounts people withdraw from
+ * (bikers, restaurants, admins) are credited, and the house accounts they are paid from go negative.
+ *
+ * <p>Entries are appended to {@code ledger.dat} as they are posted and never rewritten. Balances,
+ * totals and per-account statements are kept up to date in memory as entries are applied, so a
+ * balance lookup is O(1). Postings are keyed by kind and reference (e.g. the delivery fee for one
+ * order), and a posting that was already made is ignored, so callers may post for the same order
+ * every time they see it change.
+ */
+public class Ledger {
+    public static final String CUSTOMER_PAYMENTS = "house:customer-payments";
+    public static final String DELIVERY_FEES = "house:delivery-fees";
+    public static final String ADMIN_FEES = "house:admin-fees";
+    public static final String WITHDRAWALS = "house:withdrawals";
+    /** Admin income is shared by all admins, as the balance screen has always shown it. */
+    public static final String ADMIN_ACCOUNT = "admin";
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final Map<String, Account> accounts = new HashMap<>();
+    private final Map<LedgerEntry.Kind, Set<String>> posted = new EnumMap<>(LedgerEntry.Kind.class);
+    private long nextSequence = 1;
+    private DataOutputStream out;
+    private boolean batching;
+
+    private static class Account {
+        long balance;
+        long credited;
+        long debited;
+        int creditCount;
+        final List<LedgerEntry> entries = new ArrayList<>();
+    }
+
+    /** Opens the ledger stored in {@code file}, creating an empty one if it does not exist. */
+    public Ledger(File file) throws IOException {
+        this.file = file;
+        for (LedgerEntry.Kind kind : LedgerEntry.Kind.values()) {
+            posted.put(kind, new HashSet<>());
+        }
+        boolean existed = file.exists() && file.length() >= Integer.BYTES;
+        if (existed) {
+            load();
+        }
+        // A file too short to hold the header is started over
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, existed)));
+        if (!existed) {
+            out.writeInt(FORMAT_VERSION);
+            out.flush();
+        }
+    }
+
+    public static String bikerAccount(String username) {
+        return "biker:" + username;
+    }
+
+    public static String restaurantAccount(String restaurantId) {
+        return "restaurant:" + restaurantId;
+    }
+
+    public synchronized boolean isEmpty() {
+        return nextSequence == 1;
+    }
+
+    /**
+     * Records {@code amountMinor} moving from {@code debitAccount} to {@code creditAccount}.
+     *
+     * @return false if an entry of this kind was already posted for {@code reference}
+     */
+    public synchronized boolean post(LedgerEntry.Kind kind, String reference, long timestampMillis,
+                                     String debitAccount, String creditAccount, long amountMinor) {
+        if (amountMinor <= 0 || !posted.get(kind).add(reference)) {
+            return false;
+        }
+        LedgerEntry entry = apply(nextSequence++, kind, reference, timestampMillis, debitAccount, creditAccount, amountMinor);
+        try {
+            write(entry);
+            if (!batching) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing ledger entry " + entry.getSequence() + ": " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Pays {@code amountMinor} out of {@code account} if it holds at least that much.
+     *
+     * @return false if the balance is too low
+     */
+    public synchronized boolean withdraw(String account, String reference, long timestampMillis, long amountMinor) {
+        if (amountMinor <= 0 || getBalance(account) < amountMinor) {
+            return false;
+        }
+        return post(LedgerEntry.Kind.WITHDRAWAL, reference, timestampMillis, account, WITHDRAWALS, amountMinor);
+    }
+
+    /** Defers flushing while many entries are posted at once, e.g. when building a ledger for old data. */
+    public synchronized void beginBatch() {
+        batching = true;
+    }
+
+    public synchronized void endBatch() {
+        batching = false;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("Error writing ledger: " + e.getMessage());
+        }
+    }
+
+    public synchronized boolean isPosted(LedgerEntry.Kind kind, String reference) {
+        return posted.get(kind).contains(reference);
+    }
+
+    public synchronized long getBalance(String account) {
+        Account a = accounts.get(account);
+        return a != null ? a.balance : 0;
+    }
+
+    public synchronized long getTotalCredited(String account) {
+        Account a = accounts.get(account);
+        return a != null ? a.credited : 0;
+    }
+
+    public synchronized long getTotalDebited(String account) {
+        Account a = accounts.get(account);
+        return a != null ? a.debited : 0;
+    }
+
+    /** Number of entries that paid into the account, e.g. a biker's delivery count. */
+    public synchronized int getCreditCount(String account) {
+        Account a = accounts.get(account);
+        return a != null ? a.creditCount : 0;
+    }
+
+    /** The account's entries, oldest first. */
+    public synchronized List<LedgerEntry> getEntries(String account) {
+        Account a = accounts.get(account);
+        return a != null ? new ArrayList<>(a.entries) : Collections.emptyList();
+    }
+
+    public synchronized void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.out.println("Error closing ledger: " + e.getMessage());
+        }
+    }
+
+    private LedgerEntry apply(long sequence, LedgerEntry.Kind kind, String reference, long timestampMillis,
+                              String debitAccount, String creditAccount, long amountMinor) {
+        Account debit = accounts.computeIfAbsent(debitAccount, k -> new Account());
+        Account credit = accounts.computeIfAbsent(creditAccount, k -> new Account());
+        debit.balance -= amountMinor;
+        debit.debited += amountMinor;
+        credit.balance += amountMinor;
+        credit.credited += amountMinor;
+        credit.creditCount++;
+        LedgerEntry entry = new LedgerEntry(sequence, kind, reference, timestampMillis, debitAccount,
+                creditAccount, amountMinor, debit.balance, credit.balance);
+        debit.entries.add(entry);
+        credit.entries.add(entry);
+        return entry;
+    }
+
+    private void write(LedgerEntry entry) throws IOException {
+        out.writeLong(entry.getSequence());
+        out.writeByte(entry.getKind().ordinal());
+        out.writeUTF(entry.getReference());
+        out.writeLong(entry.getTimestampMillis());
+        out.writeUTF(entry.getDebitAccount());
+        out.writeUTF(entry.getCreditAccount());
+        out.writeLong(entry.getAmountMinor());
+    }
+
+    private void load() throws IOException {
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported ledger format " + version + " in " + file);
+            }
+            validLength = Integer.BYTES;
+            LedgerEntry.Kind[] kinds = LedgerEntry.Kind.values();
+            while (true) {
+                long sequence;
+                try {
+                    sequence = in.readLong();
+                } catch (EOFException end) {
+                    break;
+                }
+                LedgerEntry.Kind kind = kinds[in.readByte()];
+                String reference = in.readUTF();
+                long timestamp = in.readLong();
+                String debitAccount = in.readUTF();
+                String creditAccount = in.readUTF();
+                long amount = in.readLong();
+                posted.get(kind).add(reference);
+                apply(sequence, kind, reference, timestamp, debitAccount, creditAccount, amount);
+                nextSequence = sequence + 1;
+                validLength += recordLength(reference, debitAccount, creditAccount);
+            }
+        } catch (EOFException truncated) {
+            // The last entry was cut off mid-write; drop it so new entries start on a clean boundary
+            System.out.println("Discarding incomplete entry at the end of " + file);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+        System.out.println("Successfully loaded " + (nextSequence - 1) + " ledger entries from file.");
+    }
+
+    private static long recordLength(String... strings) {
+        long length = Long.BYTES + 1 + Long.BYTES + Long.BYTES + Long.BYTES;
+        for (String s : strings) {
+            length += 2 + utfLength(s);
+        }
+        return length;
+    }
+
+    private static int utfLength(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            length += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        return length;
+    }
+}
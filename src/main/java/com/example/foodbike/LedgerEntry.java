@@ -0,0 +1,79 @@
+package com.example.foodbike;
+
+/**
+ * One posting in the {@link Ledger}: {@code amountMinor} (in poisha, 1/100 ৳) moves from the debit
+ * account to the credit account. Entries are never changed or removed once written; each carries
+ * the two accounts' balances just after it was applied so a statement needs no re-summing.
+ */
+public final class LedgerEntry {
+    public enum Kind {
+        /** Restaurant is paid for an order: on placement for Bkash/Nagad, on delivery for cash. */
+        SALE,
+        /** Flat fee to the biker who delivered an order. */
+        DELIVERY_FEE,
+        /** Flat fee to the admins for each logged admin action. */
+        ADMIN_FEE,
+        /** Money paid out of an account. */
+        WITHDRAWAL
+    }
+
+    private final long sequence;
+    private final Kind kind;
+    private final String reference;
+    private final long timestampMillis;
+    private final String debitAccount;
+    private final String creditAccount;
+    private final long amountMinor;
+    private final long debitBalanceAfter;
+    private final long creditBalanceAfter;
+
+    LedgerEntry(long sequence, Kind kind, String reference, long timestampMillis, String debitAccount,
+                String creditAccount, long amountMinor, long debitBalanceAfter, long creditBalanceAfter) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.reference = reference;
+        this.timestampMillis = timestampMillis;
+        this.debitAccount = debitAccount;
+        this.creditAccount = creditAccount;
+        this.amountMinor = amountMinor;
+        this.debitBalanceAfter = debitBalanceAfter;
+        this.creditBalanceAfter = creditBalanceAfter;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /** The order ID, admin action ID or withdrawal ID the entry was posted for. */
+    public String getReference() {
+        return reference;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getDebitAccount() {
+        return debitAccount;
+    }
+
+    public String getCreditAccount() {
+        return creditAccount;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public long getDebitBalanceAfter() {
+        return debitBalanceAfter;
+    }
+
+    public long getCreditBalanceAfter() {
+        return creditBalanceAfter;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.foodbike;
+
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Brings an observable list in line with a new list through removals and insertions, instead of
+ * replacing every element. Rows that stay keep their cells, so a list or table view only redraws
+ * what changed. Elements are matched with {@code equals} and must be unique within each list.
+ */
+final class ListDiff {
+    private ListDiff() {
+    }
+
+    static <T> void apply(ObservableList<T> current, List<T> target) {
+        if (current.equals(target)) {
+            return;
+        }
+        Map<T, Integer> targetPositions = new HashMap<>(target.size() * 4 / 3 + 1);
+        for (int i = 0; i < target.size(); i++) {
+            targetPositions.put(target.get(i), i);
+        }
+        // Removals and insertions alone can only reach the target if the elements both lists share
+        // are already in the same relative order; otherwise replace the lot in one change.
+        int lastPosition = -1;
+        for (T element : current) {
+            Integer position = targetPositions.get(element);
+            if (position != null) {
+                if (position < lastPosition) {
+                    current.setAll(target);
+                    return;
+                }
+                lastPosition = position;
+            }
+        }
+
+        current.removeIf(element -> !targetPositions.containsKey(element));
+        Set<T> kept = new HashSet<>(current);
+        int i = 0;
+        while (i < target.size()) {
+            if (kept.contains(target.get(i))) {
+                i++;
+                continue;
+            }
+            int runEnd = i;
+            while (runEnd < target.size() && !kept.contains(target.get(runEnd))) {
+                runEnd++;
+            }
+            current.addAll(i, target.subList(i, runEnd));
+            i = runEnd;
+        }
+    }
+}
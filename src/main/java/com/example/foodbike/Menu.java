@@ -0,0 +1,139 @@
+package com.example.foodbike;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+/**
+ * One published version of a restaurant's menu. A menu never changes once built: each edit makes a
+ * new {@code Menu} with the next version number that shares the untouched {@link MenuItem}s with the
+ * one before, so screens can read the current menu without locking and an order can name the version
+ * it was placed from. Availability is not versioned, since it does not change what an order was
+ * charged: a sold-out toggle makes a new {@code Menu} with the same version number.
+ */
+public final class Menu implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** The empty menu every restaurant starts from. */
+    public static final Menu EMPTY = new Menu(0, List.of());
+
+    // Not final only so readObject can set them; a Menu is never changed after readResolve
+    private int version;
+    private ArrayList<MenuItem> items;
+    // Read-only view of items handed out by getItems
+    private final transient List<MenuItem> view;
+    // Item ID to its index in items, so lookups and edits by ID do not scan the list
+    private final transient Map<String, Integer> positions;
+
+    private Menu(int version, List<MenuItem> items) {
+        this.version = version;
+        this.items = new ArrayList<>(items);
+        this.view = Collections.unmodifiableList(this.items);
+        this.positions = new HashMap<>(items.size() * 2);
+        for (int i = 0; i < items.size(); i++) {
+            positions.put(items.get(i).getId(), i);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        version = fields.get("version", 0);
+        // Copied because earlier builds saved an immutable list here
+        List<MenuItem> saved = (List<MenuItem>) fields.get("items", null);
+        items = saved != null ? new ArrayList<>(saved) : new ArrayList<>();
+    }
+
+    /** Rebuilds the transient view and ID index after deserialization. */
+    private Object readResolve() {
+        return new Menu(version, items);
+    }
+
+    /** Version 1 of a menu saved before menus were versioned. */
+    static Menu legacy(List<MenuItem> items) {
+        return new Menu(1, new ArrayList<>(items));
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /** The items in display order; the list cannot be modified. */
+    public List<MenuItem> getItems() {
+        return view;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /** @return the item with {@code itemId}, or null if this version does not have it */
+    public MenuItem find(String itemId) {
+        int index = indexOf(itemId);
+        return index >= 0 ? items.get(index) : null;
+    }
+
+    /** The next version with {@code newItems} appended; an item whose ID is already there replaces it. */
+    public Menu withAdded(Collection<MenuItem> newItems) {
+        List<MenuItem> next = new ArrayList<>(items.size() + newItems.size());
+        next.addAll(items);
+        Map<String, Integer> nextPositions = new HashMap<>(positions);
+        for (MenuItem item : newItems) {
+            Integer index = nextPositions.putIfAbsent(item.getId(), next.size());
+            if (index != null) {
+                next.set(index, item);
+            } else {
+                next.add(item);
+            }
+        }
+        return new Menu(version + 1, next);
+    }
+
+    /**
+     * The next version with the item of the same ID replaced in place, or appended if there is none.
+     * If only the item's availability changed, the result keeps this version's number.
+     */
+    public Menu withReplaced(MenuItem item) {
+        List<MenuItem> next = new ArrayList<>(items);
+        int index = indexOf(item.getId());
+        boolean availabilityOnly = false;
+        if (index >= 0) {
+            availabilityOnly = sameExceptAvailability(items.get(index), item);
+            next.set(index, item);
+        } else {
+            next.add(item);
+        }
+        return new Menu(availabilityOnly ? version : version + 1, next);
+    }
+
+    private static boolean sameExceptAvailability(MenuItem a, MenuItem b) {
+        return a.getPriceMinor() == b.getPriceMinor() && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getDescription(), b.getDescription());
+    }
+
+    /** The next version without the item, or this menu if it does not have it. */
+    public Menu withRemoved(String itemId) {
+        int index = indexOf(itemId);
+        if (index < 0) {
+            return this;
+        }
+        List<MenuItem> next = new ArrayList<>(items);
+        next.remove(index);
+        return new Menu(version + 1, next);
+    }
+
+    public boolean contains(String itemId) {
+        return positions.containsKey(itemId);
+    }
+
+    private int indexOf(String itemId) {
+        Integer index = positions.get(itemId);
+        return index != null ? index : -1;
+    }
+}
@@ -9,6 +9,7 @@ import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 public class MenuController {
@@ -19,10 +20,18 @@ public class MenuController {
     @FXML private Label totalLabel;
 
     private Restaurant restaurant;
+    // The menu version shown, which the order records
+    private Menu menu;
     private User currentUser;
     private Map<MenuItem, Integer> selectedItems;
     private DatabaseService databaseService;
+    // Items shown with a "Most ordered" badge
+    private Set<String> mostOrderedItemIds = Set.of();
 
+    private static final int MOST_ORDERED_BADGES = 3;
+    // Units an item must certainly have sold before it gets a badge
+    private static final int MOST_ORDERED_MIN_UNITS = 3;
+    private static final DateTimeFormatter REVIEW_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     @FXML
     public void initialize() {
         databaseService = DatabaseService.getInstance();
@@ -44,7 +53,14 @@ public class MenuController {
     public void loadMenu() {
         menuItemsVBox.getChildren().clear();
 
-        for (MenuItem item : restaurant.getMenu()) {
+        menu = restaurant.getCurrentMenu();
+        mostOrderedItemIds = new HashSet<>();
+        for (SpaceSaving.Entry<String> entry : databaseService.getPopularDishes().getMostOrdered(restaurant.getId(), MOST_ORDERED_BADGES)) {
+            if (entry.getGuaranteedCount() >= MOST_ORDERED_MIN_UNITS) {
+                mostOrderedItemIds.add(entry.getKey());
+            }
+        }
+        for (MenuItem item : menu.getItems()) {
             VBox itemCard = createMenuItemCard(item);
             menuItemsVBox.getChildren().add(itemCard);
         }
@@ -63,19 +79,29 @@ public class MenuController {
         Label nameLabel = new Label(item.getName());
         nameLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: #1a1a1a;");
 
+        HBox nameBox = new HBox(8, nameLabel);
+        nameBox.setStyle("-fx-alignment: center-left;");
+        if (mostOrderedItemIds.contains(item.getId())) {
+            Label badgeLabel = new Label("🔥 Most ordered");
+            badgeLabel.setStyle("-fx-font-size: 11; -fx-font-weight: bold; -fx-text-fill: white; -fx-background-color: #e67e22; -fx-background-radius: 10; -fx-padding: 2 8;");
+            nameBox.getChildren().add(badgeLabel);
+        }
         Label descLabel = new Label(item.getDescription());
         descLabel.setStyle("-fx-font-size: 12; -fx-font-weight: 600; -fx-text-fill: #333333;");
         descLabel.setWrapText(true);
 
-        Label priceLabel = new Label("৳" + String.format("%.2f", item.getPrice()));
+        Label priceLabel = new Label(Money.format(item.getPriceMinor()));
         priceLabel.setStyle("-fx-font-size: 13; -fx-font-weight: bold; -fx-text-fill: #1B5E20;");
 
         Button addBtn = new Button("+ Add to Order");
         addBtn.setStyle("-fx-padding: 8; -fx-font-size: 12; -fx-background-color: #3498db; -fx-text-fill: white; -fx-border-radius: 4; -fx-cursor: hand;");
         addBtn.setMaxWidth(Double.MAX_VALUE);
         addBtn.setOnAction(e -> addItemToOrder(item));
-
-        card.getChildren().addAll(nameLabel, descLabel, priceLabel, addBtn);
+        if (!item.isAvailable()) {
+            addBtn.setText("Sold Out");
+            addBtn.setDisable(true);
+        }
+        card.getChildren().addAll(nameBox, descLabel, priceLabel, addBtn);
         return card;
     }
 
@@ -87,11 +113,11 @@ public class MenuController {
     private void updateOrderSummary() {
         selectedItemsVBox.getChildren().clear();
 
-        double total = 0;
+        long totalMinor = 0;
         for (MenuItem item : selectedItems.keySet()) {
             int quantity = selectedItems.get(item);
-            double itemTotal = item.getPrice() * quantity;
-            total += itemTotal;
+            long itemTotal = item.getPriceMinor() * quantity;
+            totalMinor += itemTotal;
 
             HBox itemRow = new HBox();
             itemRow.setStyle("-fx-padding: 8; -fx-background-color: #f9f9f9; -fx-border-radius: 4;");
@@ -121,14 +147,14 @@ public class MenuController {
 
             quantityBox.getChildren().addAll(minusBtn, quantityLabel, plusBtn);
 
-            Label priceLabel = new Label("৳" + String.format("%.2f", itemTotal));
+            Label priceLabel = new Label(Money.format(itemTotal));
             priceLabel.setStyle("-fx-font-size: 12; -fx-font-weight: bold; -fx-text-fill: #27ae60;");
 
             itemRow.getChildren().addAll(itemLabel, spacer, quantityBox, priceLabel);
             selectedItemsVBox.getChildren().add(itemRow);
         }
 
-        totalLabel.setText("৳" + String.format("%.2f", total));
+        totalLabel.setText(Money.format(totalMinor));
     }
 
     private void increaseQuantity(MenuItem item) {
@@ -157,18 +183,23 @@ public class MenuController {
             return;
         }
 
-        String orderId = "ORD_" + System.currentTimeMillis();
+        String orderId = IdGenerator.getInstance().nextId("ORD");
         Order order = new Order(orderId, currentUser.getUsername(), restaurant.getId());
         order.setDistrict(restaurant.getDistrict());
-
-        for (MenuItem item : selectedItems.keySet()) {
-            for (int i = 0; i < selectedItems.get(item); i++) {
-                order.addItem(item);
-            }
+        order.setMenuVersion(menu.getVersion());
+        for (Map.Entry<MenuItem, Integer> selected : selectedItems.entrySet()) {
+            order.addItem(selected.getKey(), selected.getValue());
         }
 
         if (showPaymentMethodDialog(order)) {
-            databaseService.createOrder(order);
+            if (!databaseService.createOrder(order)) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Order Failed");
+                alert.setHeaderText(null);
+                alert.setContentText("Your order could not be placed. Please check your connection and try again.");
+                alert.showAndWait();
+                return;
+            }
             showOrderConfirmationDialog(order);
             selectedItems.clear();
             updateOrderSummary();
@@ -184,7 +215,7 @@ public class MenuController {
         content.setSpacing(15);
         content.setPadding(new Insets(20));
 
-        Label totalLabel = new Label("Total Amount: ৳" + String.format("%.2f", order.getTotalPrice()));
+        Label totalLabel = new Label("Total Amount: " + Money.format(order.getTotalMinor()));
         totalLabel.setStyle("-fx-font-size: 16; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
 
         ToggleGroup paymentGroup = new ToggleGroup();
@@ -300,7 +331,7 @@ public class MenuController {
         totalBox.setStyle("-fx-padding: 15; -fx-background-color: #e8f8f5; -fx-border-radius: 8; -fx-alignment: center;");
         Label totalTextLabel = new Label("Total Price:");
         totalTextLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14;");
-        Label totalPriceLabel = new Label("৳" + String.format("%.2f", order.getTotalPrice()));
+        Label totalPriceLabel = new Label(Money.format(order.getTotalMinor()));
         totalPriceLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 18; -fx-text-fill: #27ae60;");
         totalBox.getChildren().addAll(totalTextLabel, totalPriceLabel);
 
@@ -374,7 +405,7 @@ public class MenuController {
                 commentLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #2c3e50;");
                 commentLabel.setWrapText(true);
 
-                Label dateLabel = new Label(review.getCreatedAt().toString().substring(0, 10));
+                Label dateLabel = new Label(review.getCreatedAtMillis() != 0 ? review.getCreatedAt().format(REVIEW_DATE_FORMAT) : "");
                 dateLabel.setStyle("-fx-font-size: 10; -fx-text-fill: #95a5a6;");
 
                 reviewCard.getChildren().addAll(headerBox, commentLabel, dateLabel);
@@ -1,5 +1,7 @@
 package com.example.foodbike;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 public class MenuItem implements Serializable {
@@ -8,59 +10,62 @@ public class MenuItem implements Serializable {
     private String id;
     private String name;
     private String description;
-    private double price;
+    private long priceMinor;
     private boolean available;
 
-    public MenuItem(String id, String name, String description, double price) {
+    public MenuItem(String id, String name, String description, long priceMinor) {
+        this(id, name, description, priceMinor, true);
+    }
+
+    public MenuItem(String id, String name, String description, long priceMinor, boolean available) {
         this.id = id;
         this.name = name;
         this.description = description;
-        this.price = price;
-        this.available = true;
+        this.priceMinor = priceMinor;
+        this.available = available;
     }
 
     public String getId() {
         return id;
     }
 
-    public void setId(String id) {
-        this.id = id;
-    }
-
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public String getDescription() {
         return description;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
+    public long getPriceMinor() {
+        return priceMinor;
     }
 
-    public double getPrice() {
-        return price;
+    public boolean isAvailable() {
+        return available;
     }
 
-    public void setPrice(double price) {
-        this.price = price;
+    /** A copy with new details; menu items are shared between menu versions, so they are never changed in place. */
+    public MenuItem withDetails(String name, String description, long priceMinor) {
+        return new MenuItem(id, name, description, priceMinor, available);
     }
 
-    public boolean isAvailable() {
-        return available;
+    public MenuItem withAvailable(boolean available) {
+        return new MenuItem(id, name, description, priceMinor, available);
     }
 
-    public void setAvailable(boolean available) {
-        this.available = available;
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        id = (String) fields.get("id", null);
+        name = (String) fields.get("name", null);
+        description = (String) fields.get("description", null);
+        available = fields.get("available", false);
+        // Items saved before amounts were held in poisha have a "price" in taka instead
+        priceMinor = fields.defaulted("priceMinor") ? Money.ofMajor(fields.get("price", 0.0)) : fields.get("priceMinor", 0L);
     }
 
     @Override
     public String toString() {
-        return name + " - ৳" + price;
+        return name + " - " + Money.format(priceMinor);
     }
 }
@@ -0,0 +1,62 @@
+package com.example.foodbike;
+
+/**
+ * Amounts of taka are held as a {@code long} count of poisha (1/100 taka) everywhere in the model,
+ * so totals are exact and sums are plain integer additions. This class converts to and from the
+ * decimal taka users type and see. Formatting builds the string by hand rather than through
+ * {@code String.format}, and whole-taka amounts up to {@link #CACHED_TAKA} are formatted once and
+ * reused, since menu prices and most totals are whole taka.
+ */
+public final class Money {
+    public static final String SYMBOL = "৳";
+    public static final long MINOR_PER_MAJOR = 100;
+    private static final int CACHED_TAKA = 10_000;
+
+    private static final String[] cachedWholeAmounts = new String[CACHED_TAKA + 1];
+
+    private Money() {
+    }
+
+    /** Converts an amount in taka, e.g. from a spinner, to poisha, rounding to the nearest poisha. */
+    public static long ofMajor(double taka) {
+        return Math.round(taka * MINOR_PER_MAJOR);
+    }
+
+    public static double toMajor(long minor) {
+        return minor / (double) MINOR_PER_MAJOR;
+    }
+
+    /** Formats as {@code ৳1234.50}; the same text {@code "৳" + String.format("%.2f", taka)} gave. */
+    public static String format(long minor) {
+        return SYMBOL + formatAmount(minor);
+    }
+
+    /** Formats without the currency symbol, as {@code 1234.50}. */
+    public static String formatAmount(long minor) {
+        if (minor >= 0 && minor % MINOR_PER_MAJOR == 0 && minor / MINOR_PER_MAJOR <= CACHED_TAKA) {
+            int taka = (int) (minor / MINOR_PER_MAJOR);
+            String cached = cachedWholeAmounts[taka];
+            if (cached == null) {
+                // Racing threads may both build the string; either copy is correct
+                cached = buildAmount(minor);
+                cachedWholeAmounts[taka] = cached;
+            }
+            return cached;
+        }
+        return buildAmount(minor);
+    }
+
+    private static String buildAmount(long minor) {
+        StringBuilder sb = new StringBuilder(16);
+        if (minor < 0) {
+            sb.append('-');
+        }
+        long abs = Math.abs(minor);
+        long fraction = abs % MINOR_PER_MAJOR;
+        sb.append(abs / MINOR_PER_MAJOR).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.foodbike;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 public class Order implements Serializable {
@@ -12,25 +16,46 @@ public class Order implements Serializable {
         PENDING, CONFIRMED, PREPARING, READY, DELIVERED, CANCELLED, AUTO_CANCELLED
     }
 
+    /**
+     * Newest order first; ties on creation time are broken by order ID so the order is total. The
+     * time-sorted indexes in {@link DatabaseService} use this, so an order's creation time and ID
+     * must not change once it has been stored.
+     */
+    public static final Comparator<Order> NEWEST_FIRST =
+            Comparator.comparingLong(Order::getCreatedAtMillis).thenComparing(Order::getOrderId).reversed();
+
+    private static final long AUTO_CANCEL_AFTER_MILLIS = 60 * 60 * 1000L;
+
     private String orderId;
     private String userId;
     private String restaurantId;
-    private String district;
-    private List<MenuItem> items;
-    private double totalPrice;
+    // Geography district code
+    private byte districtCode = Geography.NONE;
+    private ArrayList<OrderLine> lines;
+    private long totalMinor;
     private OrderStatus status;
-    private LocalDateTime createdAt;
+    private long createdAtMillis;
     private String bikerId;
+    // Epoch millis at which the current biker took the order; 0 = no biker or unknown
+    private long bikerAssignedAtMillis;
     private String paymentMethod;
+    // Version of the restaurant's menu the order was placed from (see Restaurant.getMenuVersion); 0 if unknown
+    private int menuVersion;
+    // Epoch millis at which the order entered each status, indexed by OrderStatus ordinal; 0 = never
+    private long[] statusEnteredAt;
+    // Bumped on every change so cached projections (see OrderRowCache) can tell they are stale
+    private transient long version;
 
     public Order(String orderId, String userId, String restaurantId) {
         this.orderId = orderId;
         this.userId = userId;
         this.restaurantId = restaurantId;
-        this.items = new ArrayList<>();
-        this.totalPrice = 0;
+        this.lines = new ArrayList<>();
+        this.totalMinor = 0;
         this.status = OrderStatus.PENDING;
-        this.createdAt = LocalDateTime.now();
+        this.createdAtMillis = System.currentTimeMillis();
+        this.statusEnteredAt = new long[OrderStatus.values().length];
+        this.statusEnteredAt[OrderStatus.PENDING.ordinal()] = createdAtMillis;
     }
 
     public String getOrderId() {
@@ -58,28 +83,102 @@ public class Order implements Serializable {
     }
 
     public String getDistrict() {
-        return district;
+        return Geography.districtName(getDistrictCode());
+    }
+
+    public int getDistrictCode() {
+        return districtCode;
     }
 
     public void setDistrict(String district) {
-        this.district = district;
+        this.districtCode = (byte) Geography.requireDistrictCode(district);
     }
 
-    public List<MenuItem> getItems() {
-        return items;
+    public List<OrderLine> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    /** Total number of units across all lines. */
+    public int getItemCount() {
+        int count = 0;
+        for (OrderLine line : lines) {
+            count += line.getQuantity();
+        }
+        return count;
     }
 
     public void addItem(MenuItem item) {
-        this.items.add(item);
-        this.totalPrice += item.getPrice();
+        addItem(item, 1);
     }
 
-    public double getTotalPrice() {
-        return totalPrice;
+    public void addItem(MenuItem item, int quantity) {
+        addLine(OrderLine.of(item, quantity));
     }
 
-    public void setTotalPrice(double totalPrice) {
-        this.totalPrice = totalPrice;
+    /** Adds {@code line}, merging it into an existing line for the same item and price. */
+    public void addLine(OrderLine line) {
+        mergeLine(lines, line);
+        this.totalMinor += line.getLineTotalMinor();
+        version++;
+    }
+
+    private static void mergeLine(List<OrderLine> lines, OrderLine line) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isSameItem(line)) {
+                lines.set(i, lines.get(i).plus(line.getQuantity()));
+                return;
+            }
+        }
+        lines.add(line);
+    }
+
+    /**
+     * Reads the current format and each older one: per-unit "items" before order lines, a double
+     * "totalPrice" in taka before poisha, a "district" name before geography codes, and a
+     * LocalDateTime "createdAt" before epoch millis.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        orderId = (String) fields.get("orderId", null);
+        userId = (String) fields.get("userId", null);
+        restaurantId = (String) fields.get("restaurantId", null);
+        status = (OrderStatus) fields.get("status", null);
+        bikerId = (String) fields.get("bikerId", null);
+        bikerAssignedAtMillis = fields.get("bikerAssignedAtMillis", 0L);
+        paymentMethod = (String) fields.get("paymentMethod", null);
+        menuVersion = fields.get("menuVersion", 0);
+        statusEnteredAt = (long[]) fields.get("statusEnteredAt", null);
+
+        if (fields.defaulted("lines")) {
+            lines = new ArrayList<>();
+            List<MenuItem> items = (List<MenuItem>) fields.get("items", null);
+            if (items != null) {
+                for (MenuItem item : items) {
+                    mergeLine(lines, OrderLine.of(item, 1));
+                }
+            }
+        } else {
+            List<OrderLine> saved = (List<OrderLine>) fields.get("lines", null);
+            lines = saved != null ? new ArrayList<>(saved) : new ArrayList<>();
+        }
+        totalMinor = fields.defaulted("totalMinor") ? Money.ofMajor(fields.get("totalPrice", 0.0)) : fields.get("totalMinor", 0L);
+        districtCode = fields.defaulted("districtCode")
+                ? (byte) Geography.migrateCode((String) fields.get("district", null), true)
+                : fields.get("districtCode", (byte) Geography.NONE);
+        createdAtMillis = fields.defaulted("createdAtMillis")
+                ? Timestamps.toMillis((LocalDateTime) fields.get("createdAt", null))
+                : fields.get("createdAtMillis", 0L);
+    }
+
+    /** The order total in poisha; see {@link Money}. */
+    public long getTotalMinor() {
+        return totalMinor;
+    }
+
+    public void setTotalMinor(long totalMinor) {
+        this.totalMinor = totalMinor;
+        version++;
     }
 
     public OrderStatus getStatus() {
@@ -88,14 +187,100 @@ public class Order implements Serializable {
 
     public void setStatus(OrderStatus status) {
         this.status = status;
+        statusTimestamps()[status.ordinal()] = System.currentTimeMillis();
+        version++;
+    }
+
+    public LocalDateTime getStatusEnteredAt(OrderStatus status) {
+        return Timestamps.toDateTime(statusTimestamps()[status.ordinal()]);
+    }
+
+    /**
+     * @return milliseconds between entering {@code from} and entering {@code to}, or -1 if the
+     *         order has not been through both states
+     */
+    public long getMillisBetween(OrderStatus from, OrderStatus to) {
+        long[] timestamps = statusTimestamps();
+        long start = timestamps[from.ordinal()];
+        long end = timestamps[to.ordinal()];
+        return start == 0 || end == 0 || end < start ? -1 : end - start;
+    }
+
+    /**
+     * @return milliseconds between the order becoming READY and a biker taking it, or -1 if it has
+     *         not been through both
+     */
+    public long getPickupLatencyMillis() {
+        long ready = statusTimestamps()[OrderStatus.READY.ordinal()];
+        return ready == 0 || bikerAssignedAtMillis == 0 || bikerAssignedAtMillis < ready ? -1 : bikerAssignedAtMillis - ready;
+    }
+
+    long getStatusEnteredAtMillis(OrderStatus status) {
+        return statusTimestamps()[status.ordinal()];
+    }
+
+    /** Epoch millis of the latest status change or biker assignment, or the creation time if neither happened. */
+    long getLastChangedAtMillis() {
+        long latest = bikerAssignedAtMillis;
+        for (long enteredAt : statusTimestamps()) {
+            latest = Math.max(latest, enteredAt);
+        }
+        return latest;
+    }
+    /** Sets the status and its history as recorded elsewhere (e.g. by the server) without re-stamping. */
+    void restoreStatus(OrderStatus status, long[] enteredAt) {
+        this.status = status;
+        this.statusEnteredAt = enteredAt.clone();
+        version++;
+    }
+
+    /** Copies the fields that change after creation from {@code other}, keeping this instance's identity. */
+    void copyStateFrom(Order other) {
+        restoreStatus(other.status, other.statusTimestamps());
+        this.bikerId = other.bikerId;
+        this.bikerAssignedAtMillis = other.bikerAssignedAtMillis;
+        this.paymentMethod = other.paymentMethod;
+    }
+
+    /** Copies the lines, total and menu version from {@code other}, e.g. as priced by the server. */
+    void copyLinesFrom(Order other) {
+        this.lines = new ArrayList<>(other.lines);
+        this.totalMinor = other.totalMinor;
+        this.menuVersion = other.menuVersion;
+        version++;
+    }
+
+    private long[] statusTimestamps() {
+        if (statusEnteredAt == null) {
+            // Orders saved before per-state timestamps only know when they were created
+            statusEnteredAt = new long[OrderStatus.values().length];
+            statusEnteredAt[OrderStatus.PENDING.ordinal()] = createdAtMillis;
+        }
+        return statusEnteredAt;
+    }
+
+    /** Number of changes made to this instance since it was created or loaded; not persisted. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** Creation time in epoch millis, or 0 if unknown. */
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public void setCreatedAtMillis(long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+        statusTimestamps()[OrderStatus.PENDING.ordinal()] = createdAtMillis;
+        version++;
     }
 
     public LocalDateTime getCreatedAt() {
-        return createdAt;
+        return Timestamps.toDateTime(createdAtMillis);
     }
 
     public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
+        setCreatedAtMillis(Timestamps.toMillis(createdAt));
     }
     
     public String getBikerId() {
@@ -103,22 +288,57 @@ public class Order implements Serializable {
     }
     
     public void setBikerId(String bikerId) {
+        if (bikerId == null) {
+            bikerAssignedAtMillis = 0;
+        } else if (!bikerId.equals(this.bikerId)) {
+            bikerAssignedAtMillis = System.currentTimeMillis();
+        }
         this.bikerId = bikerId;
+        version++;
+    }
+
+    /** Epoch millis at which the current biker was assigned, or 0 if there is none or it is unknown. */
+    public long getBikerAssignedAtMillis() {
+        return bikerAssignedAtMillis;
+    }
+
+    /** Sets the biker and when they were assigned as recorded elsewhere (e.g. by the server) without re-stamping. */
+    void restoreBiker(String bikerId, long assignedAtMillis) {
+        this.bikerId = bikerId;
+        this.bikerAssignedAtMillis = bikerId != null ? assignedAtMillis : 0;
+        version++;
     }
     
+    /** Epoch millis at which a still-PENDING order is auto-cancelled, or 0 if its creation time is unknown. */
+    public long getAutoCancelDeadlineMillis() {
+        return createdAtMillis != 0 ? createdAtMillis + AUTO_CANCEL_AFTER_MILLIS : 0;
+    }
+
+    public LocalDateTime getAutoCancelDeadline() {
+        return Timestamps.toDateTime(getAutoCancelDeadlineMillis());
+    }
+
     public boolean shouldAutoCancelled() {
-        if (this.status == OrderStatus.PENDING && this.createdAt != null) {
-            LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-            return this.createdAt.isBefore(oneHourAgo);
+        if (this.status == OrderStatus.PENDING && this.createdAtMillis != 0) {
+            return System.currentTimeMillis() >= getAutoCancelDeadlineMillis();
         }
         return false;
     }
 
+    public int getMenuVersion() {
+        return menuVersion;
+    }
+
+    public void setMenuVersion(int menuVersion) {
+        this.menuVersion = menuVersion;
+    }
+
     public String getPaymentMethod() {
         return paymentMethod;
     }
 
     public void setPaymentMethod(String paymentMethod) {
         this.paymentMethod = paymentMethod;
+        version++;
     }
 }
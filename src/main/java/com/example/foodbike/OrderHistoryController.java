@@ -1,199 +1,284 @@
 package com.example.foodbike;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
-import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public class OrderHistoryController {
-    @FXML private VBox ordersVBox;
+    private static final int PAGE_SIZE = 20;
+    // Fetch the next page once a cell this close to the end of the loaded orders is shown
+    private static final int PREFETCH_ROWS = 5;
+    private static final DateTimeFormatter PLACED_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd 'on' HH:mm:ss");
+    private static final String[] STAGES = {
+        "✓ Your order is placed",
+        "🍽 Order is confirmed by restaurant",
+        "🚴 Biker is on the way to deliver your order",
+        "📦 Your delivery is completed"
+    };
+    private static final Order.OrderStatus[] STAGE_STATUSES = {
+        Order.OrderStatus.PENDING,
+        Order.OrderStatus.CONFIRMED,
+        Order.OrderStatus.READY,
+        Order.OrderStatus.DELIVERED
+    };
+
+    @FXML private ListView<Order> ordersList;
     @FXML private Label titleLabel;
 
     private DatabaseService databaseService;
     private User currentUser;
     private Stage currentStage;
+    private final ObservableList<Order> loadedOrders = FXCollections.observableArrayList();
+    private final Set<String> loadedOrderIds = new HashSet<>();
+    private Set<String> reviewedOrderIds = new HashSet<>();
+    private boolean hasMoreOrders;
+    private boolean pageRequested;
+    private final DataChangeListener changeListener = event -> Platform.runLater(() -> applyChange(event));
 
     @FXML
     public void initialize() {
         databaseService = DatabaseService.getInstance();
+        ordersList.setItems(loadedOrders);
+        ordersList.setSelectionModel(null);
+        ordersList.setFocusTraversable(false);
+        ordersList.setCellFactory(list -> new OrderCell());
+        Label emptyLabel = new Label("You haven't placed any orders yet.");
+        emptyLabel.setStyle("-fx-font-size: 14; -fx-text-fill: #7f8c8d;");
+        ordersList.setPlaceholder(emptyLabel);
     }
     public void setCurrentUser(User user, Stage stage) {
         this.currentUser = user;
         this.currentStage = stage;
         titleLabel.setText(user.getUsername() + "'s Orders");
         loadOrderHistory();
+        databaseService.subscribe(changeListener);
+        stage.setOnHidden(e -> databaseService.unsubscribe(changeListener));
     }
 
     private void loadOrderHistory() {
-        List<Order> userOrders = databaseService.getUserOrders(currentUser.getUsername());
-        
-        // Auto-cancel pending orders older than 1 hour
-        boolean hasAutoCancelled = false;
-        for (Order order : userOrders) {
-            if (order.shouldAutoCancelled()) {
-                order.setStatus(Order.OrderStatus.AUTO_CANCELLED);
-                hasAutoCancelled = true;
-            }
-        }
-        if (hasAutoCancelled) {
-            databaseService.saveDataToFiles();
-        }
-
-        userOrders = userOrders.stream()
-                .sorted((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()))
-                .collect(Collectors.toList());
-        
-        ordersVBox.getChildren().clear();
+        reviewedOrderIds = databaseService.getReviewedOrderIds(currentUser.getUsername());
+        loadedOrders.clear();
+        loadedOrderIds.clear();
+        hasMoreOrders = true;
+        loadNextPage();
+    }
 
-        if (userOrders.isEmpty()) {
-            Label emptyLabel = new Label("You haven't placed any orders yet.");
-            emptyLabel.setStyle("-fx-font-size: 14; -fx-text-fill: #7f8c8d;");
-            ordersVBox.getChildren().add(emptyLabel);
-        } else {
-            for (Order order : userOrders) {
-                VBox orderCard = createOrderCard(order);
-                ordersVBox.getChildren().add(orderCard);
+    private void loadNextPage() {
+        pageRequested = false;
+        if (!hasMoreOrders) {
+            return;
+        }
+        Order last = loadedOrders.isEmpty() ? null : loadedOrders.get(loadedOrders.size() - 1);
+        List<Order> page = databaseService.getUserOrdersPage(currentUser.getUsername(), last, PAGE_SIZE);
+        hasMoreOrders = page.size() == PAGE_SIZE;
+        for (Order order : page) {
+            if (loadedOrderIds.add(order.getOrderId())) {
+                loadedOrders.add(order);
             }
         }
     }
 
-    private VBox createOrderCard(Order order) {
-        VBox card = new VBox();
-        card.setSpacing(12);
-        card.setPadding(new Insets(15));
-        card.setStyle("-fx-border-color: transparent; -fx-border-radius: 12; -fx-background-color: #87CEEB; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.25), 10, 0, 0, 3);");
-
-        HBox headerBox = new HBox();
-        headerBox.setSpacing(10);
-        headerBox.setStyle("-fx-padding: 0 0 10 0;");
-
-        String statusIcon = getStatusIcon(order.getStatus());
-        Label statusLabel = new Label(statusIcon + " " + order.getStatus().toString());
-        statusLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13; -fx-text-fill: #2c3e50;");
-
-        Region spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
-
-        Label orderIdLabel = new Label("Order ID: " + order.getOrderId());
-        orderIdLabel.setStyle("-fx-font-size: 11; -fx-font-weight: bold; -fx-text-fill: #1a1a1a;");
-
-        headerBox.getChildren().addAll(statusLabel, spacer, orderIdLabel);
+    // Called while a cell is laid out, so the list is only grown after the current pulse
+    private void requestNextPageIfNear(int index) {
+        if (hasMoreOrders && !pageRequested && index >= loadedOrders.size() - PREFETCH_ROWS) {
+            pageRequested = true;
+            Platform.runLater(this::loadNextPage);
+        }
+    }
 
-        Restaurant restaurant = databaseService.getRestaurant(order.getRestaurantId());
-        Label restaurantLabel = new Label("Restaurant: " + (restaurant != null ? restaurant.getName() : "Unknown"));
-        restaurantLabel.setStyle("-fx-font-size: 13; -fx-font-weight: bold; -fx-text-fill: #1a1a1a;");
-
-        StringBuilder itemsText = new StringBuilder("Items: ");
-        for (int j = 0; j < order.getItems().size(); j++) {
-            MenuItem item = order.getItems().get(j);
-            itemsText.append(item.getName());
-            if (j < order.getItems().size() - 1) {
-                itemsText.append(", ");
+    private void applyChange(DataChangeEvent event) {
+        Order order;
+        if (event.isOrderEvent()) {
+            order = event.getOrder();
+        } else if (event.getType() == DataChangeEvent.Type.REVIEW_ADDED) {
+            order = databaseService.getOrder(event.getReview().getOrderId());
+            if (event.getReview().getUserId().equals(currentUser.getUsername())) {
+                reviewedOrderIds.add(event.getReview().getOrderId());
             }
+        } else {
+            return;
+        }
+        if (order == null || !order.getUserId().equals(currentUser.getUsername())) {
+            return;
         }
-        Label itemsLabel = new Label(itemsText.toString());
-        itemsLabel.setStyle("-fx-font-size: 12; -fx-font-weight: bold; -fx-text-fill: #1a1a1a;");
-        itemsLabel.setWrapText(true);
-
-        Label priceLabel = new Label("Total: ৳" + String.format("%.2f", order.getTotalPrice()));
-        priceLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14; -fx-text-fill: #1B5E20;");
-
-        Label dateLabel = new Label("Placed: " + order.getCreatedAt().toString().substring(0, 10) + " on " + order.getCreatedAt().toString().substring(11, 19));
-        dateLabel.setStyle("-fx-font-size: 11; -fx-font-weight: bold; -fx-text-fill: #333333;");
-        VBox stagesBox = new VBox();
-        stagesBox.setSpacing(8);
-        stagesBox.setStyle("-fx-padding: 12; -fx-background-color: #2E7D32; -fx-border-radius: 6; -fx-border-color: transparent;");
-
-        String[] stages = {
-            "✓ Your order is placed",
-            "🍽 Order is confirmed by restaurant",
-            "🚴 Biker is on the way to deliver your order",
-            "📦 Your delivery is completed"
-        };
-
-        Order.OrderStatus[] stageStatuses = {
-            Order.OrderStatus.PENDING,
-            Order.OrderStatus.CONFIRMED,
-            Order.OrderStatus.READY,
-            Order.OrderStatus.DELIVERED
-        };
-
-        for (int i = 0; i < stages.length; i++) {
-            HBox stageRow = new HBox();
-            stageRow.setSpacing(10);
-            stageRow.setStyle("-fx-padding: 8; -fx-alignment: center-left;");
-
-            Label stageLabel = new Label(stages[i]);
-            String isCompleted = isStageCompleted(order.getStatus(), stageStatuses[i]);
-            if (isCompleted.equals("completed")) {
-                stageLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #FFFFFF; -fx-font-weight: bold;");
-            } else if (isCompleted.equals("current")) {
-                stageLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #FFD700; -fx-font-weight: bold;");
-            } else if (isCompleted.equals("cancelled")) {
-                stageLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #FF6B6B; -fx-font-weight: bold;");
-            } else {
-                stageLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #CCCCCC; -fx-font-weight: bold;");
-            }
 
-            Region stageSpacer = new Region();
-            HBox.setHgrow(stageSpacer, Priority.ALWAYS);
-
-            Label tickBox = new Label();
-            if (isCompleted.equals("completed")) {
-                tickBox.setText("☑");
-                tickBox.setStyle("-fx-font-size: 14; -fx-text-fill: #27ae60; -fx-font-weight: bold;");
-            } else if (isCompleted.equals("current")) {
-                tickBox.setText("☑");
-                tickBox.setStyle("-fx-font-size: 14; -fx-text-fill: #3498db;");
-            } else if (isCompleted.equals("cancelled")) {
-                tickBox.setText("✗");
-                tickBox.setStyle("-fx-font-size: 14; -fx-text-fill: #e74c3c; -fx-font-weight: bold;");
-            } else {
-                tickBox.setText("");
-                tickBox.setStyle("-fx-font-size: 14; -fx-text-fill: #95a5a6;");
-            }
+        int index = indexOfLoaded(order.getOrderId());
+        if (index >= 0) {
+            // Orders are mutable, so re-setting the same instance is what tells the cell to redraw
+            loadedOrders.set(index, order);
+        } else if (loadedOrders.isEmpty() || Order.NEWEST_FIRST.compare(order, loadedOrders.get(0)) < 0) {
+            loadedOrderIds.add(order.getOrderId());
+            loadedOrders.add(0, order);
+        }
+        // Anything older than the loaded pages turns up when the user scrolls down to it
+    }
 
-            stageRow.getChildren().addAll(stageLabel, stageSpacer, tickBox);
-            stagesBox.getChildren().add(stageRow);
+    private int indexOfLoaded(String orderId) {
+        if (!loadedOrderIds.contains(orderId)) {
+            return -1;
         }
+        for (int i = 0; i < loadedOrders.size(); i++) {
+            if (loadedOrders.get(i).getOrderId().equals(orderId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
 
-        card.getChildren().addAll(headerBox, restaurantLabel, itemsLabel, priceLabel, dateLabel, stagesBox);
+    /**
+     * One recycled order card. The header, timeline rows and action controls are built once per
+     * cell and only refilled as the cell is moved to a different order.
+     */
+    private class OrderCell extends ListCell<Order> {
+        private final VBox card = new VBox();
+        private final Label statusLabel = new Label();
+        private final Label orderIdLabel = new Label();
+        private final Label restaurantLabel = new Label();
+        private final Label itemsLabel = new Label();
+        private final Label priceLabel = new Label();
+        private final Label dateLabel = new Label();
+        private final Label[] stageLabels = new Label[STAGES.length];
+        private final Label[] tickBoxes = new Label[STAGES.length];
+        private final Button cancelBtn = new Button("Cancel Order");
+        private final Button reviewBtn = new Button("Write Review");
+        private final Label reviewedLabel = new Label("✓ You have reviewed this order");
+        private final int fixedChildren;
+
+        OrderCell() {
+            card.setSpacing(12);
+            card.setPadding(new Insets(15));
+            card.setStyle("-fx-border-color: transparent; -fx-border-radius: 12; -fx-background-color: #87CEEB; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.25), 10, 0, 0, 3);");
+
+            HBox headerBox = new HBox();
+            headerBox.setSpacing(10);
+            headerBox.setStyle("-fx-padding: 0 0 10 0;");
+            statusLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13; -fx-text-fill: #2c3e50;");
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            orderIdLabel.setStyle("-fx-font-size: 11; -fx-font-weight: bold; -fx-text-fill: #1a1a1a;");
+            headerBox.getChildren().addAll(statusLabel, spacer, orderIdLabel);
+
+            restaurantLabel.setStyle("-fx-font-size: 13; -fx-font-weight: bold; -fx-text-fill: #1a1a1a;");
+            itemsLabel.setStyle("-fx-font-size: 12; -fx-font-weight: bold; -fx-text-fill: #1a1a1a;");
+            itemsLabel.setWrapText(true);
+            priceLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14; -fx-text-fill: #1B5E20;");
+            dateLabel.setStyle("-fx-font-size: 11; -fx-font-weight: bold; -fx-text-fill: #333333;");
+
+            VBox stagesBox = new VBox();
+            stagesBox.setSpacing(8);
+            stagesBox.setStyle("-fx-padding: 12; -fx-background-color: #2E7D32; -fx-border-radius: 6; -fx-border-color: transparent;");
+            for (int i = 0; i < STAGES.length; i++) {
+                HBox stageRow = new HBox();
+                stageRow.setSpacing(10);
+                stageRow.setStyle("-fx-padding: 8; -fx-alignment: center-left;");
+                stageLabels[i] = new Label(STAGES[i]);
+                Region stageSpacer = new Region();
+                HBox.setHgrow(stageSpacer, Priority.ALWAYS);
+                tickBoxes[i] = new Label();
+                stageRow.getChildren().addAll(stageLabels[i], stageSpacer, tickBoxes[i]);
+                stagesBox.getChildren().add(stageRow);
+            }
 
-        if (order.getStatus() == Order.OrderStatus.PENDING) {
-            javafx.scene.control.Button cancelBtn = new javafx.scene.control.Button("Cancel Order");
             cancelBtn.setStyle("-fx-padding: 8 15; -fx-font-size: 11; -fx-background-color: #e74c3c; -fx-text-fill: white; -fx-border-radius: 4; -fx-cursor: hand;");
             cancelBtn.setMaxWidth(Double.MAX_VALUE);
-            cancelBtn.setOnAction(e -> handleCancelOrder(order, card));
-            card.getChildren().add(cancelBtn);
+            cancelBtn.setOnAction(e -> handleCancelOrder(getItem()));
+            reviewBtn.setStyle("-fx-padding: 8 15; -fx-font-size: 11; -fx-background-color: #f39c12; -fx-text-fill: white; -fx-border-radius: 4; -fx-cursor: hand;");
+            reviewBtn.setMaxWidth(Double.MAX_VALUE);
+            reviewBtn.setOnAction(e -> handleWriteReview(getItem()));
+            reviewedLabel.setStyle("-fx-font-size: 11; -fx-text-fill: #27ae60; -fx-padding: 8;");
+
+            card.getChildren().addAll(headerBox, restaurantLabel, itemsLabel, priceLabel, dateLabel, stagesBox);
+            fixedChildren = card.getChildren().size();
+
+            setStyle("-fx-background-color: transparent; -fx-padding: 0 10 15 10;");
+            // Let the card follow the list's width instead of widening the list to fit long item names
+            setPrefWidth(0);
+        }
+
+        @Override
+        protected boolean isItemChanged(Order oldItem, Order newItem) {
+            // The same Order instance may have changed status or been reviewed since it was drawn
+            return true;
         }
 
-        if (order.getStatus() == Order.OrderStatus.DELIVERED) {
-            boolean hasReviewed = databaseService.hasUserReviewedOrder(currentUser.getUsername(), order.getOrderId());
-            if (!hasReviewed) {
-                javafx.scene.control.Button reviewBtn = new javafx.scene.control.Button("Write Review");
-                reviewBtn.setStyle("-fx-padding: 8 15; -fx-font-size: 11; -fx-background-color: #f39c12; -fx-text-fill: white; -fx-border-radius: 4; -fx-cursor: hand;");
-                reviewBtn.setMaxWidth(Double.MAX_VALUE);
-                reviewBtn.setOnAction(e -> handleWriteReview(order));
-                card.getChildren().add(reviewBtn);
-            } else {
-                Label reviewedLabel = new Label("✓ You have reviewed this order");
-                reviewedLabel.setStyle("-fx-font-size: 11; -fx-text-fill: #27ae60; -fx-padding: 8;");
-                card.getChildren().add(reviewedLabel);
+        @Override
+        protected void updateItem(Order order, boolean empty) {
+            super.updateItem(order, empty);
+            if (empty || order == null) {
+                setGraphic(null);
+                return;
             }
+            show(order);
+            setGraphic(card);
+            requestNextPageIfNear(getIndex());
         }
 
-        return card;
+        private void show(Order order) {
+            statusLabel.setText(getStatusIcon(order.getStatus()) + " " + order.getStatus().toString());
+            orderIdLabel.setText("Order ID: " + order.getOrderId());
+
+            Restaurant restaurant = databaseService.getRestaurant(order.getRestaurantId());
+            restaurantLabel.setText("Restaurant: " + (restaurant != null ? restaurant.getName() : "Unknown"));
+
+            StringBuilder itemsText = new StringBuilder("Items: ");
+            List<OrderLine> lines = order.getLines();
+            for (int j = 0; j < lines.size(); j++) {
+                itemsText.append(lines.get(j));
+                if (j < lines.size() - 1) {
+                    itemsText.append(", ");
+                }
+            }
+            itemsLabel.setText(itemsText.toString());
+            priceLabel.setText("Total: " + Money.format(order.getTotalMinor()));
+            dateLabel.setText(order.getCreatedAtMillis() != 0 ? "Placed: " + order.getCreatedAt().format(PLACED_FORMAT) : "");
+
+            for (int i = 0; i < STAGES.length; i++) {
+                String isCompleted = isStageCompleted(order.getStatus(), STAGE_STATUSES[i]);
+                if (isCompleted.equals("completed")) {
+                    stageLabels[i].setStyle("-fx-font-size: 12; -fx-text-fill: #FFFFFF; -fx-font-weight: bold;");
+                    tickBoxes[i].setText("☑");
+                    tickBoxes[i].setStyle("-fx-font-size: 14; -fx-text-fill: #27ae60; -fx-font-weight: bold;");
+                } else if (isCompleted.equals("current")) {
+                    stageLabels[i].setStyle("-fx-font-size: 12; -fx-text-fill: #FFD700; -fx-font-weight: bold;");
+                    tickBoxes[i].setText("☑");
+                    tickBoxes[i].setStyle("-fx-font-size: 14; -fx-text-fill: #3498db;");
+                } else if (isCompleted.equals("cancelled")) {
+                    stageLabels[i].setStyle("-fx-font-size: 12; -fx-text-fill: #FF6B6B; -fx-font-weight: bold;");
+                    tickBoxes[i].setText("✗");
+                    tickBoxes[i].setStyle("-fx-font-size: 14; -fx-text-fill: #e74c3c; -fx-font-weight: bold;");
+                } else {
+                    stageLabels[i].setStyle("-fx-font-size: 12; -fx-text-fill: #CCCCCC; -fx-font-weight: bold;");
+                    tickBoxes[i].setText("");
+                    tickBoxes[i].setStyle("-fx-font-size: 14; -fx-text-fill: #95a5a6;");
+                }
+            }
+
+            card.getChildren().remove(fixedChildren, card.getChildren().size());
+            if (order.getStatus() == Order.OrderStatus.PENDING) {
+                card.getChildren().add(cancelBtn);
+            } else if (order.getStatus() == Order.OrderStatus.DELIVERED) {
+                card.getChildren().add(reviewedOrderIds.contains(order.getOrderId()) ? reviewedLabel : reviewBtn);
+            }
+        }
     }
 
     private String isStageCompleted(Order.OrderStatus currentStatus, Order.OrderStatus stageStatus) {
@@ -215,7 +300,7 @@ public class OrderHistoryController {
         return "pending";
     }
 
-    private void handleCancelOrder(Order order, VBox orderCard) {
+    private void handleCancelOrder(Order order) {
         Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
         confirmAlert.setTitle("Cancel Order");
         confirmAlert.setHeaderText("Are you sure?");
@@ -223,15 +308,20 @@ public class OrderHistoryController {
 
         Optional<ButtonType> result = confirmAlert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            order.setStatus(Order.OrderStatus.CANCELLED);
-            databaseService.createOrder(order);
+            if (!databaseService.updateOrderStatus(order, Order.OrderStatus.CANCELLED)) {
+                Alert errorAlert = new Alert(Alert.AlertType.ERROR);
+                errorAlert.setTitle("Cannot Cancel");
+                errorAlert.setHeaderText(null);
+                errorAlert.setContentText("Order #" + order.getOrderId() + " is already " + order.getStatus() + " and can no longer be cancelled.");
+                errorAlert.showAndWait();
+                return;
+            }
 
             Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
             successAlert.setTitle("Order Cancelled");
             successAlert.setHeaderText(null);
             successAlert.setContentText("Your order #" + order.getOrderId() + " has been cancelled successfully!");
             successAlert.showAndWait();
-            loadOrderHistory();
         }
     }
 
@@ -258,6 +348,7 @@ public class OrderHistoryController {
 
     @FXML
     public void handleBack() {
+        databaseService.unsubscribe(changeListener);
         if (currentStage != null) {
             currentStage.close();
         }
@@ -315,7 +406,7 @@ public class OrderHistoryController {
                         comment = "No comment provided.";
                     }
 
-                    String reviewId = "REV_" + System.currentTimeMillis();
+                    String reviewId = IdGenerator.getInstance().nextId("REV");
                     Review review = new Review(reviewId, restaurant.getId(), currentUser.getUsername(), order.getOrderId(), rating, comment);
                     databaseService.addReview(review);
 
@@ -324,8 +415,6 @@ public class OrderHistoryController {
                     successAlert.setHeaderText(null);
                     successAlert.setContentText("Thank you for your review! Your feedback helps others make better choices.");
                     successAlert.showAndWait();
-
-                    loadOrderHistory();
                 }
             }
         });
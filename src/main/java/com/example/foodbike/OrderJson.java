@@ -0,0 +1,145 @@
+package com.example.foodbike;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format shared by {@link FoodBikeServer} and {@link FoodBikeClient}. Orders carry their full
+ * per-state timestamp history so a client-side copy reports the same latencies as the server.
+ */
+public final class OrderJson {
+    private OrderJson() {
+    }
+
+    public static String toJson(Order order) {
+        StringBuilder sb = new StringBuilder(256);
+        appendOrder(sb, order);
+        return sb.toString();
+    }
+
+    public static void appendOrder(StringBuilder sb, Order order) {
+        sb.append("{\"orderId\":");
+        Json.appendQuoted(sb, order.getOrderId());
+        sb.append(",\"userId\":");
+        Json.appendQuoted(sb, order.getUserId());
+        sb.append(",\"restaurantId\":");
+        Json.appendQuoted(sb, order.getRestaurantId());
+        sb.append(",\"district\":");
+        Json.appendQuoted(sb, order.getDistrict());
+        sb.append(",\"paymentMethod\":");
+        Json.appendQuoted(sb, order.getPaymentMethod());
+        sb.append(",\"bikerId\":");
+        Json.appendQuoted(sb, order.getBikerId());
+        sb.append(",\"bikerAssignedAtMillis\":").append(order.getBikerAssignedAtMillis());
+        sb.append(",\"status\":");
+        Json.appendQuoted(sb, order.getStatus() != null ? order.getStatus().name() : null);
+        sb.append(",\"createdAtMillis\":").append(order.getCreatedAtMillis());
+        sb.append(",\"menuVersion\":").append(order.getMenuVersion());
+        sb.append(",\"totalMinor\":").append(order.getTotalMinor());
+        sb.append(",\"lines\":[");
+        List<OrderLine> lines = order.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendOrderLine(sb, lines.get(i));
+        }
+        sb.append("],\"statusEnteredAt\":{");
+        boolean first = true;
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            long millis = order.getStatusEnteredAtMillis(status);
+            if (millis != 0) {
+                if (!first) {
+                    sb.append(',');
+                }
+                sb.append('"').append(status.name()).append("\":").append(millis);
+                first = false;
+            }
+        }
+        sb.append("}}");
+    }
+
+    public static void appendOrderLine(StringBuilder sb, OrderLine line) {
+        sb.append("{\"itemId\":");
+        Json.appendQuoted(sb, line.getItemId());
+        sb.append(",\"name\":");
+        Json.appendQuoted(sb, line.getNameSnapshot());
+        sb.append(",\"unitPriceMinor\":").append(line.getUnitPriceMinor());
+        sb.append(",\"quantity\":").append(line.getQuantity()).append('}');
+    }
+
+    public static void appendMenuItem(StringBuilder sb, MenuItem item) {
+        sb.append("{\"id\":");
+        Json.appendQuoted(sb, item.getId());
+        sb.append(",\"name\":");
+        Json.appendQuoted(sb, item.getName());
+        sb.append(",\"description\":");
+        Json.appendQuoted(sb, item.getDescription());
+        sb.append(",\"priceMinor\":").append(item.getPriceMinor());
+        sb.append(",\"available\":").append(item.isAvailable()).append('}');
+    }
+
+    public static void appendRestaurant(StringBuilder sb, Restaurant restaurant) {
+        sb.append("{\"id\":");
+        Json.appendQuoted(sb, restaurant.getId());
+        sb.append(",\"name\":");
+        Json.appendQuoted(sb, restaurant.getName());
+        sb.append(",\"division\":");
+        Json.appendQuoted(sb, restaurant.getDivision());
+        sb.append(",\"district\":");
+        Json.appendQuoted(sb, restaurant.getDistrict());
+        sb.append(",\"address\":");
+        Json.appendQuoted(sb, restaurant.getAddress());
+        sb.append(",\"rating\":").append(restaurant.getRating());
+        sb.append(",\"menu\":[");
+        List<MenuItem> menu = restaurant.getMenu();
+        for (int i = 0; i < menu.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendMenuItem(sb, menu.get(i));
+        }
+        sb.append("]}");
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Order fromJson(Map<String, Object> json) {
+        Order order = new Order(Json.getString(json, "orderId"), Json.getString(json, "userId"),
+                Json.getString(json, "restaurantId"));
+        order.setDistrict(Json.getString(json, "district"));
+        order.setPaymentMethod(Json.getString(json, "paymentMethod"));
+        order.restoreBiker(Json.getString(json, "bikerId"), Json.getLong(json, "bikerAssignedAtMillis", 0L));
+        order.setMenuVersion((int) Json.getLong(json, "menuVersion", 0L));
+        Object lines = json.get("lines");
+        if (lines instanceof List) {
+            for (Object line : (List<Object>) lines) {
+                order.addLine(orderLineFromJson((Map<String, Object>) line));
+            }
+        }
+        order.setTotalMinor(Json.getLong(json, "totalMinor", order.getTotalMinor()));
+        order.setCreatedAtMillis(Json.getLong(json, "createdAtMillis", 0L));
+        String status = Json.getString(json, "status");
+        Object enteredAt = json.get("statusEnteredAt");
+        if (status != null && enteredAt instanceof Map) {
+            long[] timestamps = new long[Order.OrderStatus.values().length];
+            for (Order.OrderStatus s : Order.OrderStatus.values()) {
+                timestamps[s.ordinal()] = Json.getLong((Map<String, Object>) enteredAt, s.name(), 0L);
+            }
+            order.restoreStatus(Order.OrderStatus.valueOf(status), timestamps);
+        } else if (status != null) {
+            order.setStatus(Order.OrderStatus.valueOf(status));
+        }
+        return order;
+    }
+
+    public static OrderLine orderLineFromJson(Map<String, Object> json) {
+        return new OrderLine(Json.getString(json, "itemId"), Json.getString(json, "name"),
+                Json.getLong(json, "unitPriceMinor", 0L), (int) Json.getLong(json, "quantity", 1L));
+    }
+
+    public static MenuItem menuItemFromJson(Map<String, Object> json) {
+        return new MenuItem(Json.getString(json, "id"), Json.getString(json, "name"),
+                Json.getString(json, "description"), Json.getLong(json, "priceMinor", 0L),
+                !Boolean.FALSE.equals(json.get("available")));
+    }
+}
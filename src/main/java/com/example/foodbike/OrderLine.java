@@ -0,0 +1,66 @@
+package com.example.foodbike;
+
+import java.io.Serializable;
+
+/**
+ * One line of an order: a menu item and how many of it were ordered. The name and unit price are
+ * copied when the order is placed, so later menu edits do not change what an old order shows.
+ */
+public class OrderLine implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String itemId;
+    private final String nameSnapshot;
+    private final long unitPriceMinor;
+    private final int quantity;
+
+    public OrderLine(String itemId, String nameSnapshot, long unitPriceMinor, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        this.itemId = itemId;
+        this.nameSnapshot = nameSnapshot;
+        this.unitPriceMinor = unitPriceMinor;
+        this.quantity = quantity;
+    }
+
+    public static OrderLine of(MenuItem item, int quantity) {
+        return new OrderLine(item.getId(), item.getName(), item.getPriceMinor(), quantity);
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public String getNameSnapshot() {
+        return nameSnapshot;
+    }
+
+    public long getUnitPriceMinor() {
+        return unitPriceMinor;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getLineTotalMinor() {
+        return unitPriceMinor * quantity;
+    }
+
+    /** True if {@code other} is the same item at the same price, so the two lines can be merged. */
+    boolean isSameItem(OrderLine other) {
+        return unitPriceMinor == other.unitPriceMinor
+                && (itemId != null ? itemId.equals(other.itemId) : other.itemId == null)
+                && (nameSnapshot != null ? nameSnapshot.equals(other.nameSnapshot) : other.nameSnapshot == null);
+    }
+
+    OrderLine plus(int moreQuantity) {
+        return new OrderLine(itemId, nameSnapshot, unitPriceMinor, quantity + moreQuantity);
+    }
+
+    @Override
+    public String toString() {
+        return quantity > 1 ? nameSnapshot + " x" + quantity : nameSnapshot;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.foodbike;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an {@link Order} for the biker and entrepreneur order tables. Everything
+ * a cell shows (restaurant name and location, item summary, formatted total) is worked out once when
+ * the row is built, so rendering and scrolling only read fields. Rows come from {@link OrderRowCache}.
+ */
+public final class OrderRow {
+    private final Order order;
+    private final long version;
+    private final String orderId;
+    private final String customer;
+    private final String restaurantId;
+    private final String restaurantName;
+    private final String division;
+    private final String district;
+    private final int districtCode;
+    private final String location;
+    private final String itemSummary;
+    private final String formattedTotal;
+    private final String paymentMethod;
+    private final Order.OrderStatus status;
+    private final LocalDateTime createdAt;
+    private final long createdAtMillis;
+    OrderRow(Order order, Restaurant restaurant) {
+        this.order = order;
+        this.version = order.getVersion();
+        this.orderId = order.getOrderId();
+        this.customer = order.getUserId();
+        this.restaurantId = order.getRestaurantId();
+        this.restaurantName = restaurant != null ? restaurant.getName() : "Unknown";
+        this.division = restaurant != null ? restaurant.getDivision() : null;
+        this.district = restaurant != null ? restaurant.getDistrict() : null;
+        this.districtCode = restaurant != null ? restaurant.getDistrictCode() : Geography.NONE;
+        this.location = restaurant != null ? (restaurant.getDistrict() + ", " + restaurant.getDivision()) : "Unknown";
+        this.itemSummary = order.getItemCount() + " item(s)";
+        this.formattedTotal = Money.format(order.getTotalMinor());
+        this.paymentMethod = order.getPaymentMethod() != null ? order.getPaymentMethod() : "N/A";
+        this.status = order.getStatus();
+        this.createdAt = order.getCreatedAt();
+        this.createdAtMillis = order.getCreatedAtMillis();
+    }
+
+    /** The live order this row was built from, for actions that change it. */
+    public Order getOrder() {
+        return order;
+    }
+
+    /** The {@link Order#getVersion()} this row reflects. */
+    public long getVersion() {
+        return version;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String getCustomer() {
+        return customer;
+    }
+
+    public String getRestaurantId() {
+        return restaurantId;
+    }
+
+    public String getRestaurantName() {
+        return restaurantName;
+    }
+
+    public String getDivision() {
+        return division;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    /** The restaurant's {@link Geography} district code, for location filters. */
+    public int getDistrictCode() {
+        return districtCode;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getItemSummary() {
+        return itemSummary;
+    }
+
+    public String getFormattedTotal() {
+        return formattedTotal;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.foodbike;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared cache of {@link OrderRow}s keyed by order ID. A cached row is reused while it was built
+ * from the same order instance at the same {@link Order#getVersion()}; order change events drop the
+ * row eagerly, and {@link DatabaseService} drops the rows of a restaurant that is added or removed.
+ * Listeners run on whichever thread made the change, so the map is concurrent.
+ */
+public class OrderRowCache implements DataChangeListener {
+    private final DatabaseService databaseService;
+    private final Map<String, OrderRow> rows = new ConcurrentHashMap<>();
+
+    OrderRowCache(DatabaseService databaseService) {
+        this.databaseService = databaseService;
+    }
+
+    public OrderRow get(Order order) {
+        OrderRow row = rows.get(order.getOrderId());
+        if (row == null || row.getOrder() != order || row.getVersion() != order.getVersion()) {
+            row = new OrderRow(order, databaseService.getRestaurant(order.getRestaurantId()));
+            rows.put(order.getOrderId(), row);
+        }
+        return row;
+    }
+
+    public List<OrderRow> getAll(Collection<Order> orders) {
+        List<OrderRow> result = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            result.add(get(order));
+        }
+        return result;
+    }
+
+    public void invalidate(String orderId) {
+        rows.remove(orderId);
+    }
+
+    void invalidateRestaurant(String restaurantId) {
+        rows.values().removeIf(row -> row.getRestaurantId().equals(restaurantId));
+    }
+
+    @Override
+    public void onDataChanged(DataChangeEvent event) {
+        if (event.isOrderEvent()) {
+            invalidate(event.getOrder().getOrderId());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.foodbike;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Declares the legal {@link Order.OrderStatus} transitions and is the single place where an
+ * order's status changes. Each transition stamps the entry time of the new state on the order
+ * and is then reported to the registered hooks.
+ */
+public class OrderStateMachine {
+
+    @FunctionalInterface
+    public interface TransitionHook {
+        void onTransition(Order order, Order.OrderStatus from, Order.OrderStatus to);
+    }
+
+    private static final Map<Order.OrderStatus, Set<Order.OrderStatus>> TRANSITIONS = new EnumMap<>(Order.OrderStatus.class);
+    static {
+        TRANSITIONS.put(Order.OrderStatus.PENDING, EnumSet.of(
+            Order.OrderStatus.CONFIRMED, Order.OrderStatus.CANCELLED, Order.OrderStatus.AUTO_CANCELLED));
+        TRANSITIONS.put(Order.OrderStatus.CONFIRMED, EnumSet.of(
+            Order.OrderStatus.PREPARING, Order.OrderStatus.READY));
+        TRANSITIONS.put(Order.OrderStatus.PREPARING, EnumSet.of(Order.OrderStatus.READY));
+        TRANSITIONS.put(Order.OrderStatus.READY, EnumSet.of(Order.OrderStatus.DELIVERED));
+        TRANSITIONS.put(Order.OrderStatus.DELIVERED, EnumSet.noneOf(Order.OrderStatus.class));
+        TRANSITIONS.put(Order.OrderStatus.CANCELLED, EnumSet.noneOf(Order.OrderStatus.class));
+        TRANSITIONS.put(Order.OrderStatus.AUTO_CANCELLED, EnumSet.noneOf(Order.OrderStatus.class));
+    }
+
+    private final List<TransitionHook> hooks = new CopyOnWriteArrayList<>();
+
+    OrderStateMachine() {
+    }
+    public void addHook(TransitionHook hook) {
+        hooks.add(hook);
+    }
+
+    public void removeHook(TransitionHook hook) {
+        hooks.remove(hook);
+    }
+
+    public static boolean canTransition(Order.OrderStatus from, Order.OrderStatus to) {
+        return TRANSITIONS.get(from).contains(to);
+    }
+
+    public static Set<Order.OrderStatus> allowedTransitions(Order.OrderStatus from) {
+        return EnumSet.copyOf(TRANSITIONS.get(from));
+    }
+
+    public static boolean isTerminal(Order.OrderStatus status) {
+        return TRANSITIONS.get(status).isEmpty();
+    }
+
+    /**
+     * Moves the order to {@code to} if the transition is legal.
+     *
+     * @return false when the order is already in {@code to} or the transition is not allowed
+     */
+    public boolean transition(Order order, Order.OrderStatus to) {
+        Order.OrderStatus from = order.getStatus();
+        if (!canTransition(from, to)) {
+            return false;
+        }
+        order.setStatus(to);
+        for (TransitionHook hook : hooks) {
+            hook.onTransition(order, from, to);
+        }
+        return true;
+    }
+
+    /**
+     * Average time between entering {@code from} and entering {@code to}, over the orders that
+     * went through both states, e.g. PENDING to CONFIRMED for restaurant response time or READY
+     * to DELIVERED for biker delivery time.
+     *
+     * @return the average in milliseconds, or -1 if no order has both timestamps
+     */
+    public static long averageLatencyMillis(Collection<Order> orders, Order.OrderStatus from, Order.OrderStatus to) {
+        long total = 0;
+        int count = 0;
+        for (Order order : orders) {
+            long latency = order.getMillisBetween(from, to);
+            if (latency >= 0) {
+                total += latency;
+                count++;
+            }
+        }
+        return count == 0 ? -1 : total / count;
+    }
+
+    /**
+     * Average time between an order becoming READY and a biker taking it, over the orders that
+     * have both timestamps.
+     *
+     * @return the average in milliseconds, or -1 if no order has both timestamps
+     */
+    public static long averagePickupLatencyMillis(Collection<Order> orders) {
+        long total = 0;
+        int count = 0;
+        for (Order order : orders) {
+            long latency = order.getPickupLatencyMillis();
+            if (latency >= 0) {
+                total += latency;
+                count++;
+            }
+        }
+        return count == 0 ? -1 : total / count;
+    }
+}
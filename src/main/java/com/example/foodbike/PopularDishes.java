@@ -0,0 +1,142 @@
+package com.example.foodbike;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Most ordered dishes per restaurant, and dishes trending per district, counted in fixed-size
+ * {@link SpaceSaving} sketches fed with the lines of each new order, so neither ever scans orders.
+ * Restaurant counts cover every order since the data was loaded; district counts cover the current
+ * and the previous {@value #TREND_WINDOW_DAYS}-day window, so dishes fall out of the trend once
+ * they stop being ordered. Windows move on with new orders and with the clock, so a quiet district
+ * shows nothing rather than a stale trend.
+ * <p>
+ * The sketches are not saved; {@link DatabaseService} replays the stored orders into them on
+ * startup.
+ */
+public class PopularDishes implements DataChangeListener {
+    static final int TREND_WINDOW_DAYS = 3;
+    private static final long TREND_WINDOW_MILLIS = TREND_WINDOW_DAYS * 24 * 60 * 60 * 1000L;
+    // Dishes tracked per sketch; a restaurant menu rarely has more, a district has many restaurants
+    private static final int RESTAURANT_CAPACITY = 16;
+    private static final int DISTRICT_CAPACITY = 64;
+
+    private final Map<String, SpaceSaving<String>> byRestaurant = new HashMap<>();
+    // Indexed by Geography district code; null for districts without orders in the window
+    private List<SpaceSaving<String>> currentWindow = newDistrictSketches();
+    private List<SpaceSaving<String>> previousWindow = newDistrictSketches();
+    private long windowStartMillis;
+
+    PopularDishes() {
+    }
+    /** Clears all counts and counts {@code orders}, which must be oldest first. */
+    public synchronized void rebuild(Iterable<Order> orders) {
+        byRestaurant.clear();
+        currentWindow = newDistrictSketches();
+        previousWindow = newDistrictSketches();
+        windowStartMillis = 0;
+        for (Order order : orders) {
+            record(order);
+        }
+    }
+
+    @Override
+    public synchronized void onDataChanged(DataChangeEvent event) {
+        if (event.getType() == DataChangeEvent.Type.ORDER_CREATED) {
+            record(event.getOrder());
+        }
+    }
+
+    private void record(Order order) {
+        long createdAt = order.getCreatedAtMillis();
+        if (windowStartMillis == 0) {
+            windowStartMillis = createdAt;
+        } else {
+            advanceTo(createdAt);
+        }
+
+        SpaceSaving<String> restaurantSketch = byRestaurant.computeIfAbsent(order.getRestaurantId(),
+                id -> new SpaceSaving<>(RESTAURANT_CAPACITY));
+        int district = order.getDistrictCode();
+        SpaceSaving<String> districtSketch = null;
+        if (district >= 0 && district < currentWindow.size()) {
+            districtSketch = currentWindow.get(district);
+            if (districtSketch == null) {
+                districtSketch = new SpaceSaving<>(DISTRICT_CAPACITY);
+                currentWindow.set(district, districtSketch);
+            }
+        }
+        for (OrderLine line : order.getLines()) {
+            if (line.getItemId() == null) {
+                continue;
+            }
+            restaurantSketch.add(line.getItemId(), line.getQuantity());
+            if (districtSketch != null) {
+                districtSketch.add(line.getItemId(), line.getQuantity());
+            }
+        }
+    }
+
+    /** The restaurant's (at most) {@code k} most ordered item IDs with their unit counts, highest first. */
+    public synchronized List<SpaceSaving.Entry<String>> getMostOrdered(String restaurantId, int k) {
+        SpaceSaving<String> sketch = byRestaurant.get(restaurantId);
+        return sketch != null ? sketch.top(k) : List.of();
+    }
+
+    /**
+     * Starts a new window if {@code millis} is past the current one. A gap of two windows or more
+     * leaves nothing recent enough to keep.
+     */
+    private void advanceTo(long millis) {
+        if (windowStartMillis == 0 || millis < windowStartMillis + TREND_WINDOW_MILLIS) {
+            return;
+        }
+        previousWindow = millis < windowStartMillis + 2 * TREND_WINDOW_MILLIS ? currentWindow : newDistrictSketches();
+        currentWindow = newDistrictSketches();
+        windowStartMillis = millis;
+    }
+
+    /** The (at most) {@code k} item IDs ordered most in the district over the last one to two windows, highest first. */
+    public synchronized List<SpaceSaving.Entry<String>> getTrending(String district, int k) {
+        advanceTo(System.currentTimeMillis());
+        int code = Geography.districtCode(district);
+        if (code < 0 || code >= currentWindow.size()) {
+            return List.of();
+        }
+        SpaceSaving<String> previous = previousWindow.get(code);
+        SpaceSaving<String> current = currentWindow.get(code);
+        Map<String, long[]> combined = new HashMap<>();
+        addCounts(combined, previous);
+        addCounts(combined, current);
+        List<SpaceSaving.Entry<String>> trending = new ArrayList<>(combined.size());
+        for (Map.Entry<String, long[]> entry : combined.entrySet()) {
+            // A full sketch without the key may still have seen it up to its smallest count
+            long missed = missedBound(previous, entry.getKey()) + missedBound(current, entry.getKey());
+            trending.add(new SpaceSaving.Entry<>(entry.getKey(), entry.getValue()[0] + missed, entry.getValue()[1] + missed));
+        }
+        trending.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return trending.size() > k ? new ArrayList<>(trending.subList(0, k)) : trending;
+    }
+
+    private static void addCounts(Map<String, long[]> combined, SpaceSaving<String> sketch) {
+        if (sketch == null) {
+            return;
+        }
+        for (SpaceSaving.Entry<String> entry : sketch.top(DISTRICT_CAPACITY)) {
+            long[] counts = combined.computeIfAbsent(entry.getKey(), key -> new long[2]);
+            counts[0] += entry.getCount();
+            counts[1] += entry.getError();
+        }
+    }
+
+    private static long missedBound(SpaceSaving<String> sketch, String key) {
+        return sketch != null && !sketch.contains(key) ? sketch.getMinCount() : 0;
+    }
+
+    private static List<SpaceSaving<String>> newDistrictSketches() {
+        return new ArrayList<>(Collections.nCopies(Geography.districtCount(), (SpaceSaving<String>) null));
+    }
+}
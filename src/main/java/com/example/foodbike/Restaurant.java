@@ -1,23 +1,33 @@
 package com.example.foodbike;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.UnaryOperator;
 public class Restaurant implements Serializable {
     private static final long serialVersionUID = 1L;
     private String id;
     private String name;
-    private String division;
-    private String district;
+    // Geography codes
+    private byte divisionCode = Geography.NONE;
+    private byte districtCode = Geography.NONE;
     private String address;
-    private List<MenuItem> menu;
+    // Published menus still in use, oldest first with consecutive version numbers; the last one is
+    // current. Versions share unchanged items. See pruneMenuVersions.
+    private ArrayList<Menu> menuVersions;
+    private transient volatile Menu menu;
     private double rating;
     public Restaurant(String id, String name, String division, String district, String address) {
         this.id = id;
         this.name = name;
-        this.division = division;
-        this.district = district;
+        this.divisionCode = (byte) Geography.requireDivisionCode(division);
+        this.districtCode = (byte) Geography.requireDistrictCode(district);
         this.address = address;
-        this.menu = new ArrayList<>();
+        this.menuVersions = new ArrayList<>();
+        this.menuVersions.add(Menu.EMPTY);
+        this.menu = Menu.EMPTY;
         this.rating = 4.5;
     }
 
@@ -34,16 +44,22 @@ public class Restaurant implements Serializable {
         this.name = name;
     }
     public String getDivision() {
-        return division;
+        return Geography.divisionName(getDivisionCode());
     }
     public void setDivision(String division) {
-        this.division = division;
+        this.divisionCode = (byte) Geography.requireDivisionCode(division);
+    }
+    public int getDivisionCode() {
+        return divisionCode;
     }
     public String getDistrict() {
-        return district;
+        return Geography.districtName(getDistrictCode());
     }
     public void setDistrict(String district) {
-        this.district = district;
+        this.districtCode = (byte) Geography.requireDistrictCode(district);
+    }
+    public int getDistrictCode() {
+        return districtCode;
     }
     public String getAddress() {
         return address;
@@ -51,11 +67,66 @@ public class Restaurant implements Serializable {
     public void setAddress(String address) {
         this.address = address;
     }
+    /** The current menu's items; see {@link #getCurrentMenu()}. */
     public List<MenuItem> getMenu() {
+        return menu.getItems();
+    }
+    /** The current menu version. Reading it takes no lock; edits publish a new version. */
+    public Menu getCurrentMenu() {
         return menu;
     }
+    /** @return the menu as it was at {@code version}, or null if there is no such version */
+    public Menu getMenuVersion(int version) {
+        synchronized (menuVersions) {
+            int index = version - menuVersions.get(0).getVersion();
+            return index >= 0 && index < menuVersions.size() ? menuVersions.get(index) : null;
+        }
+    }
+    /**
+     * Forgets the versions older than {@code oldestInUse}, normally the oldest version an unfinished
+     * order was placed from. The current version is always kept.
+     */
+    void pruneMenuVersions(int oldestInUse) {
+        synchronized (menuVersions) {
+            int drop = Math.min(oldestInUse - menuVersions.get(0).getVersion(), menuVersions.size() - 1);
+            if (drop > 0) {
+                menuVersions.subList(0, drop).clear();
+            }
+        }
+    }
     public void addMenuItem(MenuItem item) {
-        this.menu.add(item);
+        addMenuItems(List.of(item));
+    }
+    /** Adds the items as one new menu version. */
+    public void addMenuItems(Collection<MenuItem> items) {
+        if (!items.isEmpty()) {
+            publishMenu(current -> current.withAdded(items));
+        }
+    }
+    /**
+     * Replaces the item with the same ID, publishing a new menu version. Registered restaurants are
+     * edited through {@link DatabaseService#updateMenuItem}, which keeps its item index in step.
+     */
+    void replaceMenuItem(MenuItem item) {
+        publishMenu(current -> current.withReplaced(item));
+    }
+    void removeMenuItem(String itemId) {
+        publishMenu(current -> current.withRemoved(itemId));
+    }
+    private void publishMenu(UnaryOperator<Menu> edit) {
+        synchronized (menuVersions) {
+            Menu next = edit.apply(menu);
+            if (next == menu) {
+                return;
+            }
+            if (next.getVersion() == menu.getVersion()) {
+                // An availability change replaces the current version rather than adding one
+                menuVersions.set(menuVersions.size() - 1, next);
+            } else {
+                menuVersions.add(next);
+            }
+            menu = next;
+        }
     }
     public double getRating() {
         return rating;
@@ -64,8 +135,35 @@ public class Restaurant implements Serializable {
         this.rating = rating;
     }
 
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        id = (String) fields.get("id", null);
+        name = (String) fields.get("name", null);
+        address = (String) fields.get("address", null);
+        // Restaurants saved before menu versions have a mutable "menu" list instead
+        if (fields.defaulted("menuVersions")) {
+            List<MenuItem> items = (List<MenuItem>) fields.get("menu", null);
+            menuVersions = new ArrayList<>();
+            menuVersions.add(Menu.EMPTY);
+            menuVersions.add(Menu.legacy(items != null ? items : List.of()));
+        } else {
+            menuVersions = new ArrayList<>((List<Menu>) fields.get("menuVersions", null));
+        }
+        menu = menuVersions.get(menuVersions.size() - 1);
+        rating = fields.get("rating", 0.0);
+        // Restaurants saved before geography codes have "division" and "district" names instead
+        if (fields.defaulted("districtCode")) {
+            divisionCode = (byte) Geography.migrateCode((String) fields.get("division", null), false);
+            districtCode = (byte) Geography.migrateCode((String) fields.get("district", null), true);
+        } else {
+            divisionCode = fields.get("divisionCode", (byte) Geography.NONE);
+            districtCode = fields.get("districtCode", (byte) Geography.NONE);
+        }
+    }
+
     @Override
     public String toString() {
-        return name + " (" + district + ", " + division + ")";
+        return name + " (" + getDistrict() + ", " + getDivision() + ")";
     }
 }
@@ -1,5 +1,7 @@
 package com.example.foodbike;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -11,13 +13,14 @@ public class RestaurantApplication implements Serializable {
     private String applicationId;
     private String entrepreneurUsername;
     private String restaurantName;
-    private String division;
-    private String district;
+    // Geography codes
+    private byte divisionCode = Geography.NONE;
+    private byte districtCode = Geography.NONE;
     private String address;
     private double rating;
-    private List<MenuItem> menuItems;
+    private ArrayList<MenuItem> menuItems;
     private ApplicationStatus status;
-    private LocalDateTime appliedDate;
+    private long appliedAtMillis;
     private String adminMessage;
     private boolean messageViewed;
     
@@ -30,13 +33,13 @@ public class RestaurantApplication implements Serializable {
         this.applicationId = applicationId;
         this.entrepreneurUsername = entrepreneurUsername;
         this.restaurantName = restaurantName;
-        this.division = division;
-        this.district = district;
+        this.divisionCode = (byte) Geography.requireDivisionCode(division);
+        this.districtCode = (byte) Geography.requireDistrictCode(district);
         this.address = address;
         this.rating = rating;
         this.menuItems = new ArrayList<>();
         this.status = ApplicationStatus.PENDING;
-        this.appliedDate = LocalDateTime.now();
+        this.appliedAtMillis = System.currentTimeMillis();
         this.adminMessage = "";
         this.messageViewed = false;
     }
@@ -66,19 +69,27 @@ public class RestaurantApplication implements Serializable {
     }
     
     public String getDivision() {
-        return division;
+        return Geography.divisionName(getDivisionCode());
     }
     
     public void setDivision(String division) {
-        this.division = division;
+        this.divisionCode = (byte) Geography.requireDivisionCode(division);
+    }
+    
+    public int getDivisionCode() {
+        return divisionCode;
     }
     
     public String getDistrict() {
-        return district;
+        return Geography.districtName(getDistrictCode());
     }
     
     public void setDistrict(String district) {
-        this.district = district;
+        this.districtCode = (byte) Geography.requireDistrictCode(district);
+    }
+    
+    public int getDistrictCode() {
+        return districtCode;
     }
     
     public String getAddress() {
@@ -113,12 +124,20 @@ public class RestaurantApplication implements Serializable {
         this.status = status;
     }
     
+    public long getAppliedAtMillis() {
+        return appliedAtMillis;
+    }
+    
+    public void setAppliedAtMillis(long appliedAtMillis) {
+        this.appliedAtMillis = appliedAtMillis;
+    }
+    
     public LocalDateTime getAppliedDate() {
-        return appliedDate;
+        return Timestamps.toDateTime(appliedAtMillis);
     }
     
     public void setAppliedDate(LocalDateTime appliedDate) {
-        this.appliedDate = appliedDate;
+        this.appliedAtMillis = Timestamps.toMillis(appliedDate);
     }
     
     public String getAdminMessage() {
@@ -136,4 +155,31 @@ public class RestaurantApplication implements Serializable {
     public void setMessageViewed(boolean messageViewed) {
         this.messageViewed = messageViewed;
     }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        applicationId = (String) fields.get("applicationId", null);
+        entrepreneurUsername = (String) fields.get("entrepreneurUsername", null);
+        restaurantName = (String) fields.get("restaurantName", null);
+        address = (String) fields.get("address", null);
+        rating = fields.get("rating", 0.0);
+        List<MenuItem> savedItems = (List<MenuItem>) fields.get("menuItems", null);
+        menuItems = savedItems != null ? new ArrayList<>(savedItems) : new ArrayList<>();
+        status = (ApplicationStatus) fields.get("status", null);
+        // Applications saved before epoch millis have a LocalDateTime "appliedDate" instead
+        appliedAtMillis = fields.defaulted("appliedAtMillis")
+                ? Timestamps.toMillis((LocalDateTime) fields.get("appliedDate", null))
+                : fields.get("appliedAtMillis", 0L);
+        adminMessage = (String) fields.get("adminMessage", null);
+        messageViewed = fields.get("messageViewed", false);
+        // Applications saved before geography codes have "division" and "district" names instead
+        if (fields.defaulted("districtCode")) {
+            divisionCode = (byte) Geography.migrateCode((String) fields.get("division", null), false);
+            districtCode = (byte) Geography.migrateCode((String) fields.get("district", null), true);
+        } else {
+            divisionCode = fields.get("divisionCode", (byte) Geography.NONE);
+            districtCode = fields.get("districtCode", (byte) Geography.NONE);
+        }
+    }
 }
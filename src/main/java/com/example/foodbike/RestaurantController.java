@@ -1,14 +1,18 @@
 package com.example.foodbike;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -16,15 +20,25 @@ public class RestaurantController {
     @FXML private TextField searchField;
     @FXML private ComboBox<String> divisionCombo;
     @FXML private ComboBox<String> districtCombo;
-    @FXML private GridPane restaurantsGrid;
+    @FXML private ListView<List<Restaurant>> restaurantsList;
     @FXML private Label userLabel;
+    @FXML private VBox trendingBox;
     private DatabaseService databaseService;
     private User currentUser;
     private List<Restaurant> currentRestaurants;
-
+    private final ObservableList<List<Restaurant>> restaurantRows = FXCollections.observableArrayList();
+    private DebouncedSearch<List<Restaurant>> search;
+    // The user's home district, for ranking nearby restaurants first; null until known
+    private volatile String homeDistrict;
+    private static final int CARDS_PER_ROW = 4;
+    private static final double CARD_HEIGHT = 280;
+    private static final double CARD_GAP = 15;
+    private static final int TRENDING_DISHES = 5;
     @FXML
     public void initialize() {
         databaseService = DatabaseService.getInstance();
+        setupRestaurantsList();
+        setupSearch();
         loadDivisions();
         loadDistricts();
         loadAllRestaurants();
@@ -40,8 +54,45 @@ public class RestaurantController {
     public void setCurrentUser(User user) {
         this.currentUser = user;
         userLabel.setText("Welcome, " + user.getUsername() + " (" + user.getUserType().toString() + ")");
+        homeDistrict = databaseService.getHomeDistrict(user.getUsername());
+        loadAllRestaurants();
+        refreshTrending();
     }
 
+    /**
+     * Shows the dishes trending in the district picked in the filter, or else in the user's home
+     * district; hidden when there is neither or nothing has been ordered there lately.
+     */
+    private void refreshTrending() {
+        String district = districtCombo.getValue();
+        if (district == null || district.equals("All")) {
+            district = homeDistrict;
+        }
+        trendingBox.getChildren().clear();
+        HBox chips = new HBox(10);
+        if (district != null && !district.equals("All")) {
+            for (SpaceSaving.Entry<String> entry : databaseService.getPopularDishes().getTrending(district, TRENDING_DISHES)) {
+                MenuItem item = databaseService.findMenuItem(entry.getKey());
+                Restaurant restaurant = databaseService.findMenuItemRestaurant(entry.getKey());
+                if (item == null || restaurant == null) {
+                    continue;
+                }
+                Button chip = new Button("🔥 " + item.getName() + " · " + restaurant.getName());
+                chip.setStyle("-fx-padding: 6 12; -fx-font-size: 12; -fx-background-color: white; -fx-text-fill: #d35400; -fx-border-color: #e67e22; -fx-border-radius: 15; -fx-background-radius: 15; -fx-cursor: hand;");
+                chip.setTooltip(new Tooltip(entry.getCount() + " ordered in the last few days"));
+                chip.setOnAction(e -> openMenuView(restaurant));
+                chips.getChildren().add(chip);
+            }
+        }
+        boolean show = !chips.getChildren().isEmpty();
+        if (show) {
+            Label titleLabel = new Label("Trending in " + district);
+            titleLabel.setStyle("-fx-font-size: 14; -fx-font-weight: bold; -fx-text-fill: #d35400;");
+            trendingBox.getChildren().addAll(titleLabel, chips);
+        }
+        trendingBox.setVisible(show);
+        trendingBox.setManaged(show);
+    }
     private void loadDivisions() {
         List<String> divisions = databaseService.getAllDivisions();
         divisionCombo.getItems().add("All");
@@ -74,66 +125,150 @@ public class RestaurantController {
     }
 
     private void loadAllRestaurants() {
-        currentRestaurants = databaseService.getAllRestaurants();
+        currentRestaurants = rank(databaseService.getAllRestaurants(), "");
         displayRestaurants(currentRestaurants);
     }
 
+    private List<Restaurant> rank(List<Restaurant> restaurants, String query) {
+        return databaseService.getRestaurantRanker().rank(restaurants, query, homeDistrict);
+    }
+
+    /**
+     * The list shows one row of four cards per cell. Only the rows on screen get cells, and each
+     * cell keeps its four cards and refills them as it scrolls, so the node count stays the same
+     * whether 50 or 50,000 restaurants match.
+     */
+    private void setupRestaurantsList() {
+        restaurantsList.setFixedCellSize(CARD_HEIGHT + CARD_GAP);
+        restaurantsList.setSelectionModel(null);
+        restaurantsList.setCellFactory(list -> new RestaurantRowCell());
+        restaurantsList.setPlaceholder(new Label("No restaurants found"));
+        restaurantsList.setItems(restaurantRows);
+    }
+
+    /**
+     * Results update as the user types. The query runs against the search index on a background
+     * thread once typing pauses, and only the rows whose restaurants changed are redrawn.
+     */
+    private void setupSearch() {
+        search = new DebouncedSearch<>(DebouncedSearch.DEFAULT_DELAY_MILLIS,
+                query -> databaseService.searchRestaurants(query, homeDistrict),
+                this::showSearchResults);
+        searchField.textProperty().addListener((obs, oldText, newText) -> search.submit(newText));
+        searchField.setOnAction(e -> handleSearch());
+    }
+
+    private void showSearchResults(List<Restaurant> results) {
+        if (!searchField.getText().trim().isEmpty()) {
+            divisionCombo.setValue("All");
+            districtCombo.setValue("All");
+        }
+        currentRestaurants = results;
+        displayRestaurants(results);
+    }
+
+    // Clearing the field would otherwise schedule a search for "" that overwrites the new results
+    private void clearSearch() {
+        searchField.clear();
+        search.cancel();
+    }
+
     private void displayRestaurants(List<Restaurant> restaurants) {
-        restaurantsGrid.getChildren().clear();
-        
-        int row = 0, col = 0;
-        for (Restaurant restaurant : restaurants) {
-            VBox restaurantCard = createRestaurantCard(restaurant);
-            restaurantsGrid.add(restaurantCard, col, row);
-            col++;
-            if (col == 4){
-                col = 0;
-                row++;
-            }
+        List<List<Restaurant>> rows = new ArrayList<>((restaurants.size() + CARDS_PER_ROW - 1) / CARDS_PER_ROW);
+        for (int from = 0; from < restaurants.size(); from += CARDS_PER_ROW) {
+            rows.add(List.copyOf(restaurants.subList(from, Math.min(from + CARDS_PER_ROW, restaurants.size()))));
         }
+        ListDiff.apply(restaurantRows, rows);
+        restaurantsList.scrollTo(0);
     }
 
-    private VBox createRestaurantCard(Restaurant restaurant) {
-        VBox card = new VBox();
-        
-        String bgColor = "#F5DEB3";
-        
-        card.setStyle("-fx-border-color: transparent; -fx-border-radius: 12; -fx-padding: 15; " +
-                     "-fx-background-color: " + bgColor + "; " +
-                     "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.25), 12, 0, 0, 4); -fx-cursor: hand;");
-        card.setSpacing(10);
-        card.setPrefHeight(280);
-
-        Label nameLabel = new Label(restaurant.getName());
-        nameLabel.setStyle("-fx-font-size: 15; -fx-font-weight: bold; -fx-text-fill: #1a1a1a;");
-        nameLabel.setWrapText(true);
-
-        // If district and division are the same, show only division name
-        String locationText;
-        if (restaurant.getDistrict().equals(restaurant.getDivision())) {
-            locationText = restaurant.getDivision();
-        } else {
-            locationText = restaurant.getDistrict() + ", " + restaurant.getDivision();
+    private class RestaurantRowCell extends ListCell<List<Restaurant>> {
+        private final HBox row = new HBox(CARD_GAP);
+        private final RestaurantCard[] cards = new RestaurantCard[CARDS_PER_ROW];
+
+        RestaurantRowCell() {
+            for (int i = 0; i < CARDS_PER_ROW; i++) {
+                cards[i] = new RestaurantCard();
+                HBox.setHgrow(cards[i].card, Priority.ALWAYS);
+                row.getChildren().add(cards[i].card);
+            }
+            setStyle("-fx-background-color: transparent; -fx-padding: 0 0 " + CARD_GAP + " 0;");
         }
-        Label locationLabel = new Label(locationText);
-        locationLabel.setStyle("-fx-font-size: 12; -fx-font-weight: bold; -fx-text-fill: #333333;");
 
-        Label ratingLabel = new Label("⭐ " + String.format("%.1f", restaurant.getRating()));
-        ratingLabel.setStyle("-fx-font-size: 13; -fx-font-weight: bold; -fx-text-fill: #FF8C00;");
+        @Override
+        protected void updateItem(List<Restaurant> restaurants, boolean empty) {
+            super.updateItem(restaurants, empty);
+            if (empty || restaurants == null) {
+                setGraphic(null);
+                return;
+            }
+            for (int i = 0; i < CARDS_PER_ROW; i++) {
+                cards[i].show(i < restaurants.size() ? restaurants.get(i) : null);
+            }
+            setGraphic(row);
+        }
+    }
 
-        Label addressLabel = new Label("📍 " + restaurant.getAddress());
-        addressLabel.setStyle("-fx-font-size: 11; -fx-font-weight: bold; -fx-text-fill: #555555; -fx-wrap-text: true;");
-        addressLabel.setWrapText(true);
+    private class RestaurantCard {
+        private final VBox card = new VBox();
+        private final Label nameLabel = new Label();
+        private final Label locationLabel = new Label();
+        private final Label ratingLabel = new Label();
+        private final Label addressLabel = new Label();
+        private final Button viewMenuBtn = new Button("View Menu");
+        private Restaurant restaurant;
 
-        Button viewMenuBtn = new Button("View Menu");
-        viewMenuBtn.setStyle("-fx-padding: 10; -fx-font-size: 12; -fx-background-color: #3498db; -fx-text-fill: white; -fx-border-radius: 4; -fx-cursor: hand;");
-        viewMenuBtn.setMaxWidth(Double.MAX_VALUE);
-        viewMenuBtn.setOnAction(e -> openMenuView(restaurant));
+        RestaurantCard() {
+            String bgColor = "#F5DEB3";
 
-        card.getChildren().addAll(nameLabel, locationLabel, ratingLabel, addressLabel, viewMenuBtn);
-        card.setPadding(new Insets(15));
+            card.setStyle("-fx-border-color: transparent; -fx-border-radius: 12; -fx-padding: 15; " +
+                         "-fx-background-color: " + bgColor + "; " +
+                         "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.25), 12, 0, 0, 4); -fx-cursor: hand;");
+            card.setSpacing(10);
+            card.setPrefHeight(CARD_HEIGHT);
+            card.setMinWidth(220);
+            card.setPrefWidth(0);
+            card.setMaxWidth(Double.MAX_VALUE);
 
-        return card;
+            nameLabel.setStyle("-fx-font-size: 15; -fx-font-weight: bold; -fx-text-fill: #1a1a1a;");
+            nameLabel.setWrapText(true);
+            locationLabel.setStyle("-fx-font-size: 12; -fx-font-weight: bold; -fx-text-fill: #333333;");
+            ratingLabel.setStyle("-fx-font-size: 13; -fx-font-weight: bold; -fx-text-fill: #FF8C00;");
+            addressLabel.setStyle("-fx-font-size: 11; -fx-font-weight: bold; -fx-text-fill: #555555; -fx-wrap-text: true;");
+            addressLabel.setWrapText(true);
+
+            viewMenuBtn.setStyle("-fx-padding: 10; -fx-font-size: 12; -fx-background-color: #3498db; -fx-text-fill: white; -fx-border-radius: 4; -fx-cursor: hand;");
+            viewMenuBtn.setMaxWidth(Double.MAX_VALUE);
+            viewMenuBtn.setOnAction(e -> {
+                if (restaurant != null) {
+                    openMenuView(restaurant);
+                }
+            });
+
+            card.getChildren().addAll(nameLabel, locationLabel, ratingLabel, addressLabel, viewMenuBtn);
+            card.setPadding(new Insets(15));
+        }
+
+        void show(Restaurant restaurant) {
+            this.restaurant = restaurant;
+            // Keep the slot in the row's layout so a short last row lines up with the rows above
+            card.setVisible(restaurant != null);
+            if (restaurant == null) {
+                return;
+            }
+            nameLabel.setText(restaurant.getName());
+
+            // If district and division are the same, show only division name
+            String locationText;
+            if (restaurant.getDistrict().equals(restaurant.getDivision())) {
+                locationText = restaurant.getDivision();
+            } else {
+                locationText = restaurant.getDistrict() + ", " + restaurant.getDivision();
+            }
+            locationLabel.setText(locationText);
+            ratingLabel.setText("⭐ " + String.format("%.1f", restaurant.getRating()));
+            addressLabel.setText("📍 " + restaurant.getAddress());
+        }
     }
 
     private void openMenuView(Restaurant restaurant) {
@@ -157,39 +292,32 @@ public class RestaurantController {
 
     @FXML
     public void handleSearch() {
-        String query = searchField.getText().trim();
-        if (query.isEmpty()) {
-            loadAllRestaurants();
-        } else {
-            divisionCombo.setValue("All");
-            districtCombo.setValue("All");
-            List<Restaurant> results = databaseService.searchRestaurants(query);
-            displayRestaurants(results);
-        }
+        search.submitNow(searchField.getText());
     }
 
     @FXML
     public void handleFilter() {
-        searchField.clear();
+        clearSearch();
         String division = divisionCombo.getValue();
         String district = districtCombo.getValue();
         
         if ((division == null || division.equals("All")) && (district == null || district.equals("All"))) {
             loadAllRestaurants();
         } else if (district != null && !district.equals("All")) {
-            List<Restaurant> results = databaseService.getRestaurantsByDistrict(district);
+            List<Restaurant> results = rank(databaseService.getRestaurantsByDistrict(district), "");
             displayRestaurants(results);
         } else if (division != null && !division.equals("All")) {
-            List<Restaurant> results = databaseService.getRestaurantsByDivision(division);
+            List<Restaurant> results = rank(databaseService.getRestaurantsByDivision(division), "");
             displayRestaurants(results);
         }
+        refreshTrending();
     }
-
     @FXML
     public void handleClear() {
-        searchField.clear();
+        clearSearch();
         divisionCombo.setValue("All");
         loadAllRestaurants();
+        refreshTrending();
     }
 
     @FXML
@@ -0,0 +1,459 @@
+package com.example.foodbike;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import of restaurants and their menus from a CSV or JSON Lines file, chosen by extension.
+ * <p>
+ * CSV files start with the header {@value #CSV_HEADER} and have one row per menu item. Consecutive
+ * rows with the same name, division, district and address form one restaurant; a row with empty
+ * item columns adds the restaurant without an item. Prices are in taka. JSON Lines files have one
+ * restaurant per line:
+ * <pre>
+ * {"name":"Khabar Ghar","division":"Dhaka","district":"Gazipur","address":"Station Road, Gazipur",
+ *  "rating":4.2,"menu":[{"name":"Tehari","description":"Spiced beef and rice","price":180}]}
+ * </pre>
+ * The file is read twice and never held in memory. The first pass validates every record against
+ * the geography and counts restaurants per division; if any record is invalid nothing is imported.
+ * The second pass reserves each division's IDs in one step, builds the restaurants, and adds them
+ * all with a single save.
+ * <p>
+ * The data directory is opened with {@link DatabaseService#openForTool}, so the import adds only the
+ * file's restaurants. That save rewrites every data file, though, so stop the application and any
+ * {@link FoodBikeServer} using the directory first; otherwise one overwrites the other's changes.
+ *
+ * <pre>
+ * java -cp target/classes com.example.foodbike.RestaurantImporter [--data DIR] FILE
+ * </pre>
+ */
+public class RestaurantImporter {
+    static final String CSV_HEADER = "name,division,district,address,rating,item_name,item_description,item_price";
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    private final DatabaseService databaseService;
+
+    public RestaurantImporter(DatabaseService databaseService) {
+        this.databaseService = databaseService;
+    }
+
+    public static class Result {
+        private int restaurantCount;
+        private int itemCount;
+        private int errorCount;
+        private final List<String> errors = new ArrayList<>();
+        // Built by prepare and added by commit
+        private final List<Restaurant> restaurants = new ArrayList<>();
+        Result() {
+        }
+
+        /** Restaurants added by {@link RestaurantImporter#commit}; 0 before it runs. */
+        public int getRestaurantCount() {
+            return restaurantCount;
+        }
+
+        public int getItemCount() {
+            return itemCount;
+        }
+
+        /** Total number of errors; only the first few are kept in {@link #getErrors()}. */
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public boolean isSuccess() {
+            return errorCount == 0;
+        }
+
+        private void addError(String error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+            errorCount++;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        File dataDirectory = new File(".");
+        File file = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--data") && i + 1 < args.length) {
+                dataDirectory = new File(args[++i]);
+            } else {
+                file = new File(args[i]);
+            }
+        }
+        if (file == null) {
+            System.out.println("Usage: RestaurantImporter [--data DIR] FILE.csv|FILE.jsonl");
+            System.exit(1);
+        }
+        DatabaseService databaseService = DatabaseService.openForTool(dataDirectory);
+        long start = System.currentTimeMillis();
+        Result result = new RestaurantImporter(databaseService).importFile(file);
+        databaseService.close();
+        if (!result.isSuccess()) {
+            result.getErrors().forEach(System.out::println);
+            System.out.println(result.getErrorCount() + " error(s); nothing was imported");
+            System.exit(1);
+        }
+        System.out.println("Imported " + result.getRestaurantCount() + " restaurants with " + result.getItemCount()
+                + " menu items in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /** Validates the whole file, then imports it if there were no errors. */
+    public Result importFile(File file) throws IOException {
+        Result result = prepare(file);
+        commit(result);
+        return result;
+    }
+
+    /**
+     * Reads and validates the file and builds its restaurants, reserving their IDs, without adding
+     * them. Safe to run off the FX thread; {@link #commit} then adds them.
+     */
+    public Result prepare(File file) throws IOException {
+        Result result = new Result();
+        Map<String, Integer> perDivision = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (Restaurant existing : databaseService.getAllRestaurants()) {
+            seen.add(key(existing.getName(), existing.getDistrictCode()));
+        }
+
+        try (RecordReader reader = open(file)) {
+            for (RestaurantRecord record = reader.next(); record != null; record = reader.next()) {
+                String error = validate(record);
+                if (error == null && !seen.add(key(record.name, Geography.districtCode(record.district)))) {
+                    error = "a restaurant named '" + record.name + "' already exists in " + record.district;
+                }
+                if (error != null) {
+                    result.addError(file.getName() + ":" + record.line + ": " + error);
+                } else {
+                    perDivision.merge(Geography.divisionName(Geography.divisionCode(record.division)), 1, Integer::sum);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            result.addError(file.getName() + ": " + e.getMessage());
+        }
+        if (!result.isSuccess() || perDivision.isEmpty()) {
+            return result;
+        }
+
+        Map<String, List<String>> ids = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : perDivision.entrySet()) {
+            ids.put(entry.getKey(), new ArrayList<>(databaseService.reserveRestaurantIds(entry.getKey(), entry.getValue())));
+        }
+        Map<String, Integer> used = new HashMap<>();
+        try (RecordReader reader = open(file)) {
+            for (RestaurantRecord record = reader.next(); record != null; record = reader.next()) {
+                String division = Geography.divisionName(Geography.divisionCode(record.division));
+                int index = used.merge(division, 1, Integer::sum) - 1;
+                Restaurant restaurant = new Restaurant(ids.get(division).get(index), record.name, division,
+                        Geography.districtName(Geography.districtCode(record.district)), record.address);
+                restaurant.setRating(record.rating);
+                restaurant.addMenuItems(record.items);
+                result.restaurants.add(restaurant);
+                result.itemCount += record.items.size();
+            }
+        }
+        return result;
+    }
+
+    /** Adds the restaurants {@link #prepare} built, if it found no errors, with a single save. */
+    public void commit(Result result) {
+        if (result.isSuccess() && !result.restaurants.isEmpty()) {
+            result.restaurantCount = databaseService.addRestaurants(result.restaurants);
+            result.restaurants.clear();
+        }
+    }
+
+    private static String key(String name, int districtCode) {
+        return name.toLowerCase(Locale.ROOT) + "|" + districtCode;
+    }
+
+    private static String validate(RestaurantRecord record) {
+        if (record.error != null) {
+            return record.error;
+        }
+        if (record.name.isEmpty()) {
+            return "missing restaurant name";
+        }
+        int division = Geography.divisionCode(record.division);
+        if (division == Geography.NONE) {
+            return "unknown division '" + record.division + "'";
+        }
+        int district = Geography.districtCode(record.district);
+        if (district == Geography.NONE) {
+            return "unknown district '" + record.district + "'";
+        }
+        if (Geography.divisionOfDistrict(district) != division) {
+            return record.district + " is not in " + record.division + " division";
+        }
+        if (record.address.isEmpty()) {
+            return "missing address";
+        }
+        if (record.rating < 0 || record.rating > 5) {
+            return "rating must be between 0 and 5";
+        }
+        for (MenuItem item : record.items) {
+            if (item.getName().isEmpty()) {
+                return "menu item without a name";
+            }
+            if (item.getPriceMinor() <= 0) {
+                return "price of '" + item.getName() + "' must be greater than 0";
+            }
+        }
+        return null;
+    }
+
+    private static RecordReader open(File file) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return new JsonLinesReader(reader);
+        }
+        if (name.endsWith(".csv")) {
+            return new CsvReader(reader);
+        }
+        reader.close();
+        throw new IllegalArgumentException("Unsupported file type: " + file.getName() + " (expected .csv or .jsonl)");
+    }
+
+    /** One restaurant as read from the file; {@code error} is set if it could not be parsed. */
+    private static class RestaurantRecord {
+        int line;
+        String name = "";
+        String division = "";
+        String district = "";
+        String address = "";
+        double rating = 4.5;
+        List<MenuItem> items = new ArrayList<>();
+        String error;
+    }
+
+    private interface RecordReader extends AutoCloseable {
+        /** @return the next restaurant, or null at the end of the file */
+        RestaurantRecord next() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static String text(String value) {
+        return value != null ? value.trim() : "";
+    }
+
+    private static MenuItem newItem(String name, String description, long priceMinor) {
+        return new MenuItem(IdGenerator.getInstance().nextId("item"), name, description, priceMinor);
+    }
+
+    private static class JsonLinesReader implements RecordReader {
+        private final BufferedReader reader;
+        private int lineNumber;
+
+        JsonLinesReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public RestaurantRecord next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            RestaurantRecord record = new RestaurantRecord();
+            record.line = lineNumber;
+            try {
+                Map<String, Object> json = Json.parseObject(line);
+                record.name = text(Json.getString(json, "name"));
+                record.division = text(Json.getString(json, "division"));
+                record.district = text(Json.getString(json, "district"));
+                record.address = text(Json.getString(json, "address"));
+                record.rating = Json.getDouble(json, "rating", record.rating);
+                Object menu = json.get("menu");
+                if (menu instanceof List) {
+                    for (Object item : (List<Object>) menu) {
+                        Map<String, Object> itemJson = (Map<String, Object>) item;
+                        long priceMinor = itemJson.containsKey("priceMinor")
+                                ? Json.getLong(itemJson, "priceMinor", 0L)
+                                : Money.ofMajor(Json.getDouble(itemJson, "price", 0.0));
+                        record.items.add(newItem(text(Json.getString(itemJson, "name")),
+                                text(Json.getString(itemJson, "description")), priceMinor));
+                    }
+                }
+            } catch (RuntimeException e) {
+                record.error = "invalid JSON: " + e.getMessage();
+            }
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static class CsvReader implements RecordReader {
+        private final BufferedReader reader;
+        private int lineNumber = 1;
+        private int recordLine;
+        private List<String> pending;
+        private int pendingLine;
+        private boolean headerRead;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public RestaurantRecord next() throws IOException {
+            if (!headerRead) {
+                headerRead = true;
+                List<String> header = readRow();
+                if (header == null || !String.join(",", header).trim().equalsIgnoreCase(CSV_HEADER)) {
+                    throw new IllegalArgumentException("the first line must be the header " + CSV_HEADER);
+                }
+                pending = readRow();
+                pendingLine = recordLine;
+            }
+            if (pending == null) {
+                return null;
+            }
+
+            RestaurantRecord record = new RestaurantRecord();
+            record.line = pendingLine;
+            List<String> first = pending;
+            if (first.size() != 8) {
+                record.error = "expected 8 columns but found " + first.size();
+                pending = readRow();
+                pendingLine = recordLine;
+                return record;
+            }
+            record.name = first.get(0).trim();
+            record.division = first.get(1).trim();
+            record.district = first.get(2).trim();
+            record.address = first.get(3).trim();
+            if (!first.get(4).isBlank()) {
+                try {
+                    record.rating = Double.parseDouble(first.get(4).trim());
+                } catch (NumberFormatException e) {
+                    record.error = "invalid rating '" + first.get(4) + "'";
+                }
+            }
+            // Following rows for the same restaurant only add menu items
+            List<String> row = first;
+            while (row != null && row.size() == 8 && sameRestaurant(first, row)) {
+                addItem(record, row);
+                row = readRow();
+                pendingLine = recordLine;
+            }
+            pending = row;
+            return record;
+        }
+
+        private static boolean sameRestaurant(List<String> a, List<String> b) {
+            for (int i = 0; i < 4; i++) {
+                if (!a.get(i).trim().equals(b.get(i).trim())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void addItem(RestaurantRecord record, List<String> row) {
+            String name = row.get(5).trim();
+            String price = row.get(7).trim();
+            if (name.isEmpty() && price.isEmpty()) {
+                return;
+            }
+            try {
+                record.items.add(newItem(name, row.get(6).trim(), Money.ofMajor(Double.parseDouble(price))));
+            } catch (NumberFormatException e) {
+                if (record.error == null) {
+                    record.error = "invalid price '" + price + "' on line " + recordLine;
+                }
+            }
+        }
+
+        /**
+         * Reads one CSV row as RFC 4180 describes it: fields may be quoted, quotes inside them are
+         * doubled, and quoted fields may span lines. Blank lines are skipped.
+         *
+         * @return the fields, or null at the end of the file
+         */
+        private List<String> readRow() throws IOException {
+            List<String> fields = new ArrayList<>(8);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            recordLine = lineNumber;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                    any = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    any = true;
+                } else if (c == '\n') {
+                    lineNumber++;
+                    if (any || field.length() > 0) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    recordLine = lineNumber;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (any || field.length() > 0) {
+                fields.add(field.toString());
+                return fields;
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
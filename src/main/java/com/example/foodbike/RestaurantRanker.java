@@ -0,0 +1,188 @@
+package com.example.foodbike;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Orders search and filter results so the best matches come first. A restaurant's score combines
+ * how well the query matches its text, its rating (trusted more the more reviews it has), how many
+ * orders it had in the last {@value #RECENT_DAYS} days, and whether it is in the user's home
+ * district or division.
+ * <p>
+ * Everything but the text match is kept per restaurant as a feature vector, built on first use
+ * from {@link DatabaseService}'s incremental aggregates and dropped when a review or order for the
+ * restaurant arrives, or when the day changes. Each match is scored once and then every match is
+ * sorted by score, so the whole list is in rank order however many restaurants match. Safe to call
+ * from background threads.
+ */
+public class RestaurantRanker implements DataChangeListener {
+    static final int RECENT_DAYS = 7;
+    // Recent orders at which the popularity feature saturates
+    private static final int POPULARITY_CAP = 200;
+    // Reviews at which a rating is trusted halfway
+    private static final int RATING_CONFIDENCE_REVIEWS = 5;
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    private static final double TEXT_WEIGHT = 0.35;
+    private static final double RATING_WEIGHT = 0.25;
+    private static final double POPULARITY_WEIGHT = 0.2;
+    private static final double LOCALITY_WEIGHT = 0.2;
+
+    private final DatabaseService databaseService;
+    private final Map<String, Features> features = new ConcurrentHashMap<>();
+    private volatile LocalDate featureDay = LocalDate.now();
+
+    RestaurantRanker(DatabaseService databaseService) {
+        this.databaseService = databaseService;
+    }
+
+    @Override
+    public void onDataChanged(DataChangeEvent event) {
+        switch (event.getType()) {
+            case ORDER_CREATED -> features.remove(event.getOrder().getRestaurantId());
+            case REVIEW_ADDED -> features.remove(event.getReview().getRestaurantId());
+            default -> {
+            }
+        }
+    }
+
+    /** Drops the restaurant's features, e.g. after it was edited or removed. */
+    public void invalidate(String restaurantId) {
+        features.remove(restaurantId);
+    }
+
+    /**
+     * Returns {@code matches} best first. Ties keep the original order.
+     *
+     * @param homeDistrict the user's district, or null if unknown
+     */
+    public List<Restaurant> rank(List<Restaurant> matches, String query, String homeDistrict) {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(featureDay)) {
+            featureDay = today;
+            features.clear();
+        }
+        String needle = query == null ? "" : query.toLowerCase(Locale.ROOT).trim();
+        int homeDistrictCode = homeDistrict != null ? Geography.districtCode(homeDistrict) : Geography.NONE;
+        int homeDivisionCode = Geography.divisionOfDistrict(homeDistrictCode);
+
+        Scored[] scored = new Scored[matches.size()];
+        for (int i = 0; i < matches.size(); i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                return matches;
+            }
+            Restaurant restaurant = matches.get(i);
+            Features f = features(restaurant);
+            double locality = f.districtCode == homeDistrictCode && homeDistrictCode != Geography.NONE ? 1.0
+                    : f.divisionCode == homeDivisionCode && homeDivisionCode != Geography.NONE ? 0.3 : 0.0;
+            double score = TEXT_WEIGHT * textScore(f, needle) + RATING_WEIGHT * f.rating
+                    + POPULARITY_WEIGHT * f.popularity + LOCALITY_WEIGHT * locality;
+            scored[i] = new Scored(i, score);
+        }
+
+        Arrays.sort(scored);
+        List<Restaurant> ranked = new ArrayList<>(matches.size());
+        for (Scored s : scored) {
+            ranked.add(matches.get(s.index));
+        }
+        return ranked;
+    }
+
+    // Not computeIfAbsent: computing takes DatabaseService's lock, which event delivery holds while removing entries
+    private Features features(Restaurant restaurant) {
+        Features f = features.get(restaurant.getId());
+        if (f == null) {
+            f = compute(restaurant);
+            features.putIfAbsent(restaurant.getId(), f);
+        }
+        return f;
+    }
+
+    /** 1 for the exact name, less for weaker matches, down to an address-only match. */
+    private static double textScore(Features f, String needle) {
+        if (needle.isEmpty()) {
+            return 0;
+        }
+        if (f.name.equals(needle)) {
+            return 1.0;
+        }
+        if (f.name.startsWith(needle)) {
+            return 0.85;
+        }
+        int at = f.name.indexOf(needle);
+        if (at > 0 && f.name.charAt(at - 1) == ' ') {
+            return 0.7;
+        }
+        if (at > 0) {
+            return 0.55;
+        }
+        if (f.district.startsWith(needle) || f.division.startsWith(needle)) {
+            return 0.45;
+        }
+        return 0.25;
+    }
+
+    private Features compute(Restaurant restaurant) {
+        int reviews = databaseService.getReviewCount(restaurant.getId());
+        double confidence = (double) reviews / (reviews + RATING_CONFIDENCE_REVIEWS);
+        double rating = restaurant.getRating() / 5.0 * (0.7 + 0.3 * confidence);
+
+        LocalDate today = LocalDate.now();
+        int recentOrders = databaseService.getSalesRollups()
+                .getTotal(SalesRollups.Scope.RESTAURANT, restaurant.getId(), today.minusDays(RECENT_DAYS - 1), today)
+                .getOrderCount();
+        double popularity = Math.min(1.0, Math.log1p(recentOrders) / Math.log1p(POPULARITY_CAP));
+
+        return new Features(lower(restaurant.getName()), lower(restaurant.getDistrict()), lower(restaurant.getDivision()),
+                restaurant.getDistrictCode(), restaurant.getDivisionCode(), rating, popularity);
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /** The precomputed, query-independent inputs to a restaurant's score. */
+    private static final class Features {
+        private final String name;
+        private final String district;
+        private final String division;
+        private final int districtCode;
+        private final int divisionCode;
+        // Both scaled to 0..1
+        private final double rating;
+        private final double popularity;
+
+        Features(String name, String district, String division, int districtCode, int divisionCode,
+                 double rating, double popularity) {
+            this.name = name;
+            this.district = district;
+            this.division = division;
+            this.districtCode = districtCode;
+            this.divisionCode = divisionCode;
+            this.rating = rating;
+            this.popularity = popularity;
+        }
+    }
+
+    private static final class Scored implements Comparable<Scored> {
+        private final int index;
+        private final double score;
+
+        Scored(int index, double score) {
+            this.index = index;
+            this.score = score;
+        }
+
+        // Higher score first; on a tie the earlier match comes first
+        @Override
+        public int compareTo(Scored other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : Integer.compare(index, other.index);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.foodbike;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable substring index over a snapshot of the restaurants. Each restaurant's searchable text
+ * is lower-cased once, and every three-character sequence in it maps to the sorted list of
+ * restaurants containing it. A query of three or more characters only checks the restaurants in
+ * the intersection of its trigrams' lists, instead of every restaurant. Shorter queries fall back
+ * to a scan of the pre-lowered text.
+ *
+ * <p>Searching allocates nothing shared, so an index can be queried from background threads while
+ * {@link DatabaseService} builds its replacement. Results keep the snapshot's order.
+ */
+public class RestaurantSearchIndex {
+    private static final int[] NO_MATCHES = new int[0];
+    // How many candidates to check between looks at the interrupt flag
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    private final Restaurant[] restaurants;
+    // Name, district, division and address, joined by '\n' so no query can match across two fields
+    private final String[] allFields;
+    private final String[] nameAndAddress;
+    private final Map<Long, int[]> postings;
+
+    public RestaurantSearchIndex(List<Restaurant> snapshot) {
+        restaurants = snapshot.toArray(new Restaurant[0]);
+        allFields = new String[restaurants.length];
+        nameAndAddress = new String[restaurants.length];
+        Map<Long, IntList> building = new HashMap<>();
+        for (int i = 0; i < restaurants.length; i++) {
+            Restaurant restaurant = restaurants[i];
+            String name = lower(restaurant.getName());
+            String address = lower(restaurant.getAddress());
+            nameAndAddress[i] = name + "\n" + address;
+            allFields[i] = name + "\n" + lower(restaurant.getDistrict()) + "\n" + lower(restaurant.getDivision()) + "\n" + address;
+            String text = allFields[i];
+            for (int p = 0; p + 3 <= text.length(); p++) {
+                if (text.charAt(p) == '\n' || text.charAt(p + 1) == '\n' || text.charAt(p + 2) == '\n') {
+                    continue;
+                }
+                building.computeIfAbsent(trigram(text, p), key -> new IntList()).addIfLast(i);
+            }
+        }
+        postings = new HashMap<>(building.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, IntList> entry : building.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    public int size() {
+        return restaurants.length;
+    }
+
+    /** Restaurants whose name, district, division or address contains {@code query}, ignoring case. */
+    public List<Restaurant> search(String query) {
+        return search(query, allFields);
+    }
+
+    /** Restaurants whose name or address contains {@code query}, ignoring case. */
+    public List<Restaurant> searchNameOrAddress(String query) {
+        return search(query, nameAndAddress);
+    }
+
+    /**
+     * If the calling thread is interrupted part way through, returns what it has found so far;
+     * callers that cancel a search are expected to ignore its result.
+     */
+    private List<Restaurant> search(String query, String[] texts) {
+        String needle = lower(query).trim();
+        if (needle.isEmpty()) {
+            return Collections.unmodifiableList(Arrays.asList(restaurants));
+        }
+        List<Restaurant> results = new ArrayList<>();
+        if (needle.length() < 3) {
+            for (int i = 0; i < texts.length; i++) {
+                if (i % CANCEL_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                    return results;
+                }
+                if (texts[i].contains(needle)) {
+                    results.add(restaurants[i]);
+                }
+            }
+            return results;
+        }
+
+        int[] candidates = candidatesFor(needle);
+        for (int c = 0; c < candidates.length; c++) {
+            if (c % CANCEL_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                return results;
+            }
+            int i = candidates[c];
+            // Every trigram matching does not mean the whole query does, so confirm
+            if (texts[i].contains(needle)) {
+                results.add(restaurants[i]);
+            }
+        }
+        return results;
+    }
+
+    private int[] candidatesFor(String needle) {
+        List<int[]> lists = new ArrayList<>();
+        for (int p = 0; p + 3 <= needle.length(); p++) {
+            int[] list = postings.get(trigram(needle, p));
+            if (list == null) {
+                return NO_MATCHES;
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+        int[] result = lists.get(0);
+        for (int l = 1; l < lists.size() && result.length > 0; l++) {
+            result = intersect(result, lists.get(l));
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static long trigram(String text, int p) {
+        return ((long) text.charAt(p) << 32) | ((long) text.charAt(p + 1) << 16) | text.charAt(p + 2);
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /** Growable sorted posting list; restaurants are added in index order, so dedup is a last-value check. */
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addIfLast(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package com.example.foodbike;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 
 public class Review implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    /** Newest review first, ties broken by review ID; creation time must not change once stored. */
+    public static final Comparator<Review> NEWEST_FIRST =
+            Comparator.comparingLong(Review::getCreatedAtMillis).thenComparing(Review::getReviewId).reversed();
+
     private String reviewId;
     private String restaurantId;
     private String userId;
     private String orderId;
     private int rating;
     private String comment;
-    private LocalDateTime createdAt;
+    private long createdAtMillis;
 
     public Review(String reviewId, String restaurantId, String userId, String orderId, int rating, String comment) {
         this.reviewId = reviewId;
@@ -21,7 +28,7 @@ public class Review implements Serializable {
         this.orderId = orderId;
         this.rating = rating;
         this.comment = comment;
-        this.createdAt = LocalDateTime.now();
+        this.createdAtMillis = System.currentTimeMillis();
     }
 
     public String getReviewId() {
@@ -72,11 +79,33 @@ public class Review implements Serializable {
         this.comment = comment;
     }
 
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public void setCreatedAtMillis(long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+    }
+
     public LocalDateTime getCreatedAt() {
-        return createdAt;
+        return Timestamps.toDateTime(createdAtMillis);
     }
 
     public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
+        this.createdAtMillis = Timestamps.toMillis(createdAt);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        reviewId = (String) fields.get("reviewId", null);
+        restaurantId = (String) fields.get("restaurantId", null);
+        userId = (String) fields.get("userId", null);
+        orderId = (String) fields.get("orderId", null);
+        rating = fields.get("rating", 0);
+        comment = (String) fields.get("comment", null);
+        // Reviews saved before epoch millis have a LocalDateTime "createdAt" instead
+        createdAtMillis = fields.defaulted("createdAtMillis")
+                ? Timestamps.toMillis((LocalDateTime) fields.get("createdAt", null))
+                : fields.get("createdAtMillis", 0L);
     }
 }
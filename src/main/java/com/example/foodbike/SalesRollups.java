@@ -0,0 +1,254 @@
+package com.example.foodbike;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Daily sales counters per restaurant, district and division, so the dashboards never scan the
+ * orders. Each order counts towards the day it was created: once in the order count, in the
+ * cancellations while it is cancelled, and in the revenue while it is not.
+ * <p>
+ * {@link #backfill} rebuilds everything from the stored orders in a parallel fork/join pass; after
+ * that the counters follow the order events. The status each order was last counted with is kept,
+ * so an event that repeats a known state (as the server's event feed may) changes nothing.
+ */
+public class SalesRollups implements DataChangeListener {
+    public enum Scope {
+        RESTAURANT, DISTRICT, DIVISION
+    }
+
+    // Orders per fork/join leaf; below this, splitting costs more than it saves
+    private static final int BACKFILL_THRESHOLD = 4096;
+
+    private Counters counters = new Counters();
+
+    SalesRollups() {
+    }
+    /** Replaces all counters with ones computed from {@code orders}, which must not change meanwhile. */
+    public void backfill(Collection<Order> orders) {
+        Order[] snapshot = orders.toArray(new Order[0]);
+        Counters rebuilt = ForkJoinPool.commonPool().invoke(new BackfillTask(snapshot, 0, snapshot.length));
+        synchronized (this) {
+            counters = rebuilt;
+        }
+    }
+
+    @Override
+    public synchronized void onDataChanged(DataChangeEvent event) {
+        switch (event.getType()) {
+            case ORDER_CREATED, ORDER_STATUS_CHANGED -> counters.count(event.getOrder());
+            default -> {
+            }
+        }
+    }
+
+    /** The day-by-day figures for one restaurant ID, district or division name, oldest first; days without orders are left out. */
+    public synchronized List<Sales> getDaily(Scope scope, String key, LocalDate from, LocalDate to) {
+        List<Sales> days = new ArrayList<>();
+        NavigableMap<Long, Sales> byDay = counters.byScope.get(scope).get(key);
+        if (byDay != null) {
+            for (Sales day : byDay.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+                days.add(day.copy());
+            }
+        }
+        return days;
+    }
+
+    /** The totals for one restaurant ID, district or division name over the days from {@code from} to {@code to}. */
+    public synchronized Sales getTotal(Scope scope, String key, LocalDate from, LocalDate to) {
+        Sales total = new Sales(key, to.toEpochDay());
+        NavigableMap<Long, Sales> byDay = counters.byScope.get(scope).get(key);
+        if (byDay != null) {
+            for (Sales day : byDay.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+                total.add(day);
+            }
+        }
+        return total;
+    }
+
+    /** The totals over the given days for every restaurant, district or division that had orders in them. */
+    public synchronized List<Sales> getTotals(Scope scope, LocalDate from, LocalDate to) {
+        List<Sales> totals = new ArrayList<>();
+        for (String key : counters.byScope.get(scope).keySet()) {
+            Sales total = getTotal(scope, key, from, to);
+            if (total.getOrderCount() > 0) {
+                totals.add(total);
+            }
+        }
+        return totals;
+    }
+
+    /** Order counts and revenue for one restaurant, district or division on one day, or summed over several. */
+    public static final class Sales {
+        private final String key;
+        private final long epochDay;
+        private int orderCount;
+        private int cancelledCount;
+        private int deliveredCount;
+        private long revenueMinor;
+
+        Sales(String key, long epochDay) {
+            this.key = key;
+            this.epochDay = epochDay;
+        }
+
+        /** The restaurant ID, district or division name. */
+        public String getKey() {
+            return key;
+        }
+
+        /** The day, or the last day of the range for a total. */
+        public LocalDate getDate() {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+
+        /** Orders placed, including the ones later cancelled. */
+        public int getOrderCount() {
+            return orderCount;
+        }
+
+        public int getCancelledCount() {
+            return cancelledCount;
+        }
+
+        public int getDeliveredCount() {
+            return deliveredCount;
+        }
+
+        /** The total of the orders that are not cancelled, in poisha. */
+        public long getRevenueMinor() {
+            return revenueMinor;
+        }
+
+        /** Average total of the orders that are not cancelled, in poisha, or 0 if there are none. */
+        public long getAverageBasketMinor() {
+            int kept = orderCount - cancelledCount;
+            return kept > 0 ? revenueMinor / kept : 0;
+        }
+
+        void add(Sales other) {
+            orderCount += other.orderCount;
+            cancelledCount += other.cancelledCount;
+            deliveredCount += other.deliveredCount;
+            revenueMinor += other.revenueMinor;
+        }
+
+        void add(Order order, Order.OrderStatus status, int sign) {
+            orderCount += sign;
+            if (status == Order.OrderStatus.CANCELLED || status == Order.OrderStatus.AUTO_CANCELLED) {
+                cancelledCount += sign;
+            } else {
+                revenueMinor += sign * order.getTotalMinor();
+            }
+            if (status == Order.OrderStatus.DELIVERED) {
+                deliveredCount += sign;
+            }
+        }
+
+        Sales copy() {
+            Sales copy = new Sales(key, epochDay);
+            copy.add(this);
+            return copy;
+        }
+    }
+
+    /** The counters themselves; built privately by each backfill task, then merged. */
+    private static class Counters {
+        private final Map<Scope, Map<String, NavigableMap<Long, Sales>>> byScope = new EnumMap<>(Scope.class);
+        // Status each order was last counted with, so repeated events are not counted twice
+        private final Map<String, Order.OrderStatus> countedStatus = new HashMap<>();
+
+        Counters() {
+            for (Scope scope : Scope.values()) {
+                byScope.put(scope, new HashMap<>());
+            }
+        }
+
+        void count(Order order) {
+            Order.OrderStatus status = order.getStatus();
+            Order.OrderStatus previous = countedStatus.put(order.getOrderId(), status);
+            if (previous == status) {
+                return;
+            }
+            long day = Timestamps.toEpochDay(order.getCreatedAtMillis());
+            if (previous != null) {
+                add(order, day, previous, -1);
+            }
+            add(order, day, status, 1);
+        }
+
+        private void add(Order order, long day, Order.OrderStatus status, int sign) {
+            day(Scope.RESTAURANT, order.getRestaurantId(), day).add(order, status, sign);
+            String district = Geography.districtName(order.getDistrictCode());
+            if (district != null) {
+                day(Scope.DISTRICT, district, day).add(order, status, sign);
+                day(Scope.DIVISION, Geography.divisionName(Geography.divisionOfDistrict(order.getDistrictCode())), day)
+                        .add(order, status, sign);
+            }
+        }
+
+        private Sales day(Scope scope, String key, long day) {
+            return byScope.get(scope).computeIfAbsent(key, k -> new TreeMap<>()).computeIfAbsent(day, d -> new Sales(key, d));
+        }
+
+        void merge(Counters other) {
+            countedStatus.putAll(other.countedStatus);
+            for (Scope scope : Scope.values()) {
+                Map<String, NavigableMap<Long, Sales>> mine = byScope.get(scope);
+                for (Map.Entry<String, NavigableMap<Long, Sales>> entry : other.byScope.get(scope).entrySet()) {
+                    NavigableMap<Long, Sales> days = mine.get(entry.getKey());
+                    if (days == null) {
+                        mine.put(entry.getKey(), entry.getValue());
+                        continue;
+                    }
+                    for (Map.Entry<Long, Sales> day : entry.getValue().entrySet()) {
+                        Sales existing = days.putIfAbsent(day.getKey(), day.getValue());
+                        if (existing != null) {
+                            existing.add(day.getValue());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static class BackfillTask extends RecursiveTask<Counters> {
+        private static final long serialVersionUID = 1L;
+        private final Order[] orders;
+        private final int from;
+        private final int to;
+
+        BackfillTask(Order[] orders, int from, int to) {
+            this.orders = orders;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Counters compute() {
+            if (to - from <= BACKFILL_THRESHOLD) {
+                Counters counters = new Counters();
+                for (int i = from; i < to; i++) {
+                    counters.count(orders[i]);
+                }
+                return counters;
+            }
+            int middle = (from + to) >>> 1;
+            BackfillTask left = new BackfillTask(orders, from, middle);
+            left.fork();
+            Counters right = new BackfillTask(orders, middle, to).compute();
+            Counters merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.foodbike;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The default catalog of 256 restaurants (4 in each district), shipped as the resource
+ * {@value #RESOURCE} rather than built at startup, so every install gets the same restaurants,
+ * ratings included.
+ * <p>
+ * The file is read in one go and decoded from a {@link ByteBuffer} without parsing: a header, the
+ * end offset of each string, then fixed-width menu and restaurant records that refer to strings by
+ * index, then the UTF-8 string bytes. Every record has a known position, so the same layout could
+ * be memory-mapped from disk. Item IDs are not stored; they follow the {@code item_<n>_<k>} pattern
+ * the catalog has always used.
+ *
+ * <pre>
+ * java -cp target/classes com.example.foodbike.SeedCatalog [output file]
+ * </pre>
+ * regenerates the resource; it defaults to the copy under src/main/resources.
+ */
+public final class SeedCatalog {
+    static final String RESOURCE = "seed-catalog.bin";
+    private static final int MAGIC = 0x46425343; // "FBSC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final int MENU_RECORD_BYTES = 16;
+    private static final int RESTAURANT_RECORD_BYTES = 16;
+
+    private static final int RESTAURANTS_PER_DISTRICT = 4;
+    private static final long RATING_SEED = 256;
+
+    private static final String[] NAMES = {
+            "Khabar Ghar", "Bhoj Bari", "Ruchi Bhandar", "Pakghor", "Swaad Kutir",
+            "Amader Rannaghor", "Khana Khazana", "Rasoi Ghar", "Bhojan Griha", "Annapurna Bhoj",
+            "Spice Lounge", "Flavour Junction", "Royal Feast", "Golden Spoon", "Heritage Kitchen",
+            "Bawarchi Khana", "Dawat Ghar", "Mehfil Restaurant", "Sultan's Kitchen", "Mughal Durbar",
+            "Kacchi Bhai", "Biryani Mahal", "Tehari House", "Pulao Palace", "Rice Bowl",
+            "Tandoori Adda", "Kebab Corner", "Tikka Time", "Grill Master", "BBQ Nation",
+            "Curry Hub", "Masala Magic", "Spice Garden", "Chili Chicken", "Pepper Pot",
+            "Roti Ghar", "Naan Stop", "Paratha Plaza", "Chapati Corner", "Bread Basket",
+            "Desi Dhaba", "Village Kitchen", "Gram Bangla", "Shobar Rannaghor", "Bazar Bhoj",
+            "Fish Fry", "Machher Bazar", "Prawn Paradise", "Seafood Station", "Ocean Delight",
+            "Chicken King", "Murgh Mahal", "Roast House", "Fry Point", "Korai Kitchen",
+            "Sweet Corner", "Mishti Mukh", "Rosogolla House", "Dessert Delight", "Cake Palace",
+            "Tea Time", "Cha Chakra", "Coffee Adda", "Cafe Culture", "Brew Station",
+            "Breakfast Bazar", "Morning Meals", "Nashta Ghar", "Brunch Spot", "Early Bites",
+            "Fast Food Fusion", "Quick Bites", "Snack Attack", "Chatpata Corner", "Street Food",
+            "Pizza Point", "Pasta House", "Italian Touch", "Continental Cafe", "Western Grill",
+            "Chinese Wok", "Thai Spice", "Asian Bowl", "Oriental Kitchen", "Dragon House",
+            "Burger Spot", "Sandwich Shop", "Wrap Zone", "Hot Dog Hub", "Sub Station",
+            "Juice Junction", "Lassi Bar", "Smoothie Corner", "Borhani Bazar", "Drink Depot",
+            "Vegetarian Villa", "Green Plate", "Salad Bowl", "Healthy Eats", "Organic Oasis"
+    };
+    private static final String[] AREAS = {
+            "Shadar Road", "Station Road", "College Road", "Market Area", "City Center", "Sadar",
+            "Pourashava", "Bypass Road", "Main Road", "Upazila Road"
+    };
+    // name, description, price in poisha; every seeded restaurant starts with this menu
+    private static final Object[][] MENU = {
+            {"Special Combo", "Our signature dish", 250_00L},
+            {"Deluxe Meal", "Premium items", 350_00L},
+            {"Basic Meal", "Standard items", 150_00L},
+            {"Beverage", "Drinks and juices", 50_00L}
+    };
+
+    private SeedCatalog() {
+    }
+
+    /** @return the catalog's restaurants, or an empty list if the resource is missing or damaged */
+    public static List<Restaurant> load() {
+        try (InputStream in = SeedCatalog.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                System.out.println("Seed catalog " + RESOURCE + " not found; starting without default restaurants");
+                return new ArrayList<>();
+            }
+            return read(ByteBuffer.wrap(in.readAllBytes()));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error loading seed catalog: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    static List<Restaurant> read(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("not a version " + FORMAT_VERSION + " seed catalog");
+        }
+        int stringCount = buffer.getInt(8);
+        int menuCount = buffer.getInt(12);
+        int restaurantCount = buffer.getInt(16);
+        int menuStart = HEADER_BYTES + stringCount * Integer.BYTES;
+        int restaurantStart = menuStart + menuCount * MENU_RECORD_BYTES;
+        int stringStart = restaurantStart + restaurantCount * RESTAURANT_RECORD_BYTES;
+
+        String[] strings = new String[stringCount];
+        int from = stringStart;
+        for (int i = 0; i < stringCount; i++) {
+            int to = stringStart + buffer.getInt(HEADER_BYTES + i * Integer.BYTES);
+            byte[] utf8 = new byte[to - from];
+            buffer.get(from, utf8);
+            strings[i] = new String(utf8, StandardCharsets.UTF_8);
+            from = to;
+        }
+
+        List<Restaurant> restaurants = new ArrayList<>(restaurantCount);
+        for (int r = 0; r < restaurantCount; r++) {
+            int at = restaurantStart + r * RESTAURANT_RECORD_BYTES;
+            int district = buffer.get(at + 14);
+            Restaurant restaurant = new Restaurant(strings[buffer.getInt(at)], strings[buffer.getInt(at + 4)],
+                    Geography.divisionName(Geography.divisionOfDistrict(district)), Geography.districtName(district),
+                    strings[buffer.getInt(at + 8)]);
+            restaurant.setRating(buffer.get(at + 15) / 10.0);
+            int sequence = buffer.getShort(at + 12);
+            List<MenuItem> menu = new ArrayList<>(menuCount);
+            for (int k = 0; k < menuCount; k++) {
+                int item = menuStart + k * MENU_RECORD_BYTES;
+                menu.add(new MenuItem("item_" + sequence + "_" + (k + 1), strings[buffer.getInt(item)],
+                        strings[buffer.getInt(item + 4)], buffer.getLong(item + 8)));
+            }
+            restaurant.addMenuItems(menu);
+            restaurants.add(restaurant);
+        }
+        return restaurants;
+    }
+
+    public static void main(String[] args) throws IOException {
+        File out = new File(args.length > 0 ? args[0] : "src/main/resources/com/example/foodbike/" + RESOURCE);
+        byte[] catalog = build();
+        try (FileOutputStream fos = new FileOutputStream(out)) {
+            fos.write(catalog);
+        }
+        System.out.println("Wrote " + catalog.length + " bytes to " + out.getAbsolutePath());
+    }
+
+    /** Lays out the catalog; IDs are numbered per division in dictionary order. */
+    static byte[] build() throws IOException {
+        Map<String, Integer> stringIndex = new LinkedHashMap<>();
+        List<int[]> records = new ArrayList<>();
+        Random random = new Random(RATING_SEED);
+        int sequence = 1;
+        for (String division : Geography.divisionNames()) {
+            String prefix = DatabaseService.divisionPrefix(division);
+            int divisionCount = 0;
+            for (String district : Geography.districtNames(Geography.divisionCode(division))) {
+                for (int j = 0; j < RESTAURANTS_PER_DISTRICT; j++) {
+                    divisionCount++;
+                    int nameIndex = sequence - 1;
+                    String name = NAMES[nameIndex % NAMES.length];
+                    if (nameIndex >= NAMES.length) {
+                        name = name + " " + (nameIndex / NAMES.length);
+                    }
+                    String id = prefix + (divisionCount < 10 ? "00" : divisionCount < 100 ? "0" : "") + divisionCount;
+                    String address = AREAS[sequence % AREAS.length] + ", " + district;
+                    int ratingTenths = (int) Math.round((3.5 + random.nextDouble() * 1.5) * 10);
+                    records.add(new int[]{intern(stringIndex, id), intern(stringIndex, name), intern(stringIndex, address),
+                            sequence, Geography.districtCode(district), ratingTenths});
+                    sequence++;
+                }
+            }
+        }
+        int[][] menu = new int[MENU.length][];
+        for (int k = 0; k < MENU.length; k++) {
+            menu[k] = new int[]{intern(stringIndex, (String) MENU[k][0]), intern(stringIndex, (String) MENU[k][1])};
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(stringIndex.size());
+        out.writeInt(MENU.length);
+        out.writeInt(records.size());
+        List<byte[]> encoded = new ArrayList<>();
+        int end = 0;
+        for (String s : stringIndex.keySet()) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            encoded.add(utf8);
+            end += utf8.length;
+            out.writeInt(end);
+        }
+        for (int k = 0; k < MENU.length; k++) {
+            out.writeInt(menu[k][0]);
+            out.writeInt(menu[k][1]);
+            out.writeLong((Long) MENU[k][2]);
+        }
+        for (int[] record : records) {
+            out.writeInt(record[0]);
+            out.writeInt(record[1]);
+            out.writeInt(record[2]);
+            out.writeShort(record[3]);
+            out.writeByte(record[4]);
+            out.writeByte(record[5]);
+        }
+        for (byte[] utf8 : encoded) {
+            out.write(utf8);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static int intern(Map<String, Integer> stringIndex, String s) {
+        return stringIndex.computeIfAbsent(s, k -> stringIndex.size());
+    }
+}
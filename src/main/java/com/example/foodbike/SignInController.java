@@ -128,16 +128,16 @@ public class SignInController {
             
             if (user.getUserType() == User.UserType.ADMIN) {
                 AdminController controller = fxmlLoader.getController();
-                controller.setCurrentUser(user);
+                controller.setCurrentUser(user, stage);
             } else if (user.getUserType() == User.UserType.USER) {
                 RestaurantController controller = fxmlLoader.getController();
                 controller.setCurrentUser(user);
             } else if (user.getUserType() == User.UserType.ENTREPRENEUR) {
                 EntrepreneurController controller = fxmlLoader.getController();
-                controller.setCurrentUser(user);
+                controller.setCurrentUser(user, stage);
             } else if (user.getUserType() == User.UserType.BIKER) {
                 BikerController controller = fxmlLoader.getController();
-                controller.setCurrentUser(user);
+                controller.setCurrentUser(user, stage);
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -0,0 +1,169 @@
+package com.example.foodbike;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate heaviest keys of a weighted stream in fixed memory, using the Space-Saving algorithm.
+ * At most {@code capacity} keys are counted; a new key takes over the counter of the smallest one
+ * and inherits its count as an overestimate, recorded as the entry's error. Any key whose true
+ * weight exceeds the stream total divided by the capacity is guaranteed to be kept.
+ * <p>
+ * The counters form a min-heap, so adding is O(log capacity). Not thread-safe.
+ */
+public class SpaceSaving<K> {
+    private final Counter<K>[] heap;
+    private final Map<K, Counter<K>> counters;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        @SuppressWarnings("unchecked")
+        Counter<K>[] counterHeap = (Counter<K>[]) new Counter<?>[capacity];
+        this.heap = counterHeap;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void add(K key, long weight) {
+        total += weight;
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.index);
+        } else if (size < heap.length) {
+            counter = new Counter<>(key, weight, 0);
+            counters.put(key, counter);
+            heap[size] = counter;
+            counter.index = size;
+            siftUp(size++);
+        } else {
+            // Evict the smallest key; its count is an upper bound on what the new key had before
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.count;
+            counter.count += weight;
+            counters.put(key, counter);
+            siftDown(0);
+        }
+    }
+
+    /** The weight added so far, across all keys. */
+    public long getTotal() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(K key) {
+        return counters.containsKey(key);
+    }
+
+    /**
+     * The smallest count kept once every counter is in use, else 0. A key that is not counted was
+     * added with at most this much weight.
+     */
+    public long getMinCount() {
+        return size == heap.length ? heap[0].count : 0;
+    }
+
+    /** The (at most) {@code k} keys with the highest estimated counts, highest first. */
+    public List<Entry<K>> top(int k) {
+        Counter<K>[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, Comparator.comparingLong((Counter<K> counter) -> counter.count).reversed());
+        List<Entry<K>> top = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < sorted.length && i < k; i++) {
+            top.add(new Entry<>(sorted[i].key, sorted[i].count, sorted[i].error));
+        }
+        return top;
+    }
+
+    private void siftUp(int index) {
+        Counter<K> counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<K> counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter<K> counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private static class Counter<K> {
+        private K key;
+        private long count;
+        private long error;
+        private int index;
+
+        Counter(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /** A key with its estimated count, which overstates the true count by at most the error. */
+    public static final class Entry<K> {
+        private final K key;
+        private final long count;
+        private final long error;
+
+        Entry(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        /** The count the key is certain to have had. */
+        public long getGuaranteedCount() {
+            return count - error;
+        }
+    }
+}
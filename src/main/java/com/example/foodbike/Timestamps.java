@@ -0,0 +1,28 @@
+package com.example.foodbike;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * The model keeps times as epoch milliseconds, with 0 meaning "not set", so sorting and range checks
+ * compare longs. These helpers convert to and from the {@link LocalDateTime}s the screens display,
+ * in the system time zone.
+ */
+public final class Timestamps {
+    private Timestamps() {
+    }
+
+    public static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+
+    public static LocalDateTime toDateTime(long millis) {
+        return millis != 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()) : null;
+    }
+
+    /** The local calendar day containing {@code millis}, as {@link java.time.LocalDate#toEpochDay()}. */
+    public static long toEpochDay(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+}
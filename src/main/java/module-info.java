@@ -1,6 +1,8 @@
 module com.example.foodbike {
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.httpserver;
+    requires java.net.http;
     
     opens com.example.foodbike to javafx.fxml;
     exports com.example.foodbike;